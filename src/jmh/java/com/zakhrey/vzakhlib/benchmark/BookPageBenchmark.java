@@ -0,0 +1,160 @@
+package com.zakhrey.vzakhlib.benchmark;
+
+import com.zakhrey.vzakhlib.config.HttpFormatConfig;
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.generator.CatalogGenerator;
+import com.zakhrey.vzakhlib.mapper.EntityMapper;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.repository.BookRow;
+import com.zakhrey.vzakhlib.repository.GenreRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути страницы книг: преобразование сущностей и строк проекции в DTO, сборка
+ * {@link PageResponse} и его сериализация. Размер страницы и число жанров у книги - параметры;
+ * жанры берутся из общего набора, как в каталоге, где у многих книг одни и те же жанры. Названия,
+ * описания и языки книг дает {@link CatalogGenerator} с фиксированным зерном.
+ * Запуск с профилировщиком GC (выделение памяти на операцию): {@code mvn -Pbenchmark verify}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookPageBenchmark {
+
+    private static final int CATALOG_GENRES = 40;
+    private static final long SEED = 42;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    @Param({"2", "8"})
+    public int genresPerBook;
+
+    private List<Book> books;
+    private Page<BookRow> rows;
+    private List<GenreRow> genreRows;
+    private Page<BookDto> dtoPage;
+    private PageResponse<BookDto> response;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        Series series = Series.builder().id(UUID.randomUUID()).name("Цикл").description("Описание цикла")
+            .createTs(now).updateTs(now).build();
+        List<Genre> catalog = new ArrayList<>(CATALOG_GENRES);
+        for (int i = 0; i < CATALOG_GENRES; i++) {
+            catalog.add(Genre.builder().id(UUID.randomUUID()).name("Жанр " + i).description("Описание жанра " + i)
+                .createTs(now).updateTs(now).build());
+        }
+
+        CatalogGenerator generator = new CatalogGenerator(
+            new CatalogGenerator.Settings(pageSize, CATALOG_GENRES, 0, SEED, 1, pageSize));
+        books = new ArrayList<>(pageSize);
+        List<BookRow> bookRows = new ArrayList<>(pageSize);
+        genreRows = new ArrayList<>(pageSize * genresPerBook);
+        for (int i = 0; i < pageSize; i++) {
+            Set<Genre> genres = new HashSet<>();
+            for (int g = 0; g < genresPerBook; g++) {
+                genres.add(catalog.get((i + g * 7) % CATALOG_GENRES));
+            }
+            CatalogGenerator.GeneratedBook generated = generator.book(i);
+            Book book = Book.builder()
+                .id(generated.id())
+                .name(generated.name())
+                .description(generated.description())
+                .language(generated.language())
+                .fileLink(generated.fileLink())
+                .series(series)
+                .genres(genres)
+                .createTs(now)
+                .updateTs(now)
+                .build();
+            books.add(book);
+            bookRows.add(new BookRow(book.getId(), book.getName(), book.getDescription(), book.getLanguage(),
+                book.getFileLink(), now, now, series.getId(), series.getName(), series.getDescription(), now, now));
+            for (Genre genre : genres) {
+                genreRows.add(new GenreRow(book.getId(), genre.getId(), genre.getName(), genre.getDescription(),
+                    now, now));
+            }
+        }
+
+        PageRequest pageable = PageRequest.of(0, pageSize);
+        rows = new PageImpl<>(bookRows, pageable, 10_000);
+        dtoPage = EntityMapper.toDtoPage(rows, genreRows);
+        response = PageResponse.of(dtoPage);
+        json = JsonMapper.builder().build();
+        cbor = HttpFormatConfig.cborMapper();
+        smile = HttpFormatConfig.smileMapper();
+    }
+
+    /**
+     * Преобразование загруженных сущностей по одной книге (карточка книги, пакетные операции)
+     */
+    @Benchmark
+    public void entityToDto(Blackhole blackhole) {
+        for (Book book : books) {
+            blackhole.consume(EntityMapper.toDto(book));
+        }
+    }
+
+    /**
+     * Преобразование строк проекции страницы с общими DTO серии и жанров (списки книг)
+     */
+    @Benchmark
+    public Page<BookDto> rowsToDtoPage() {
+        return EntityMapper.toDtoPage(rows, genreRows);
+    }
+
+    @Benchmark
+    public PageResponse<BookDto> pageResponseOf() {
+        return PageResponse.of(dtoPage);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return json.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() {
+        return cbor.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() {
+        return smile.writeValueAsBytes(response);
+    }
+}
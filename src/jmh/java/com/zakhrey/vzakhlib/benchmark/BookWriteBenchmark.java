@@ -0,0 +1,151 @@
+package com.zakhrey.vzakhlib.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетное создание книг на встроенной H2: проверка названия {@code existsByName} и вставка по одной книге
+ * против одного пакета {@code INSERT ... WHERE NOT EXISTS}, который пропускает занятые названия
+ * ({@code BookRepositoryImpl.insertSkippingTakenNames}). Часть названий каждого пакета уже занята.
+ * Запуск: {@code mvn -Pbenchmark verify -Djmh.args="BookWriteBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookWriteBenchmark {
+
+    private static final String EXISTS_SQL = "SELECT 1 FROM book WHERE name = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO book (id, name, language, create_ts, update_ts) "
+        + "VALUES (?, ?, ?, ?, ?)";
+
+    // Тот же запрос, что в BookRepositoryImpl для баз без ON CONFLICT
+    private static final String INSERT_SKIPPING_SQL = "INSERT INTO book (id, name, language, create_ts, update_ts) "
+        + "SELECT CAST(? AS UUID), CAST(? AS VARCHAR(512)), CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP), "
+        + "CAST(? AS TIMESTAMP) WHERE NOT EXISTS (SELECT 1 FROM book x WHERE x.name = ?)";
+
+    // Каждое десятое название в пакете уже занято
+    private static final int TAKEN_EVERY = 10;
+
+    @Param({"50", "500"})
+    public int batchSize;
+
+    private Connection connection;
+    private PreparedStatement exists;
+    private PreparedStatement insert;
+    private PreparedStatement insertSkipping;
+    private long batch;
+
+    @Setup(Level.Trial)
+    public void openDatabase() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:book-write;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE IF NOT EXISTS book (id UUID PRIMARY KEY, name VARCHAR(512) NOT NULL, "
+                + "language VARCHAR(255) NOT NULL, create_ts TIMESTAMP, update_ts TIMESTAMP, "
+                + "CONSTRAINT uk_book_name UNIQUE (name))");
+        }
+        connection.setAutoCommit(false);
+        exists = connection.prepareStatement(EXISTS_SQL);
+        insert = connection.prepareStatement(INSERT_SQL);
+        insertSkipping = connection.prepareStatement(INSERT_SKIPPING_SQL);
+    }
+
+    /**
+     * Пустая таблица и занятые названия для каждой итерации, чтобы размер индекса не рос от итерации к итерации
+     */
+    @Setup(Level.Iteration)
+    public void takeNames() throws SQLException {
+        try (Statement truncate = connection.createStatement()) {
+            truncate.execute("TRUNCATE TABLE book");
+        }
+        batch = 0;
+        for (int i = 0; i < batchSize; i += TAKEN_EVERY) {
+            insert(insert, "Занятая книга " + i);
+            insert.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("DROP TABLE book");
+        }
+        connection.close();
+    }
+
+    /**
+     * Прежний путь: запрос на каждое название и отдельная вставка свободных
+     */
+    @Benchmark
+    public int existsThenInsert() throws SQLException {
+        long current = batch++;
+        int inserted = 0;
+        for (int i = 0; i < batchSize; i++) {
+            exists.setString(1, name(current, i));
+            try (ResultSet found = exists.executeQuery()) {
+                if (found.next()) {
+                    continue;
+                }
+            }
+            insert(insert, name(current, i));
+            inserted += insert.executeUpdate();
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    @Benchmark
+    public int batchSkippingTaken() throws SQLException {
+        long current = batch++;
+        for (int i = 0; i < batchSize; i++) {
+            String name = name(current, i);
+            insert(insertSkipping, name);
+            insertSkipping.setString(6, name);
+            insertSkipping.addBatch();
+        }
+        int inserted = 0;
+        for (int count : insertSkipping.executeBatch()) {
+            inserted += count;
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    private static String name(long batch, int index) {
+        return index % TAKEN_EVERY == 0 ? "Занятая книга " + index : "Книга " + batch + "-" + index;
+    }
+
+    private static void insert(PreparedStatement statement, String name) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        statement.setObject(1, UUID.randomUUID());
+        statement.setString(2, name);
+        statement.setString(3, "RUS");
+        statement.setObject(4, now);
+        statement.setObject(5, now);
+    }
+}
@@ -0,0 +1,152 @@
+package com.zakhrey.vzakhlib.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов API.
+ * На виртуальных потоках Tomcat принимает в работу любое число запросов,
+ * и без ограничения они выстраиваются в очередь за соединениями Hikari,
+ * пока не истечет connection-timeout. Запрос, не получивший разрешение
+ * за {@code acquireTimeout}, получает 503 с Retry-After.
+ * Асинхронный запрос (потоковая выгрузка) держит разрешение до завершения асинхронной обработки.
+ * Число разрешений берется из {@code limit} перед каждым запросом, поэтому следует за размером пула,
+ * который меняет {@code AdaptivePoolSizer}.
+ */
+@Slf4j
+public class DatabaseBackpressureFilter extends OncePerRequestFilter {
+
+    private final Permits permits;
+    private final IntSupplier limit;
+    private final long acquireTimeoutNanos;
+    private volatile int maxPermits;
+
+    public DatabaseBackpressureFilter(int maxPermits, Duration acquireTimeout) {
+        this(() -> maxPermits, acquireTimeout);
+    }
+
+    public DatabaseBackpressureFilter(IntSupplier limit, Duration acquireTimeout) {
+        this.limit = limit;
+        this.maxPermits = Math.max(1, limit.getAsInt());
+        this.permits = new Permits(maxPermits);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        resize(Math.max(1, limit.getAsInt()));
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Запрос '{} {}' отклонен: заняты все {} мест обработки", request.getMethod(),
+                request.getRequestURI(), maxPermits);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Число свободных мест обработки
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Приведение числа разрешений к новому пределу; занятые сверх предела разрешения
+     * уходят по мере освобождения
+     */
+    private void resize(int target) {
+        if (target == maxPermits) {
+            return;
+        }
+        synchronized (permits) {
+            int delta = target - maxPermits;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.reducePermits(-delta);
+            }
+            maxPermits = target;
+        }
+        log.info("Предел одновременных запросов API изменен: {}", target);
+    }
+
+    private static final class Permits extends Semaphore {
+
+        private Permits(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync сбрасывает слушателей, поэтому добавляем себя снова
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
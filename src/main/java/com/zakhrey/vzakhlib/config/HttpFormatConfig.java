@@ -0,0 +1,62 @@
+package com.zakhrey.vzakhlib.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
+
+/**
+ * Двоичные форматы ответов REST API, выбираемые заголовком Accept:
+ * {@code application/cbor} и {@code application/x-jackson-smile}.
+ * Конвертеры заменяют стандартные на их же местах после JSON, поэтому
+ * клиенты с {@code Accept: *}{@code /*} по-прежнему получают JSON. Ответы API помечаются {@code Vary: Accept}.
+ */
+@Configuration
+public class HttpFormatConfig {
+
+    public static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    public ServerHttpMessageConvertersCustomizer binaryFormatsCustomizer() {
+        return builder -> builder
+            .withCborConverter(new JacksonCborHttpMessageConverter(cborMapper()))
+            .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper()));
+    }
+
+    /**
+     * Представление ответов API зависит от Accept, поэтому кэши должны хранить их раздельно
+     */
+    @Bean
+    public FilterRegistrationBean<Filter> varyAcceptFilter() {
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+            ((HttpServletResponse) response).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            chain.doFilter(request, response);
+        });
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    public static CBORMapper cborMapper() {
+        return CBORMapper.builder().build();
+    }
+
+    /**
+     * Повторяющиеся имена полей и короткие строки (названия жанров и серий во вложенных DTO)
+     * записываются ссылками на первое вхождение
+     */
+    public static SmileMapper smileMapper() {
+        return SmileMapper.builder()
+            .enable(SmileWriteFeature.CHECK_SHARED_NAMES, SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+            .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.zakhrey.vzakhlib.config;
+
+import com.zakhrey.vzakhlib.monitoring.ConnectionMonitor;
+import com.zakhrey.vzakhlib.monitoring.MonitoredDataSource;
+import com.zakhrey.vzakhlib.monitoring.ServiceMetricsInterceptor;
+import com.zakhrey.vzakhlib.monitoring.SlowQueryJournal;
+import com.zakhrey.vzakhlib.monitoring.StatementRecorder;
+import com.zakhrey.vzakhlib.monitoring.StatementStatsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+
+/**
+ * Учет соединений JDBC по методам сервисов (см. {@link ConnectionMonitor}), периодические проверки пула
+ * метрики вызовов сервисов (см. {@link ServiceMetricsInterceptor}) и учет SQL-запросов HTTP-запроса
+ * (см. {@link StatementStatsFilter})
+ */
+@Configuration
+@EnableScheduling
+public class MonitoringConfig {
+
+    @Bean
+    public static BeanPostProcessor monitoredDataSourcePostProcessor(ObjectProvider<ConnectionMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)) {
+                    return new MonitoredDataSource(dataSource, monitor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Учет запросов с журналом медленных запросов этого контекста вместо экземпляра из настройки по имени класса
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementRecorderCustomizer(SlowQueryJournal journal) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementRecorder(journal));
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementStatsFilter> statementStatsFilter(
+        @Value("${vzakhlib.statements.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        FilterRegistrationBean<StatementStatsFilter> registration =
+            new FilterRegistrationBean<>(new StatementStatsFilter(nPlusOneThreshold));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Метрики вызовов сервисов и метод сервиса для тегов; снаружи транзакции, чтобы время включало фиксацию
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        StaticMethodMatcherPointcutAdvisor advisor =
+            new StaticMethodMatcherPointcutAdvisor(new ServiceMetricsInterceptor(meterRegistry)) {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return ServiceMetricsInterceptor.serviceOf(method, targetClass) != null;
+                }
+            };
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
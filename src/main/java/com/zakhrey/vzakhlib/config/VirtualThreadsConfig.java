@@ -0,0 +1,50 @@
+package com.zakhrey.vzakhlib.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+/**
+ * Режим виртуальных потоков ({@code spring.threads.virtual.enabled: true}, Java 21+).
+ * Сами исполнители переключает Spring Boot: запросы Tomcat, applicationTaskExecutor
+ * (асинхронная выгрузка каталога, {@code @Async}) и планировщик. Здесь добавляется
+ * ограничение одновременных запросов API по размеру пула соединений Hikari.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public FilterRegistrationBean<DatabaseBackpressureFilter> databaseBackpressureFilter(
+        DataSource dataSource,
+        @Value("${vzakhlib.backpressure.requests-per-connection:2}") int requestsPerConnection,
+        @Value("${vzakhlib.backpressure.acquire-timeout:2s}") Duration acquireTimeout) throws SQLException {
+        HikariDataSource pool = dataSource.isWrapperFor(HikariDataSource.class)
+            ? dataSource.unwrap(HikariDataSource.class)
+            : null;
+        // Размер пула читается на каждом запросе: его может менять AdaptivePoolSizer
+        IntSupplier permits = pool != null
+            ? () -> pool.getMaximumPoolSize() * requestsPerConnection
+            : () -> 10 * requestsPerConnection;
+        log.info("Виртуальные потоки: одновременно обрабатывается до {} запросов API на соединение пула",
+            requestsPerConnection);
+
+        FilterRegistrationBean<DatabaseBackpressureFilter> registration =
+            new FilterRegistrationBean<>(new DatabaseBackpressureFilter(permits, acquireTimeout));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
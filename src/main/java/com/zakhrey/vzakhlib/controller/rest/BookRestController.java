@@ -1,27 +1,55 @@
 package com.zakhrey.vzakhlib.controller.rest;
 
+import com.zakhrey.vzakhlib.model.BatchResponse;
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.CursorPageResponse;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
 import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.model.request.BookGenreBatchRequest;
 import com.zakhrey.vzakhlib.model.request.BookUpdateRequest;
+import com.zakhrey.vzakhlib.service.BookExportService;
 import com.zakhrey.vzakhlib.service.BookService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/books")
 public class BookRestController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final BookService bookService;
+    private final BookExportService exportService;
+    private final ConditionalRequests conditionalRequests;
+    private final Duration exportTimeout;
 
-    public BookRestController(BookService bookService) {
+    public BookRestController(BookService bookService, BookExportService exportService,
+                              ConditionalRequests conditionalRequests,
+                              @Value("${vzakhlib.export.timeout:30m}") Duration exportTimeout) {
         this.bookService = bookService;
+        this.exportService = exportService;
+        this.conditionalRequests = conditionalRequests;
+        this.exportTimeout = exportTimeout;
     }
 
     /**
@@ -43,22 +71,114 @@ public class BookRestController {
     }
 
     /**
-     * Получить список всех книг с пагинацией
+     * Создать пакет книг. Ответ содержит результат по каждому элементу в порядке запроса
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<BookDto>> createBooks(@RequestBody List<BookCreateRequest> requests) {
+        BatchResponse<BookDto> result = bookService.createBooks(requests);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Добавить и удалить пакет связей книга-жанр за один вызов
+     */
+    @PostMapping("/genres/batch")
+    public ResponseEntity<BulkOperationResult> updateGenreLinks(@RequestBody BookGenreBatchRequest request) {
+        BulkOperationResult result = bookService.updateGenreLinks(request);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Удалить пакет книг по списку ID
+     */
+    @PostMapping("/batch/delete")
+    public ResponseEntity<BulkOperationResult> deleteBooks(@RequestBody List<UUID> bookIds) {
+        BulkOperationResult result = bookService.deleteBooks(bookIds);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Получить список всех книг с пагинацией.
+     * Параметр count (exact|approx|none) задает способ подсчета общего количества,
+     * fields - список полей ответа через запятую
      */
     @GetMapping
-    public ResponseEntity<PageResponse<BookDto>> getAllBooks(
-            @PageableDefault(size = 20, sort = "title") Pageable pageable) {
-        PageResponse<BookDto> booksPage = bookService.getAllBooks(pageable);
+    public ResponseEntity<?> getAllBooks(
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20, sort = "title") Pageable pageable,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.BOOK_FIELDS);
+        CountMode countMode = CountMode.fromParam(count);
+        if (countMode != CountMode.EXACT) {
+            return ResponseEntity.ok(SparseFields.books(bookService.getAllBooksSlice(pageable, countMode, fieldSet), fieldSet));
+        }
+        PageResponse<BookDto> booksPage = conditionalRequests.load(webRequest, fieldSet,
+            () -> bookService.getAllBooksVersion(pageable),
+            () -> bookService.getAllBooks(pageable, fieldSet),
+            page -> bookService.getAllBooksVersion(page, fieldSet));
+        if (booksPage == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.books(booksPage, fieldSet));
+    }
+
+    /**
+     * Получить список книг с курсорной пагинацией
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<BookDto>> scrollBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<BookDto> booksPage = bookService.scrollBooks(cursor, size);
         return ResponseEntity.ok(booksPage);
     }
 
     /**
-     * Получить книгу по ID
+     * Выгрузить весь каталог в формате NDJSON (gzip=true - сжатым файлом).
+     * Строки пишутся в ответ по мере чтения из базы. Предел времени выгрузки задается только для этого
+     * ответа (vzakhlib.export.timeout), остальные асинхронные обработчики используют предел по умолчанию
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            NativeWebRequest webRequest) {
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        if (!gzip) {
+            return ResponseEntity.ok()
+                    .contentType(NDJSON)
+                    .body(exportService::exportBooks);
+        }
+
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true);
+            exportService.exportBooks(compressed);
+            compressed.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("books.ndjson.gz").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Получить книгу по ID (fields - список полей ответа через запятую)
      */
     @GetMapping("/{bookId}")
-    public ResponseEntity<BookDto> getBookById(@PathVariable UUID bookId) {
-        BookDto book = bookService.getBookById(bookId);
-        return ResponseEntity.ok(book);
+    public ResponseEntity<?> getBookById(
+            @PathVariable UUID bookId,
+            @RequestParam(required = false) String fields,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.BOOK_FIELDS);
+        BookDto book = conditionalRequests.load(webRequest, fieldSet,
+            () -> bookService.getBookVersion(bookId),
+            () -> bookService.getBookById(bookId, fieldSet),
+            loaded -> bookService.getBookVersion(loaded, fieldSet));
+        if (book == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.book(book, fieldSet));
     }
 
     /**
@@ -124,16 +244,54 @@ public class BookRestController {
     }
 
     /**
-     * Поиск книг по различным критериям
+     * Поиск книг по различным критериям.
+     * Параметр q включает полнотекстовый поиск по названию и описанию с ранжированием,
+     * mode=index выполняет его по встроенному индексу каталога в памяти,
+     * параметр count (exact|approx|none) задает способ подсчета общего количества,
+     * fields - список полей ответа через запятую
      */
     @GetMapping("/search")
-    public ResponseEntity<PageResponse<BookDto>> searchBooks(
+    public ResponseEntity<?> searchBooks(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String mode,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String language,
             @RequestParam(required = false) UUID seriesId,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields,
             @PageableDefault(size = 20, sort = "title") Pageable pageable) {
         
-        PageResponse<BookDto> searchResult = bookService.searchBooks(name, language, seriesId, pageable);
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.BOOK_FIELDS);
+        if ("index".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(SparseFields.books(
+                bookService.indexSearch(q != null ? q : name, pageable, fieldSet), fieldSet));
+        }
+        if (q != null && !q.isBlank()) {
+            return ResponseEntity.ok(SparseFields.books(
+                bookService.fullTextSearch(q, language, seriesId, pageable, fieldSet), fieldSet));
+        }
+        CountMode countMode = CountMode.fromParam(count);
+        if (countMode != CountMode.EXACT) {
+            return ResponseEntity.ok(SparseFields.books(
+                bookService.searchBooksSlice(name, language, seriesId, pageable, countMode, fieldSet), fieldSet));
+        }
+        PageResponse<BookDto> searchResult = bookService.searchBooks(name, language, seriesId, pageable, fieldSet);
+        return ResponseEntity.ok(SparseFields.books(searchResult, fieldSet));
+    }
+
+    /**
+     * Поиск книг с курсорной пагинацией
+     */
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPageResponse<BookDto>> scrollSearchBooks(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) UUID seriesId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageResponse<BookDto> searchResult =
+                bookService.scrollSearchBooks(name, language, seriesId, cursor, size);
         return ResponseEntity.ok(searchResult);
     }
 
@@ -0,0 +1,130 @@
+package com.zakhrey.vzakhlib.controller.rest;
+
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Обработка If-None-Match / If-Modified-Since. Валидаторы записываются в ответ в любом случае;
+ * при совпадении статус 304 уже выставлен и обработчик возвращает null без тела.
+ */
+@Component
+class ConditionalRequests {
+
+    private final ContentNegotiationManager contentNegotiationManager;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+
+    ConditionalRequests(ContentNegotiationManager contentNegotiationManager,
+                        RequestMappingHandlerAdapter handlerAdapter) {
+        this.contentNegotiationManager = contentNegotiationManager;
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    private static boolean notModified(WebRequest request, ResourceVersion version) {
+        return version.lastModified() != null
+            ? request.checkNotModified(version.etag(), version.lastModified().toEpochMilli())
+            : request.checkNotModified(version.etag());
+    }
+
+    /**
+     * Ответы с разными наборами полей и в разных форматах (JSON, CBOR, Smile) - разные представления ресурса,
+     * поэтому набор полей и двоичный формат входят в ETag. ETag ответа JSON со всеми полями остается прежним
+     */
+    boolean notModified(NativeWebRequest request, ResourceVersion version, FieldSet fields) {
+        MediaType format = binaryFormat(request);
+        if (fields.isAll() && format == null) {
+            return notModified(request, version);
+        }
+        String variant = version.etag() + "|" + fields.key() + (format != null ? "|" + format : "");
+        String etag = DigestUtils.md5DigestAsHex(variant.getBytes(StandardCharsets.UTF_8));
+        return notModified(request, new ResourceVersion(etag, version.lastModified()));
+    }
+
+    /**
+     * Ресурс или страница списка с валидаторами. На условный запрос версия вычисляется до загрузки, и при
+     * совпадении ответ не читается: возвращается null, статус 304 уже выставлен. На обычный запрос версия
+     * строится по загруженному ответу, без отдельного запроса отметок времени
+     */
+    <T> T load(NativeWebRequest request, FieldSet fields, Supplier<ResourceVersion> version, Supplier<T> load,
+               Function<T, ResourceVersion> loadedVersion) {
+        if (isConditional(request)) {
+            return notModified(request, version.get(), fields) ? null : load.get();
+        }
+        T loaded = load.get();
+        notModified(request, loadedVersion.apply(loaded), fields);
+        return loaded;
+    }
+
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+            || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Двоичный формат, который выберет Spring MVC при записи ответа, либо null для JSON. Принимаемые типы
+     * дает {@link ContentNegotiationManager}, производимые - зарегистрированные конвертеры (или produces
+     * обработчика); совместимые пары сортируются по специфичности, как при выборе конвертера
+     */
+    MediaType binaryFormat(NativeWebRequest request) {
+        List<MediaType> acceptable;
+        try {
+            acceptable = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType accepted : acceptable) {
+            for (MediaType producible : producibleTypes(request)) {
+                if (accepted.isCompatibleWith(producible)) {
+                    compatible.add(mostSpecific(accepted, producible));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+
+        return compatible.stream()
+            .filter(MediaType::isConcrete)
+            .findFirst()
+            .map(MediaType::removeQualityValue)
+            .filter(selected -> !selected.isCompatibleWith(MediaType.APPLICATION_JSON))
+            .orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MediaType> producibleTypes(NativeWebRequest request) {
+        Set<MediaType> declared = (Set<MediaType>) request.getAttribute(
+            HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (declared != null && !declared.isEmpty()) {
+            return new ArrayList<>(declared);
+        }
+        // Тело ответа API - DTO, поэтому годятся конвертеры, способные записать произвольный объект
+        return handlerAdapter.getMessageConverters().stream()
+            .filter(converter -> converter.canWrite(Object.class, null))
+            .flatMap(converter -> converter.getSupportedMediaTypes(Object.class).stream())
+            .toList();
+    }
+
+    private static MediaType mostSpecific(MediaType accepted, MediaType producible) {
+        MediaType produced = producible.copyQualityValue(accepted);
+        return accepted.isLessSpecific(produced) ? produced : accepted;
+    }
+}
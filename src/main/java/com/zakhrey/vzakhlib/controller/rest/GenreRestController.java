@@ -1,6 +1,9 @@
 package com.zakhrey.vzakhlib.controller.rest;
 
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.GenreDto;
 import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
 import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
@@ -13,6 +16,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.UUID;
 
@@ -22,6 +26,7 @@ import java.util.UUID;
 public class GenreRestController {
     
     private final GenreService genreService;
+    private final ConditionalRequests conditionalRequests;
     
     @PostMapping
     public ResponseEntity<GenreDto> createGenre(@Valid @RequestBody GenreCreateRequest request) {
@@ -30,16 +35,32 @@ public class GenreRestController {
     }
     
     @GetMapping
-    public ResponseEntity<PageResponse<GenreDto>> getAllGenres(
-            @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<GenreDto> genres = genreService.getAllGenres(pageable);
-        return ResponseEntity.ok(genres);
+    public ResponseEntity<PageResponse<?>> getAllGenres(
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20) Pageable pageable,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.DICTIONARY_FIELDS);
+        PageResponse<GenreDto> genres = genreService.getAllGenres(pageable, fieldSet);
+        if (conditionalRequests.notModified(webRequest, genreService.getAllGenresVersion(genres), fieldSet)) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.genres(genres, fieldSet));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<GenreDto> getGenreById(@PathVariable UUID id) {
-        GenreDto genre = genreService.getGenreById(id);
-        return ResponseEntity.ok(genre);
+    public ResponseEntity<?> getGenreById(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String fields,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.DICTIONARY_FIELDS);
+        GenreDto genre = conditionalRequests.load(webRequest, fieldSet,
+            () -> genreService.getGenreVersion(id),
+            () -> genreService.getGenreById(id),
+            genreService::getGenreVersion);
+        if (genre == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.genre(genre, fieldSet));
     }
     
     @PutMapping("/{id}")
@@ -56,11 +77,37 @@ public class GenreRestController {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * Перенести все книги жанра в другой жанр
+     */
+    @PostMapping("/{id}/books/reassign/{targetId}")
+    public ResponseEntity<BulkOperationResult> reassignBooks(
+            @PathVariable UUID id,
+            @PathVariable UUID targetId) {
+        BulkOperationResult result = genreService.reassignBooks(id, targetId);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/{id}/books")
-    public ResponseEntity<PageResponse<BookDto>> getBooksByGenre(
+    public ResponseEntity<?> getBooksByGenre(
             @PathVariable UUID id,
-            @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<BookDto> books = genreService.getBooksByGenre(id, pageable);
-        return ResponseEntity.ok(books);
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20) Pageable pageable,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.BOOK_FIELDS);
+        CountMode countMode = CountMode.fromParam(count);
+        if (countMode != CountMode.EXACT) {
+            return ResponseEntity.ok(SparseFields.books(
+                genreService.getBooksByGenreSlice(id, pageable, countMode, fieldSet), fieldSet));
+        }
+        PageResponse<BookDto> books = conditionalRequests.load(webRequest, fieldSet,
+            () -> genreService.getBooksByGenreVersion(id, pageable),
+            () -> genreService.getBooksByGenre(id, pageable, fieldSet),
+            page -> genreService.getBooksByGenreVersion(page, fieldSet));
+        if (books == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.books(books, fieldSet));
     }
 }
\ No newline at end of file
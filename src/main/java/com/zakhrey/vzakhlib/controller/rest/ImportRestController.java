@@ -0,0 +1,78 @@
+package com.zakhrey.vzakhlib.controller.rest;
+
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import com.zakhrey.vzakhlib.service.BookImportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/imports")
+public class ImportRestController {
+
+    private final BookImportService importService;
+
+    public ImportRestController(BookImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Запустить импорт книг из файла CSV или NDJSON в каталоге импорта на сервере
+     */
+    @PostMapping
+    public ResponseEntity<ImportJobStatus> startImport(
+            @RequestParam String path,
+            @RequestParam String format,
+            @RequestParam(required = false) Integer chunkSize) {
+        ImportJobStatus job = importService.startImport(path, format, chunkSize);
+        return accepted(job);
+    }
+
+    /**
+     * Запустить импорт книг из загруженного файла
+     */
+    @PostMapping(path = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobStatus> uploadImport(
+            @RequestParam MultipartFile file,
+            @RequestParam String format,
+            @RequestParam(required = false) Integer chunkSize) {
+        ImportJobStatus job = importService.startImport(file, format, chunkSize);
+        return accepted(job);
+    }
+
+    /**
+     * Получить состояние задачи импорта: прогресс, скорость и ошибочные строки
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobStatus> getStatus(@PathVariable UUID id) {
+        ImportJobStatus job = importService.getStatus(id);
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Продолжить прерванный импорт с последнего зафиксированного блока
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJobStatus> resumeImport(@PathVariable UUID id) {
+        ImportJobStatus job = importService.resumeImport(id);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    private ResponseEntity<ImportJobStatus> accepted(ImportJobStatus job) {
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentContextPath()
+                .path("/api/v1/imports/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity
+                .accepted()
+                .location(location)
+                .body(job);
+    }
+}
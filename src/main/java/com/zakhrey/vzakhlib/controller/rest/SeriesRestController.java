@@ -1,6 +1,8 @@
 package com.zakhrey.vzakhlib.controller.rest;
 
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
 import com.zakhrey.vzakhlib.model.SeriesDto;
 import com.zakhrey.vzakhlib.model.request.SeriesCreateRequest;
@@ -10,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -20,9 +23,11 @@ import java.util.UUID;
 public class SeriesRestController {
 
     private final SeriesService seriesService;
+    private final ConditionalRequests conditionalRequests;
 
-    public SeriesRestController(SeriesService seriesService) {
+    public SeriesRestController(SeriesService seriesService, ConditionalRequests conditionalRequests) {
         this.seriesService = seriesService;
+        this.conditionalRequests = conditionalRequests;
     }
 
     /**
@@ -44,22 +49,38 @@ public class SeriesRestController {
     }
 
     /**
-     * Получить список всех серий с пагинацией
+     * Получить список всех серий с пагинацией (fields - список полей ответа через запятую)
      */
     @GetMapping
-    public ResponseEntity<PageResponse<SeriesDto>> getAllSeries(
-            @PageableDefault(size = 20, sort = "name") Pageable pageable) {
-        PageResponse<SeriesDto> seriesPage = seriesService.getAllSeries(pageable);
-        return ResponseEntity.ok(seriesPage);
+    public ResponseEntity<PageResponse<?>> getAllSeries(
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20, sort = "name") Pageable pageable,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.DICTIONARY_FIELDS);
+        PageResponse<SeriesDto> seriesPage = seriesService.getAllSeries(pageable, fieldSet);
+        if (conditionalRequests.notModified(webRequest, seriesService.getAllSeriesVersion(seriesPage), fieldSet)) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.series(seriesPage, fieldSet));
     }
 
     /**
-     * Получить серию по ID
+     * Получить серию по ID (fields - список полей ответа через запятую)
      */
     @GetMapping("/{seriesId}")
-    public ResponseEntity<SeriesDto> getSeriesById(@PathVariable UUID seriesId) {
-        SeriesDto series = seriesService.getSeriesById(seriesId);
-        return ResponseEntity.ok(series);
+    public ResponseEntity<?> getSeriesById(
+            @PathVariable UUID seriesId,
+            @RequestParam(required = false) String fields,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.DICTIONARY_FIELDS);
+        SeriesDto series = conditionalRequests.load(webRequest, fieldSet,
+            () -> seriesService.getSeriesVersion(seriesId),
+            () -> seriesService.getSeriesById(seriesId),
+            seriesService::getSeriesVersion);
+        if (series == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.series(series, fieldSet));
     }
 
     /**
@@ -83,14 +104,32 @@ public class SeriesRestController {
     }
 
     /**
-     * Получить серию со всеми ее книгами (с пагинацией)
+     * Отвязать от серии все ее книги
+     */
+    @DeleteMapping("/{seriesId}/books")
+    public ResponseEntity<BulkOperationResult> detachAllBooks(@PathVariable UUID seriesId) {
+        BulkOperationResult result = seriesService.detachAllBooks(seriesId);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Получить серию со всеми ее книгами (с пагинацией, fields - список полей книг через запятую)
      */
     @GetMapping("/{seriesId}/books")
-    public ResponseEntity<PageResponse<BookDto>> getSeriesWithBooks(
+    public ResponseEntity<PageResponse<?>> getSeriesWithBooks(
             @PathVariable UUID seriesId,
-            @PageableDefault(size = 20) Pageable pageable) {
-        PageResponse<BookDto> booksPage = seriesService.getSeriesWithBooks(seriesId, pageable);
-        return ResponseEntity.ok(booksPage);
+            @RequestParam(required = false) String fields,
+            @PageableDefault(size = 20) Pageable pageable,
+            NativeWebRequest webRequest) {
+        FieldSet fieldSet = FieldSet.fromParam(fields, FieldSet.BOOK_FIELDS);
+        PageResponse<BookDto> booksPage = conditionalRequests.load(webRequest, fieldSet,
+            () -> seriesService.getSeriesWithBooksVersion(seriesId, pageable),
+            () -> seriesService.getSeriesWithBooks(seriesId, pageable, fieldSet),
+            page -> seriesService.getSeriesWithBooksVersion(page, fieldSet));
+        if (booksPage == null) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseFields.books(booksPage, fieldSet));
     }
 
     /**
@@ -0,0 +1,84 @@
+package com.zakhrey.vzakhlib.controller.rest;
+
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.SeriesDto;
+import com.zakhrey.vzakhlib.model.SliceResponse;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Представления ответа только с выбранными полями (параметр fields), в порядке полей DTO.
+ * Встроенные серия и жанры книги выводятся целиком
+ */
+final class SparseFields {
+
+    private SparseFields() {
+    }
+
+    static PageResponse<?> books(PageResponse<BookDto> page, FieldSet fields) {
+        return fields.isAll() ? page : page.map(book -> book(book, fields));
+    }
+
+    static SliceResponse<?> books(SliceResponse<BookDto> slice, FieldSet fields) {
+        return fields.isAll() ? slice : slice.map(book -> book(book, fields));
+    }
+
+    static Object book(BookDto book, FieldSet fields) {
+        return fields.isAll() ? book : bookView(book, fields);
+    }
+
+    static PageResponse<?> genres(PageResponse<GenreDto> page, FieldSet fields) {
+        return fields.isAll() ? page : page.map(genre -> genre(genre, fields));
+    }
+
+    static Object genre(GenreDto genre, FieldSet fields) {
+        return fields.isAll() ? genre : dictionary(genre.getId(), genre.getName(), genre.getDescription(),
+            genre.getCreateTs(), genre.getUpdateTs(), fields);
+    }
+
+    static PageResponse<?> series(PageResponse<SeriesDto> page, FieldSet fields) {
+        return fields.isAll() ? page : page.map(series -> series(series, fields));
+    }
+
+    static Object series(SeriesDto series, FieldSet fields) {
+        return fields.isAll() ? series : dictionary(series.getId(), series.getName(), series.getDescription(),
+            series.getCreateTs(), series.getUpdateTs(), fields);
+    }
+
+    private static Map<String, Object> bookView(BookDto book, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        put(view, fields, "id", book.getId());
+        put(view, fields, "name", book.getName());
+        put(view, fields, "description", book.getDescription());
+        put(view, fields, "series", book.getSeries());
+        put(view, fields, "language", book.getLanguage());
+        put(view, fields, "fileLink", book.getFileLink());
+        put(view, fields, "createTs", book.getCreateTs());
+        put(view, fields, "updateTs", book.getUpdateTs());
+        put(view, fields, "genres", book.getGenres());
+        return view;
+    }
+
+    private static Map<String, Object> dictionary(UUID id, String name, String description,
+                                                  LocalDateTime createTs, LocalDateTime updateTs, FieldSet fields) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        put(view, fields, "id", id);
+        put(view, fields, "name", name);
+        put(view, fields, "description", description);
+        put(view, fields, "createTs", createTs);
+        put(view, fields, "updateTs", updateTs);
+        return view;
+    }
+
+    private static void put(Map<String, Object> view, FieldSet fields, String field, Object value) {
+        if (fields.has(field)) {
+            view.put(field, value);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.zakhrey.vzakhlib.controller.ui;
 
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
 import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
 import com.zakhrey.vzakhlib.service.BookService;
@@ -75,7 +76,7 @@ public class BookController {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        PageResponse<BookDto> booksPage = bookService.getAllBooks(pageable);
+        PageResponse<BookDto> booksPage = bookService.getAllBooks(pageable, FieldSet.ALL);
 
         model.addAttribute("books", booksPage.getContent());
         model.addAttribute("currentPage", page);
@@ -1,7 +1,10 @@
 package com.zakhrey.vzakhlib.entity;
 
+import com.zakhrey.vzakhlib.search.CatalogIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +13,11 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "book")
+@EntityListeners(CatalogIndexListener.class)
+@Table(name = "book", uniqueConstraints = @UniqueConstraint(name = "uk_book_name", columnNames = "name"), indexes = {
+    // Ключ курсорной пагинации: сортировка и поиск позиции по (name, id)
+    @Index(name = "idx_book_name_id", columnList = "name, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -50,6 +57,7 @@ public class Book {
     private LocalDateTime updateTs;
     
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "genre_for_book",
         joinColumns = @JoinColumn(name = "book_id"),
@@ -1,7 +1,10 @@
 package com.zakhrey.vzakhlib.entity;
 
+import com.zakhrey.vzakhlib.search.CatalogIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +13,12 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "genre")
+@EntityListeners(CatalogIndexListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// На PostgreSQL индекс строится по LOWER(name), см. db/postgresql/unique_names.sql;
+// ограничение ddl-auto (H2 в тестах) различает регистр
+@Table(name = "genre", uniqueConstraints = @UniqueConstraint(name = "uk_genre_name", columnNames = "name"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,7 +32,7 @@ public class Genre {
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
     
-    @Column(name = "name", length = 512, nullable = false, unique = true)
+    @Column(name = "name", length = 512, nullable = false)
     private String name;
     
     @Column(name = "description", length = 4096)
@@ -1,7 +1,10 @@
 package com.zakhrey.vzakhlib.entity;
 
+import com.zakhrey.vzakhlib.search.CatalogIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +13,12 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "series")
+@EntityListeners(CatalogIndexListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// На PostgreSQL индекс строится по LOWER(name), см. db/postgresql/unique_names.sql;
+// ограничение ddl-auto (H2 в тестах) различает регистр
+@Table(name = "series", uniqueConstraints = @UniqueConstraint(name = "uk_series_name", columnNames = "name"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,282 @@
+package com.zakhrey.vzakhlib.generator;
+
+import com.zakhrey.vzakhlib.entity.Language;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Синтетический каталог для проверки на больших объемах. Каждая запись вычисляется только по зерну
+ * и своему номеру, поэтому каталог воспроизводим при любом числе потоков, а идентификатор или книгу
+ * с номером {@code i} можно получить без генерации остальных.
+ * <p>
+ * Жанры книгам назначаются по закону Ципфа (первые жанры встречаются у большинства книг), размеры
+ * серий распределены по Парето: много серий из двух-трех книг и немного длинных. Описания -
+ * связный текст на языке книги длиной от 300 до {@link #MAX_DESCRIPTION_LENGTH} символов,
+ * в основном короткие.
+ */
+@Slf4j
+public class CatalogGenerator {
+
+    public static final int MAX_DESCRIPTION_LENGTH = 4000;
+
+    private static final long GENRE_SALT = 0x47454E5245L;
+    private static final long SERIES_SALT = 0x534552494553L;
+    private static final long BOOK_SALT = 0x424F4F4BL;
+    private static final long BOOK_ID_SALT = 0x424F4F4B4944L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final double ENGLISH_SHARE = 0.3;
+    private static final double GENRE_SKEW = 1.0;
+    private static final double SERIES_SIZE_ALPHA = 1.2;
+    private static final int MIN_SERIES_SIZE = 2;
+    private static final int MAX_SERIES_SIZE = 1000;
+    private static final int MIN_DESCRIPTION_LENGTH = 300;
+    private static final int MAX_GENRES_PER_BOOK = 4;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final long CREATE_SPAN_SECONDS = Duration.ofDays(5 * 365).toSeconds();
+
+    /**
+     * Параметры каталога: число книг, жанров и серий, зерно, число потоков записи и размер пакета
+     */
+    public record Settings(int books, int genres, int series, long seed, int workers, int batchSize) {
+
+        public Settings {
+            if (books < 0 || genres < 1 || series < 0 || workers < 1 || batchSize < 1) {
+                throw new IllegalArgumentException(String.format(
+                    "Некорректные параметры генерации: книг '%s', жанров '%s', серий '%s', потоков '%s', пакет '%s'",
+                    books, genres, series, workers, batchSize));
+            }
+        }
+    }
+
+    /**
+     * Строка жанра или серии
+     */
+    public record CatalogRow(UUID id, String name, String description, LocalDateTime createTs) {
+    }
+
+    /**
+     * Строка книги со связями; {@code seriesId} - {@code null} для книги вне серии
+     */
+    public record GeneratedBook(UUID id, String name, String description, Language language, String fileLink,
+                                UUID seriesId, List<UUID> genreIds, LocalDateTime createTs) {
+    }
+
+    private final Settings settings;
+    private final double[] genreWeights;
+    // seriesEnds[k] - номер первой книги после серии k; книги серий идут подряд с начала каталога
+    private final int[] seriesEnds;
+
+    public CatalogGenerator(Settings settings) {
+        this.settings = settings;
+        this.genreWeights = cumulativeZipf(settings.genres());
+        this.seriesEnds = seriesEnds(settings);
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Число книг, входящих в серии
+     */
+    public int getBooksInSeries() {
+        return seriesEnds.length == 0 ? 0 : seriesEnds[seriesEnds.length - 1];
+    }
+
+    public UUID genreId(int index) {
+        return uuid(GENRE_SALT, index);
+    }
+
+    public UUID seriesId(int index) {
+        return uuid(SERIES_SALT, index);
+    }
+
+    public UUID bookId(int index) {
+        return uuid(BOOK_ID_SALT, index);
+    }
+
+    public CatalogRow genre(int index) {
+        SplittableRandom random = random(GENRE_SALT + 1, index);
+        String name = CatalogVocabulary.genreName(index);
+        return new CatalogRow(genreId(index), name, CatalogVocabulary.description(random, false,
+            MIN_DESCRIPTION_LENGTH), createTs(random));
+    }
+
+    public CatalogRow series(int index) {
+        SplittableRandom random = random(SERIES_SALT + 1, index);
+        String name = CatalogVocabulary.seriesName(random, index);
+        return new CatalogRow(seriesId(index), name, CatalogVocabulary.description(random, false,
+            descriptionLength(random)), createTs(random));
+    }
+
+    public GeneratedBook book(int index) {
+        SplittableRandom random = random(BOOK_SALT, index);
+        boolean english = random.nextDouble() < ENGLISH_SHARE;
+        UUID id = bookId(index);
+        String name = CatalogVocabulary.bookTitle(random, english) + " (" + (index + 1) + ")";
+        String description = CatalogVocabulary.description(random, english, descriptionLength(random));
+
+        int genreCount = 1 + (int) (random.nextDouble() * random.nextDouble() * MAX_GENRES_PER_BOOK);
+        List<UUID> genreIds = new ArrayList<>(genreCount);
+        for (int attempt = 0; genreIds.size() < Math.min(genreCount, settings.genres()) && attempt < 16; attempt++) {
+            UUID genreId = genreId(zipfIndex(random));
+            if (!genreIds.contains(genreId)) {
+                genreIds.add(genreId);
+            }
+        }
+
+        int series = seriesOf(index);
+        return new GeneratedBook(id, name, description, english ? Language.ENG : Language.RUS,
+            "/files/" + id + (english ? ".epub" : ".fb2"), series < 0 ? null : seriesId(series),
+            genreIds, createTs(random));
+    }
+
+    /**
+     * Записать каталог: жанры и серии одним потоком, книги - пакетами в {@code workers} потоках.
+     * Поток {@code w} пишет пакеты с номерами {@code w, w + workers, ...}, так что состав пакетов и
+     * файлов не зависит от планирования потоков. Возвращает число связей книга-жанр
+     */
+    public long generate(CatalogWriter writer) throws InterruptedException {
+        long start = System.nanoTime();
+        for (int from = 0; from < settings.genres(); from += settings.batchSize()) {
+            List<CatalogRow> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + settings.batchSize(), settings.genres()); i++) {
+                rows.add(genre(i));
+            }
+            writer.writeGenres(rows);
+        }
+        for (int from = 0; from < settings.series(); from += settings.batchSize()) {
+            List<CatalogRow> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + settings.batchSize(), settings.series()); i++) {
+                rows.add(series(i));
+            }
+            writer.writeSeries(rows);
+        }
+
+        int batches = (settings.books() + settings.batchSize() - 1) / settings.batchSize();
+        int progressStep = Math.max(1, batches / 20);
+        AtomicLong links = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.workers());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < settings.workers(); w++) {
+                int worker = w;
+                futures.add(executor.submit(() -> {
+                    for (int batch = worker; batch < batches; batch += settings.workers()) {
+                        int from = batch * settings.batchSize();
+                        int to = Math.min(from + settings.batchSize(), settings.books());
+                        List<GeneratedBook> books = new ArrayList<>(to - from);
+                        for (int i = from; i < to; i++) {
+                            GeneratedBook book = book(i);
+                            links.addAndGet(book.genreIds().size());
+                            books.add(book);
+                        }
+                        writer.writeBooks(worker, books);
+                        long done = written.incrementAndGet();
+                        if (done % progressStep == 0) {
+                            log.info("Сгенерировано книг: {} из {}", Math.min(done * settings.batchSize(),
+                                settings.books()), settings.books());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(other -> other.cancel(true));
+                    throw e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new IllegalStateException("Ошибка генерации каталога", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Каталог сгенерирован за {} с: книг {} (в сериях {}), жанров {}, серий {}, связей с жанрами {}",
+            Duration.ofNanos(System.nanoTime() - start).toSeconds(), settings.books(),
+            Math.min(getBooksInSeries(), settings.books()), settings.genres(), settings.series(), links.get());
+        return links.get();
+    }
+
+    private int seriesOf(int bookIndex) {
+        if (bookIndex >= getBooksInSeries()) {
+            return -1;
+        }
+        // Первая серия, которая заканчивается после книги; у пустых серий в конце границы совпадают
+        int low = 0;
+        int high = seriesEnds.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (seriesEnds[middle] > bookIndex) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private int zipfIndex(SplittableRandom random) {
+        double ticket = random.nextDouble() * genreWeights[genreWeights.length - 1];
+        int position = Arrays.binarySearch(genreWeights, ticket);
+        return Math.min(position >= 0 ? position : -position - 1, genreWeights.length - 1);
+    }
+
+    private SplittableRandom random(long salt, int index) {
+        return new SplittableRandom(settings.seed() ^ salt ^ (index + 1) * GOLDEN_GAMMA);
+    }
+
+    private UUID uuid(long salt, int index) {
+        SplittableRandom random = random(salt, index);
+        // Версия 4 и вариант RFC 4122, как у UUID, которые генерирует Hibernate
+        long msb = random.nextLong() & 0xFFFFFFFFFFFF0FFFL | 0x0000000000004000L;
+        long lsb = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static int descriptionLength(SplittableRandom random) {
+        double u = random.nextDouble();
+        return MIN_DESCRIPTION_LENGTH + (int) ((MAX_DESCRIPTION_LENGTH - MIN_DESCRIPTION_LENGTH) * u * u * u);
+    }
+
+    private static LocalDateTime createTs(SplittableRandom random) {
+        return EPOCH.plusSeconds(random.nextLong(CREATE_SPAN_SECONDS));
+    }
+
+    private static double[] cumulativeZipf(int count) {
+        double[] weights = new double[count];
+        double sum = 0;
+        for (int k = 0; k < count; k++) {
+            sum += 1 / Math.pow(k + 1, GENRE_SKEW);
+            weights[k] = sum;
+        }
+        return weights;
+    }
+
+    private int[] seriesEnds(Settings settings) {
+        int[] ends = new int[settings.series()];
+        int end = 0;
+        for (int k = 0; k < settings.series(); k++) {
+            SplittableRandom random = random(SERIES_SALT + 2, k);
+            double size = MIN_SERIES_SIZE / Math.pow(1 - random.nextDouble(), 1 / SERIES_SIZE_ALPHA);
+            end = Math.min(settings.books(), end + (int) Math.min(size, MAX_SERIES_SIZE));
+            ends[k] = end;
+        }
+        return ends;
+    }
+}
@@ -0,0 +1,78 @@
+package com.zakhrey.vzakhlib.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * Запуск генератора каталога как команды: профиль {@code generate} (без веб-сервера, см.
+ * {@code application-generate.yml}) пишет каталог по настройкам {@code vzakhlib.generator.*}
+ * и завершает приложение
+ */
+@Slf4j
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+public class CatalogGeneratorRunner implements ApplicationRunner {
+
+    private final ApplicationContext context;
+    private final DataSource dataSource;
+
+    @Value("${vzakhlib.generator.books:1000000}")
+    private int books;
+
+    @Value("${vzakhlib.generator.genres:200}")
+    private int genres;
+
+    @Value("${vzakhlib.generator.series:50000}")
+    private int series;
+
+    @Value("${vzakhlib.generator.seed:42}")
+    private long seed;
+
+    @Value("${vzakhlib.generator.workers:4}")
+    private int workers;
+
+    @Value("${vzakhlib.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${vzakhlib.generator.format:jdbc}")
+    private String format;
+
+    @Value("${vzakhlib.generator.output-dir:./generated}")
+    private Path outputDir;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        CatalogGenerator generator = new CatalogGenerator(
+            new CatalogGenerator.Settings(books, genres, series, seed, workers, batchSize));
+        log.info("Генерация каталога ({}): книг {}, жанров {}, серий {}, зерно {}, потоков {}",
+            format, books, genres, series, seed, workers);
+        try (CatalogWriter writer = writer()) {
+            generator.generate(writer);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            log.info("Файлы каталога записаны в '{}', загрузка: cd {} && psql -f copy.sql", outputDir, outputDir);
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private CatalogWriter writer() {
+        if ("jdbc".equalsIgnoreCase(format)) {
+            return new JdbcCatalogWriter(dataSource);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return new CsvCatalogWriter(outputDir, workers);
+        }
+        throw new IllegalArgumentException(String.format("Неизвестный формат генерации: '%s'", format));
+    }
+}
@@ -0,0 +1,114 @@
+package com.zakhrey.vzakhlib.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Словари для названий и описаний синтетического каталога. Русские названия собираются из именной
+ * части и определения в родительном падеже, поэтому согласованы при любом сочетании
+ */
+final class CatalogVocabulary {
+
+    private static final String[] GENRES = {
+        "Фантастика", "Фэнтези", "Детектив", "Классическая проза", "Современная проза", "Приключения",
+        "Исторический роман", "Любовный роман", "Триллер", "Ужасы", "Научно-популярная литература", "Поэзия",
+        "Драматургия", "Биография", "Мемуары", "Детская литература", "Юмор", "Антиутопия", "Киберпанк",
+        "Космическая опера", "Альтернативная история", "Мистика", "Боевик", "Сказки", "Философия",
+        "Психология", "История", "Публицистика", "Путешествия", "Военная проза"
+    };
+
+    private static final String[] RUS_HEADS = {
+        "Тайна", "Хроники", "Легенда", "Песнь", "Тень", "Последний рейс", "Дневник", "Возвращение", "Сердце",
+        "Осень", "Наследие", "Голос", "Дорога", "Ключи", "Карта", "Пепел", "Эхо", "Свет", "Пленники", "Хранитель"
+    };
+
+    private static final String[] RUS_TAILS = {
+        "старого маяка", "северного ветра", "забытой империи", "последнего лета", "далекой звезды",
+        "ночного города", "серебряной реки", "тихой гавани", "древнего леса", "потерянного времени",
+        "зимнего сада", "черной башни", "багрового заката", "пустого дома", "железной дороги",
+        "лунного моря", "седьмого королевства", "ледяных гор", "чужого неба", "вечной осени"
+    };
+
+    private static final String[] ENG_ADJECTIVES = {
+        "Silent", "Broken", "Hidden", "Last", "Crimson", "Distant", "Forgotten", "Golden", "Hollow", "Iron",
+        "Midnight", "Northern", "Burning", "Quiet", "Shattered", "Winter", "Wandering", "Lost", "Pale", "Endless"
+    };
+
+    private static final String[] ENG_NOUNS = {
+        "Harbor", "Kingdom", "River", "Crown", "Garden", "Tower", "Voyage", "Empire", "Shadow", "Orchard",
+        "Lighthouse", "Frontier", "Archive", "Compass", "Citadel", "Horizon", "Forest", "Station", "Mirror", "Road"
+    };
+
+    private static final String[] ENG_PLACES = {
+        "the North", "the Sea", "Ashford", "the Old City", "the Stars", "Winterfall", "the Valley", "Eastmarch"
+    };
+
+    private static final String[] RUS_SENTENCES = {
+        "Молодой картограф получает письмо от человека, которого все считали погибшим.",
+        "В маленьком приморском городе одна за другой исчезают старые карты.",
+        "Героине предстоит выбрать между долгом перед семьей и собственной мечтой.",
+        "События разворачиваются на фоне войны, которая навсегда изменила жизнь целого поколения.",
+        "Автор с тонкой иронией описывает быт провинциального городка начала прошлого века.",
+        "Расследование приводит сыщика в закрытый пансион, где у каждого есть своя тайна.",
+        "Экипаж исследовательского корабля обнаруживает сигнал из системы, которой нет на картах.",
+        "Это история о дружбе, предательстве и цене, которую приходится платить за правду.",
+        "Роман построен как переписка двух людей, разделенных тысячами километров и полувеком.",
+        "Старинная легенда оживает, когда в библиотеке находят рукопись без последней главы.",
+        "Книга сочетает динамичный сюжет с глубоким психологизмом и живыми диалогами.",
+        "Мир, в котором магия подчиняется строгим законам, оказывается на грани раскола."
+    };
+
+    private static final String[] ENG_SENTENCES = {
+        "A young mapmaker receives a letter from a man everyone believed to be dead.",
+        "In a small seaside town the old charts begin to disappear one by one.",
+        "She must choose between her duty to the family and a dream she has kept for years.",
+        "The story unfolds against a war that changed the lives of an entire generation.",
+        "With gentle irony the author portrays a provincial town at the turn of the century.",
+        "The investigation leads to a remote boarding house where everyone hides a secret.",
+        "The crew of a survey ship picks up a signal from a system that appears on no chart.",
+        "It is a story of friendship, betrayal and the price one pays for the truth.",
+        "The novel is told through letters between two people separated by an ocean and fifty years.",
+        "An old legend comes alive when a manuscript without its final chapter is found in the library.",
+        "The book combines a fast-paced plot with deep psychological insight and vivid dialogue.",
+        "A world where magic obeys strict laws stands on the brink of a schism."
+    };
+
+    private CatalogVocabulary() {
+    }
+
+    static String genreName(int index) {
+        String base = GENRES[index % GENRES.length];
+        return index < GENRES.length ? base : base + " " + (index / GENRES.length + 1);
+    }
+
+    static String seriesName(SplittableRandom random, int index) {
+        return "Цикл «" + pick(random, RUS_HEADS) + " " + pick(random, RUS_TAILS) + "» (" + (index + 1) + ")";
+    }
+
+    static String bookTitle(SplittableRandom random, boolean english) {
+        if (!english) {
+            return pick(random, RUS_HEADS) + " " + pick(random, RUS_TAILS);
+        }
+        String title = "The " + pick(random, ENG_ADJECTIVES) + " " + pick(random, ENG_NOUNS);
+        return random.nextBoolean() ? title + " of " + pick(random, ENG_PLACES) : title;
+    }
+
+    /**
+     * Текст из случайных предложений длиной не больше {@code length} символов
+     */
+    static String description(SplittableRandom random, boolean english, int length) {
+        String[] sentences = english ? ENG_SENTENCES : RUS_SENTENCES;
+        StringBuilder text = new StringBuilder(length + 128);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(pick(random, sentences));
+        }
+        text.setLength(length);
+        return text.toString().stripTrailing();
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
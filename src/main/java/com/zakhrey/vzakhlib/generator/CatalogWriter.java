@@ -0,0 +1,23 @@
+package com.zakhrey.vzakhlib.generator;
+
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.CatalogRow;
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.GeneratedBook;
+
+import java.util.List;
+
+/**
+ * Приемник синтетического каталога. {@link #writeBooks} вызывается параллельно из потоков генератора,
+ * каждый поток - со своим номером {@code worker}
+ */
+public interface CatalogWriter extends AutoCloseable {
+
+    void writeGenres(List<CatalogRow> genres);
+
+    void writeSeries(List<CatalogRow> series);
+
+    void writeBooks(int worker, List<GeneratedBook> books);
+
+    @Override
+    default void close() {
+    }
+}
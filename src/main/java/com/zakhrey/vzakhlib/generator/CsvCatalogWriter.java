@@ -0,0 +1,159 @@
+package com.zakhrey.vzakhlib.generator;
+
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.CatalogRow;
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.GeneratedBook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запись каталога в файлы CSV для {@code COPY ... WITH (FORMAT csv, HEADER true)} PostgreSQL:
+ * {@code genre.csv}, {@code series.csv} и по паре файлов {@code book-N.csv}, {@code genre_for_book-N.csv}
+ * на поток генератора. В {@code copy.sql} записываются команды {@code \copy} для psql
+ * в порядке, который соблюдает внешние ключи
+ */
+public class CsvCatalogWriter implements CatalogWriter {
+
+    private static final String NAMED_COLUMNS = "id,name,description,create_ts,update_ts";
+    private static final String BOOK_COLUMNS = "id,name,description,series_id,language,file_link,create_ts,update_ts";
+    private static final String GENRE_LINK_COLUMNS = "book_id,genre_id";
+
+    private final Path directory;
+    private final Writer genres;
+    private final Writer series;
+    private final Writer[] books;
+    private final Writer[] genreLinks;
+
+    public CsvCatalogWriter(Path directory, int workers) {
+        this.directory = directory;
+        this.books = new Writer[workers];
+        this.genreLinks = new Writer[workers];
+        try {
+            Files.createDirectories(directory);
+            this.genres = open("genre.csv", NAMED_COLUMNS);
+            this.series = open("series.csv", NAMED_COLUMNS);
+            for (int worker = 0; worker < workers; worker++) {
+                books[worker] = open("book-" + worker + ".csv", BOOK_COLUMNS);
+                genreLinks[worker] = open("genre_for_book-" + worker + ".csv", GENRE_LINK_COLUMNS);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Не удалось создать файлы каталога в '%s'", directory), e);
+        }
+    }
+
+    @Override
+    public void writeGenres(List<CatalogRow> rows) {
+        writeRows(genres, rows);
+    }
+
+    @Override
+    public void writeSeries(List<CatalogRow> rows) {
+        writeRows(series, rows);
+    }
+
+    @Override
+    public void writeBooks(int worker, List<GeneratedBook> rows) {
+        try {
+            for (GeneratedBook book : rows) {
+                Writer out = books[worker];
+                out.write(book.id().toString());
+                out.write(',');
+                field(out, book.name());
+                out.write(',');
+                field(out, book.description());
+                out.write(',');
+                if (book.seriesId() != null) {
+                    out.write(book.seriesId().toString());
+                }
+                out.write(',');
+                out.write(book.language().name());
+                out.write(',');
+                field(out, book.fileLink());
+                out.write(',');
+                out.write(book.createTs().toString());
+                out.write(',');
+                out.write(book.createTs().toString());
+                out.write('\n');
+                for (UUID genreId : book.genreIds()) {
+                    genreLinks[worker].write(book.id() + "," + genreId + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Ошибка записи файла книг потока '%s'", worker), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        List<String> commands = new ArrayList<>();
+        commands.add(copy("genre", NAMED_COLUMNS, "genre.csv"));
+        commands.add(copy("series", NAMED_COLUMNS, "series.csv"));
+        for (int worker = 0; worker < books.length; worker++) {
+            commands.add(copy("book", BOOK_COLUMNS, "book-" + worker + ".csv"));
+        }
+        for (int worker = 0; worker < books.length; worker++) {
+            commands.add(copy("genre_for_book", GENRE_LINK_COLUMNS, "genre_for_book-" + worker + ".csv"));
+        }
+        try {
+            genres.close();
+            series.close();
+            for (int worker = 0; worker < books.length; worker++) {
+                books[worker].close();
+                genreLinks[worker].close();
+            }
+            Files.write(directory.resolve("copy.sql"), commands, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Ошибка записи файлов каталога в '%s'", directory), e);
+        }
+    }
+
+    private Writer open(String file, String header) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(directory.resolve(file), StandardCharsets.UTF_8);
+        writer.write(header);
+        writer.write('\n');
+        return writer;
+    }
+
+    private static void writeRows(Writer out, List<CatalogRow> rows) {
+        try {
+            for (CatalogRow row : rows) {
+                out.write(row.id().toString());
+                out.write(',');
+                field(out, row.name());
+                out.write(',');
+                field(out, row.description());
+                out.write(',');
+                out.write(row.createTs().toString());
+                out.write(',');
+                out.write(row.createTs().toString());
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи файла каталога", e);
+        }
+    }
+
+    /**
+     * Текстовое поле в кавычках: пустая строка без кавычек в CSV для COPY означает NULL
+     */
+    private static void field(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static String copy(String table, String columns, String file) {
+        return String.format("\\copy %s (%s) FROM '%s' WITH (FORMAT csv, HEADER true)", table, columns, file);
+    }
+}
@@ -0,0 +1,103 @@
+package com.zakhrey.vzakhlib.generator;
+
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.CatalogRow;
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.GeneratedBook;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запись каталога пакетами JDBC напрямую в таблицы, минуя Hibernate: каждый пакет - одна транзакция
+ * на своем соединении. Кеш второго уровня и поисковый индекс при этом не обновляются, поэтому
+ * приложение, уже работающее с этой базой, нужно перезапустить. На PostgreSQL пакетные вставки
+ * заметно ускоряет параметр драйвера {@code reWriteBatchedInserts=true}
+ */
+public class JdbcCatalogWriter implements CatalogWriter {
+
+    private static final String INSERT_GENRE =
+        "INSERT INTO genre (id, name, description, create_ts, update_ts) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SERIES =
+        "INSERT INTO series (id, name, description, create_ts, update_ts) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOK = "INSERT INTO book "
+        + "(id, name, description, series_id, language, file_link, create_ts, update_ts) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_GENRE_LINK = "INSERT INTO genre_for_book (book_id, genre_id) VALUES (?, ?)";
+
+    private final DataSource dataSource;
+
+    public JdbcCatalogWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void writeGenres(List<CatalogRow> genres) {
+        writeRows(INSERT_GENRE, genres, "genre");
+    }
+
+    @Override
+    public void writeSeries(List<CatalogRow> series) {
+        writeRows(INSERT_SERIES, series, "series");
+    }
+
+    @Override
+    public void writeBooks(int worker, List<GeneratedBook> books) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement bookInsert = connection.prepareStatement(INSERT_BOOK);
+                 PreparedStatement linkInsert = connection.prepareStatement(INSERT_GENRE_LINK)) {
+                for (GeneratedBook book : books) {
+                    bookInsert.setObject(1, book.id());
+                    bookInsert.setString(2, book.name());
+                    bookInsert.setString(3, book.description());
+                    bookInsert.setObject(4, book.seriesId());
+                    bookInsert.setString(5, book.language().name());
+                    bookInsert.setString(6, book.fileLink());
+                    bookInsert.setObject(7, book.createTs());
+                    bookInsert.setObject(8, book.createTs());
+                    bookInsert.addBatch();
+                    for (UUID genreId : book.genreIds()) {
+                        linkInsert.setObject(1, book.id());
+                        linkInsert.setObject(2, genreId);
+                        linkInsert.addBatch();
+                    }
+                }
+                bookInsert.executeBatch();
+                linkInsert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(String.format("Ошибка записи пакета книг, начиная с '%s'",
+                books.get(0).name()), e);
+        }
+    }
+
+    private void writeRows(String sql, List<CatalogRow> rows, String table) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (CatalogRow row : rows) {
+                    insert.setObject(1, row.id());
+                    insert.setString(2, row.name());
+                    insert.setString(3, row.description());
+                    insert.setObject(4, row.createTs());
+                    insert.setObject(5, row.createTs());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(String.format("Ошибка записи в таблицу '%s'", table), e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Конвейер импорта из трех стадий в отдельных потоках: разбор файла, проверка и разрешение ссылок,
+ * запись блоками. Стадии связаны ограниченными очередями, поэтому в памяти одновременно находится
+ * не больше нескольких блоков независимо от размера файла.
+ */
+@Slf4j
+public class BookImportPipeline {
+
+    // Емкость очередей между стадиями: записей после разбора и блоков перед записью
+    private static final int RECORD_QUEUE_CAPACITY = 1000;
+    private static final int CHUNK_QUEUE_CAPACITY = 2;
+    private static final long QUEUE_TIMEOUT_MS = 100;
+
+    /**
+     * Запись после проверки: готовая к сохранению книга либо ошибка
+     */
+    public record ResolvedRow(long row, Book book, String error) {
+    }
+
+    /**
+     * Разрешение ссылок записи: валидация запроса, поиск серии и жанров
+     */
+    @FunctionalInterface
+    public interface RowResolver {
+        ResolvedRow resolve(ImportRecord record);
+    }
+
+    /**
+     * Запись блока в одной транзакции. Возвращает строки, отклоненные при записи (например, дубликаты),
+     * с причиной отказа
+     */
+    @FunctionalInterface
+    public interface ChunkWriter {
+        List<ResolvedRow> write(List<ResolvedRow> chunk);
+    }
+
+    private static final ImportRecord END_OF_RECORDS = ImportRecord.failed(-1, null);
+    private static final List<ResolvedRow> END_OF_CHUNKS = List.of();
+
+    private final ImportJob job;
+    private final BookRecordReader reader;
+    private final RowResolver resolver;
+    private final ChunkWriter writer;
+    private final Consumer<ImportJob> checkpoint;
+
+    private final BlockingQueue<ImportRecord> records = new ArrayBlockingQueue<>(RECORD_QUEUE_CAPACITY);
+    private final BlockingQueue<List<ResolvedRow>> chunks = new ArrayBlockingQueue<>(CHUNK_QUEUE_CAPACITY);
+    private volatile boolean cancelled;
+    private volatile String readError;
+
+    public BookImportPipeline(ImportJob job, BookRecordReader reader, RowResolver resolver,
+                              ChunkWriter writer, Consumer<ImportJob> checkpoint) {
+        this.job = job;
+        this.reader = reader;
+        this.resolver = resolver;
+        this.writer = writer;
+        this.checkpoint = checkpoint;
+    }
+
+    public void start() {
+        String prefix = "import-" + job.getId().toString().substring(0, 8);
+        startThread(prefix + "-parse", this::parse);
+        startThread(prefix + "-resolve", this::resolve);
+        startThread(prefix + "-write", this::write);
+    }
+
+    /**
+     * Стадия 1: потоковый разбор файла. Записи до контрольной точки пропускаются.
+     * Ошибка чтения останавливает разбор, но уже прочитанные записи дописываются,
+     * чтобы продолжение началось сразу после них.
+     */
+    private void parse() {
+        long skip = job.getCommittedRows().get();
+        try (reader) {
+            ImportRecord record;
+            while (!cancelled && (record = reader.next()) != null) {
+                if (record.row() > skip) {
+                    put(records, record);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Ошибка чтения файла импорта {}", job.getId(), e);
+            readError = "Ошибка чтения файла: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putQuietly(records, END_OF_RECORDS);
+        }
+    }
+
+    /**
+     * Стадия 2: проверка записей и сборка блоков заданного размера
+     */
+    private void resolve() {
+        try {
+            List<ResolvedRow> chunk = new ArrayList<>(job.getChunkSize());
+            ImportRecord record;
+            while ((record = take(records, END_OF_RECORDS)) != END_OF_RECORDS) {
+                if (cancelled) {
+                    continue;
+                }
+                job.getProcessedRows().incrementAndGet();
+                chunk.add(record.error() != null
+                    ? new ResolvedRow(record.row(), null, record.error())
+                    : resolver.resolve(record));
+                if (chunk.size() == job.getChunkSize()) {
+                    put(chunks, chunk);
+                    chunk = new ArrayList<>(job.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty() && !cancelled) {
+                put(chunks, chunk);
+            }
+        } catch (RuntimeException e) {
+            cancel(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putQuietly(chunks, END_OF_CHUNKS);
+        }
+    }
+
+    /**
+     * Стадия 3: запись блока в отдельной транзакции и сохранение контрольной точки после фиксации
+     */
+    private void write() {
+        try {
+            List<ResolvedRow> chunk;
+            while ((chunk = take(chunks, END_OF_CHUNKS)) != END_OF_CHUNKS) {
+                if (cancelled) {
+                    continue;
+                }
+                List<ResolvedRow> rejected = writer.write(chunk);
+
+                long resolved = 0;
+                for (ResolvedRow row : chunk) {
+                    if (row.error() != null) {
+                        job.addFailure(row.row(), row.error());
+                    } else {
+                        resolved++;
+                    }
+                }
+                rejected.forEach(row -> job.addFailure(row.row(), row.error()));
+
+                job.getImportedBooks().addAndGet(resolved - rejected.size());
+                job.getCommittedRows().set(chunk.get(chunk.size() - 1).row());
+                job.getCommittedChunks().incrementAndGet();
+                checkpoint.accept(job);
+            }
+            if (readError != null) {
+                job.fail(readError);
+            } else if (job.isRunning()) {
+                job.complete();
+            }
+        } catch (RuntimeException e) {
+            cancel(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Импорт прерван");
+        } finally {
+            checkpoint.accept(job);
+            log.info("Импорт {} завершен: {}, записей {}, импортировано книг {}, ошибок {}",
+                job.getId(), job.getState(), job.getCommittedRows().get(),
+                job.getImportedBooks().get(), job.getFailedRows().get());
+        }
+    }
+
+    private void cancel(RuntimeException e) {
+        log.error("Импорт {} остановлен", job.getId(), e);
+        cancelled = true;
+        job.fail(e.getMessage());
+    }
+
+    /**
+     * Передать элемент следующей стадии, не зависая, если она уже остановлена
+     */
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (cancelled) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Получить элемент от предыдущей стадии; после отмены пустая очередь означает конец данных
+     */
+    private <T> T take(BlockingQueue<T> queue, T end) throws InterruptedException {
+        while (true) {
+            T item = queue.poll(QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+            if (cancelled) {
+                return end;
+            }
+        }
+    }
+
+    private <T> void putQuietly(BlockingQueue<T> queue, T item) {
+        try {
+            put(queue, item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void startThread(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
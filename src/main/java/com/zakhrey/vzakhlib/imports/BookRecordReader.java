@@ -0,0 +1,15 @@
+package com.zakhrey.vzakhlib.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Потоковое чтение записей каталога: файл разбирается по одной записи, целиком в память не загружается
+ */
+public interface BookRecordReader extends Closeable {
+
+    /**
+     * Следующая запись или null, если файл прочитан до конца
+     */
+    ImportRecord next() throws IOException;
+}
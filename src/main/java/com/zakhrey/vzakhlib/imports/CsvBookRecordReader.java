@@ -0,0 +1,139 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Чтение каталога в формате CSV (RFC 4180) с заголовком.
+ * Колонки: name, description, language, file_link, series_id, genre_ids (ID через ';').
+ */
+public class CsvBookRecordReader implements BookRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long row;
+
+    public CsvBookRecordReader(Reader source) throws IOException {
+        this.reader = new BufferedReader(source, BUFFER_SIZE);
+        List<String> header = readRecord();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+        }
+        if (!columns.containsKey("name")) {
+            throw new IOException("В заголовке CSV отсутствует колонка 'name'");
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        row++;
+        try {
+            return ImportRecord.parsed(row, toRequest(fields));
+        } catch (IllegalArgumentException e) {
+            return ImportRecord.failed(row, e.getMessage());
+        }
+    }
+
+    private BookCreateRequest toRequest(List<String> fields) {
+        BookCreateRequest request = new BookCreateRequest();
+        request.setName(field(fields, "name"));
+        request.setDescription(field(fields, "description"));
+        request.setFileLink(field(fields, "file_link"));
+
+        String language = field(fields, "language");
+        if (language != null) {
+            request.setLanguage(Language.valueOf(language.trim().toUpperCase()));
+        }
+        String seriesId = field(fields, "series_id");
+        if (seriesId != null) {
+            request.setSeriesId(UUID.fromString(seriesId.trim()));
+        }
+        String genreIds = field(fields, "genre_ids");
+        if (genreIds != null) {
+            request.setGenreIds(Arrays.stream(genreIds.split(";"))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toSet()));
+        }
+        return request;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * Прочитать одну запись. Поля в кавычках могут содержать запятые,
+     * переводы строк и удвоенные кавычки.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException(String.format("Незакрытая кавычка в записи %d", row + 1));
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Контрольная точка задачи импорта: позиция последнего зафиксированного блока и счетчики на этот момент
+ *
+ * @param committedRows номер последней записи файла, вошедшей в зафиксированный блок
+ */
+public record ImportCheckpoint(UUID jobId,
+                               ImportFormat format,
+                               Path file,
+                               String source,
+                               int chunkSize,
+                               long committedRows,
+                               long importedBooks,
+                               long failedRows,
+                               long committedChunks,
+                               ImportJobStatus.State state) {
+}
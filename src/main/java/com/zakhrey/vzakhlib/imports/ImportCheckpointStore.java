@@ -0,0 +1,105 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Хранение контрольных точек импорта в рабочем каталоге ({@code vzakhlib.import.work-dir}),
+ * по одному файлу свойств на задачу. Файл переписывается атомарно после каждого зафиксированного блока,
+ * поэтому прерванный импорт можно продолжить и после перезапуска приложения.
+ */
+@Component
+public class ImportCheckpointStore {
+
+    private final Path workDir;
+
+    public ImportCheckpointStore(@Value("${vzakhlib.import.work-dir}") Path workDir) {
+        this.workDir = workDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Путь для сохранения загруженного файла задачи
+     */
+    public Path uploadFile(UUID jobId) {
+        createWorkDir();
+        return workDir.resolve(jobId + ".upload");
+    }
+
+    public void save(ImportCheckpoint checkpoint) {
+        Properties properties = new Properties();
+        properties.setProperty("format", checkpoint.format().name());
+        properties.setProperty("file", checkpoint.file().toString());
+        properties.setProperty("source", checkpoint.source());
+        properties.setProperty("chunkSize", String.valueOf(checkpoint.chunkSize()));
+        properties.setProperty("committedRows", String.valueOf(checkpoint.committedRows()));
+        properties.setProperty("importedBooks", String.valueOf(checkpoint.importedBooks()));
+        properties.setProperty("failedRows", String.valueOf(checkpoint.failedRows()));
+        properties.setProperty("committedChunks", String.valueOf(checkpoint.committedChunks()));
+        properties.setProperty("state", checkpoint.state().name());
+
+        createWorkDir();
+        Path target = checkpointFile(checkpoint.jobId());
+        Path temp = workDir.resolve(checkpoint.jobId() + ".properties.tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "import " + checkpoint.jobId());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                String.format("Не удалось сохранить контрольную точку импорта '%s'", checkpoint.jobId()), e);
+        }
+    }
+
+    public Optional<ImportCheckpoint> find(UUID jobId) {
+        Path file = checkpointFile(jobId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                String.format("Не удалось прочитать контрольную точку импорта '%s'", jobId), e);
+        }
+
+        return Optional.of(new ImportCheckpoint(
+            jobId,
+            ImportFormat.valueOf(properties.getProperty("format")),
+            Path.of(properties.getProperty("file")),
+            properties.getProperty("source"),
+            Integer.parseInt(properties.getProperty("chunkSize")),
+            Long.parseLong(properties.getProperty("committedRows")),
+            Long.parseLong(properties.getProperty("importedBooks")),
+            Long.parseLong(properties.getProperty("failedRows")),
+            Long.parseLong(properties.getProperty("committedChunks")),
+            ImportJobStatus.State.valueOf(properties.getProperty("state"))));
+    }
+
+    private Path checkpointFile(UUID jobId) {
+        return workDir.resolve(jobId + ".properties");
+    }
+
+    private void createWorkDir() {
+        try {
+            Files.createDirectories(workDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать рабочий каталог импорта " + workDir, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.zakhrey.vzakhlib.imports;
+
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    public static ImportFormat fromParam(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(String.format("Неподдерживаемый формат импорта: '%s'", value), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Изменяемое состояние выполняющейся задачи импорта. Счетчики обновляются стадиями конвейера
+ * из разных потоков, снимок для клиента строится методом {@link #toStatus()}.
+ */
+@Getter
+public class ImportJob {
+
+    // Сколько ошибочных строк хранится для ответа о состоянии задачи
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private final UUID id;
+    private final ImportFormat format;
+    private final Path file;
+    private final String source;
+    private final int chunkSize;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startedNanos = System.nanoTime();
+
+    private final AtomicLong processedRows = new AtomicLong();
+    private final AtomicLong committedRows = new AtomicLong();
+    private final AtomicLong importedBooks = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong committedChunks = new AtomicLong();
+    private final List<ImportJobStatus.FailedRow> failures = new ArrayList<>();
+
+    private volatile ImportJobStatus.State state = ImportJobStatus.State.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public ImportJob(UUID id, ImportFormat format, Path file, String source, int chunkSize) {
+        this.id = id;
+        this.format = format;
+        this.file = file;
+        this.source = source;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Продолжение задачи с последней сохраненной контрольной точки
+     */
+    public ImportJob(ImportCheckpoint checkpoint) {
+        this(checkpoint.jobId(), checkpoint.format(), checkpoint.file(), checkpoint.source(), checkpoint.chunkSize());
+        committedRows.set(checkpoint.committedRows());
+        processedRows.set(checkpoint.committedRows());
+        importedBooks.set(checkpoint.importedBooks());
+        failedRows.set(checkpoint.failedRows());
+        committedChunks.set(checkpoint.committedChunks());
+    }
+
+    public void addFailure(long row, String message) {
+        failedRows.incrementAndGet();
+        synchronized (failures) {
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new ImportJobStatus.FailedRow(row, message));
+            }
+        }
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        state = ImportJobStatus.State.COMPLETED;
+    }
+
+    public void fail(String message) {
+        if (error == null) {
+            error = message;
+        }
+        finishedAt = LocalDateTime.now();
+        state = ImportJobStatus.State.FAILED;
+    }
+
+    public boolean isRunning() {
+        return state == ImportJobStatus.State.RUNNING;
+    }
+
+    public boolean isCompleted() {
+        return state == ImportJobStatus.State.COMPLETED;
+    }
+
+    public ImportCheckpoint toCheckpoint() {
+        return new ImportCheckpoint(id, format, file, source, chunkSize, committedRows.get(),
+            importedBooks.get(), failedRows.get(), committedChunks.get(), state);
+    }
+
+    public ImportJobStatus toStatus() {
+        double seconds = Duration.ofNanos(System.nanoTime() - startedNanos).toMillis() / 1000.0;
+        List<ImportJobStatus.FailedRow> reported;
+        synchronized (failures) {
+            reported = List.copyOf(failures);
+        }
+        return ImportJobStatus.builder()
+            .id(id)
+            .state(state)
+            .format(format.name())
+            .source(source)
+            .chunkSize(chunkSize)
+            .processedRows(processedRows.get())
+            .committedRows(committedRows.get())
+            .importedBooks(importedBooks.get())
+            .failedRows(failedRows.get())
+            .committedChunks(committedChunks.get())
+            .rowsPerSecond(seconds > 0 ? Math.round(processedRows.get() / seconds * 10) / 10.0 : 0)
+            .startedAt(startedAt)
+            .finishedAt(finishedAt)
+            .error(error)
+            .failures(reported)
+            .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+
+/**
+ * Запись исходного файла: разобранный запрос на создание книги либо ошибка разбора
+ *
+ * @param row порядковый номер записи в файле, начиная с 1
+ */
+public record ImportRecord(long row, BookCreateRequest request, String error) {
+
+    public static ImportRecord parsed(long row, BookCreateRequest request) {
+        return new ImportRecord(row, request, null);
+    }
+
+    public static ImportRecord failed(long row, String error) {
+        return new ImportRecord(row, null, error);
+    }
+}
@@ -0,0 +1,58 @@
+package com.zakhrey.vzakhlib.imports;
+
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Чтение каталога в формате NDJSON: одна книга (поля {@link BookCreateRequest}) в строке
+ */
+public class NdjsonBookRecordReader implements BookRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long row;
+
+    public NdjsonBookRecordReader(Reader source, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(source, BUFFER_SIZE);
+        this.objectReader = objectMapper.readerFor(BookCreateRequest.class);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        row++;
+        // Строка должна быть объектом: null, массив или скаляр - ошибка записи, а не всего импорта
+        if (!line.stripLeading().startsWith("{")) {
+            return ImportRecord.failed(row, "Некорректная запись JSON: ожидается объект");
+        }
+        try {
+            BookCreateRequest request = objectReader.readValue(line);
+            if (request == null) {
+                return ImportRecord.failed(row, "Некорректная запись JSON: ожидается объект");
+            }
+            return ImportRecord.parsed(row, request);
+        } catch (JacksonException e) {
+            return ImportRecord.failed(row, "Некорректная запись JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -7,8 +7,23 @@ import com.zakhrey.vzakhlib.entity.Series;
 import com.zakhrey.vzakhlib.model.BookDto;
 import com.zakhrey.vzakhlib.model.GenreDto;
 import com.zakhrey.vzakhlib.model.SeriesDto;
+import com.zakhrey.vzakhlib.repository.BookRow;
+import com.zakhrey.vzakhlib.repository.DictionaryRow;
+import com.zakhrey.vzakhlib.repository.GenreRow;
 import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @UtilityClass
@@ -26,6 +41,19 @@ public class EntityMapper {
             .build();
     }
     
+    /**
+     * Жанр из строки проекции с выбранными полями
+     */
+    public static GenreDto toGenreDto(DictionaryRow row) {
+        return GenreDto.builder()
+            .id(row.id())
+            .name(row.name())
+            .description(row.description())
+            .createTs(row.createTs())
+            .updateTs(row.updateTs())
+            .build();
+    }
+    
     public static Genre toEntity(GenreDto dto) {
         if (dto == null) return null;
         
@@ -48,6 +76,19 @@ public class EntityMapper {
             .build();
     }
     
+    /**
+     * Серия из строки проекции с выбранными полями
+     */
+    public static SeriesDto toSeriesDto(DictionaryRow row) {
+        return SeriesDto.builder()
+            .id(row.id())
+            .name(row.name())
+            .description(row.description())
+            .createTs(row.createTs())
+            .updateTs(row.updateTs())
+            .build();
+    }
+    
     public static Series toEntity(SeriesDto dto) {
         if (dto == null) return null;
         
@@ -61,6 +102,15 @@ public class EntityMapper {
     public static BookDto toDto(Book book) {
         if (book == null) return null;
         
+        return toDto(book, book.getGenres());
+    }
+    
+    /**
+     * Преобразование книги с жанрами, загруженными отдельно от коллекции сущности
+     */
+    public static BookDto toDto(Book book, Collection<Genre> genres) {
+        if (book == null) return null;
+        
         return BookDto.builder()
             .id(book.getId())
             .name(book.getName())
@@ -70,14 +120,68 @@ public class EntityMapper {
             .fileLink(book.getFileLink())
             .createTs(book.getCreateTs())
             .updateTs(book.getUpdateTs())
-            .genres(book.getGenres() != null 
-                ? book.getGenres().stream()
+            .genres(genres != null 
+                ? genres.stream()
                     .map(EntityMapper::toDto)
                     .collect(Collectors.toSet())
                 : null)
             .build();
     }
     
+    /**
+     * Страница книг из строк проекции. Серия и жанр, встречающиеся у нескольких книг,
+     * преобразуются в DTO один раз и используются всеми этими книгами
+     */
+    public static Page<BookDto> toDtoPage(Page<BookRow> rows, List<GenreRow> genreRows) {
+        return new PageImpl<>(toDtos(rows, genreRows), rows.getPageable(), rows.getTotalElements());
+    }
+
+    /**
+     * То же для среза без COUNT
+     */
+    public static Slice<BookDto> toDtoSlice(Slice<BookRow> rows, List<GenreRow> genreRows) {
+        return new SliceImpl<>(toDtos(rows, genreRows), rows.getPageable(), rows.hasNext());
+    }
+
+    private static List<BookDto> toDtos(Slice<BookRow> rows, List<GenreRow> genreRows) {
+        Map<UUID, GenreDto> genres = new HashMap<>();
+        Map<UUID, Set<GenreDto>> genresByBook = new HashMap<>();
+        for (GenreRow row : genreRows) {
+            GenreDto genre = genres.computeIfAbsent(row.id(), id -> GenreDto.builder()
+                .id(id)
+                .name(row.name())
+                .description(row.description())
+                .createTs(row.createTs())
+                .updateTs(row.updateTs())
+                .build());
+            genresByBook.computeIfAbsent(row.bookId(), id -> new HashSet<>()).add(genre);
+        }
+
+        Map<UUID, SeriesDto> series = new HashMap<>();
+        List<BookDto> books = new ArrayList<>(rows.getNumberOfElements());
+        for (BookRow row : rows) {
+            books.add(BookDto.builder()
+                .id(row.id())
+                .name(row.name())
+                .description(row.description())
+                .series(row.seriesId() == null ? null : series.computeIfAbsent(row.seriesId(), id -> SeriesDto.builder()
+                    .id(id)
+                    .name(row.seriesName())
+                    .description(row.seriesDescription())
+                    .createTs(row.seriesCreateTs())
+                    .updateTs(row.seriesUpdateTs())
+                    .build()))
+                .language(row.language() != null ? row.language().name() : null)
+                .fileLink(row.fileLink())
+                .createTs(row.createTs())
+                .updateTs(row.updateTs())
+                .genres(genresByBook.getOrDefault(row.id(), new HashSet<>()))
+                .build());
+        }
+
+        return books;
+    }
+    
     public static Book toEntity(BookDto dto) {
         if (dto == null) return null;
         
@@ -0,0 +1,25 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат обработки одного элемента пакетного запроса
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult<T> {
+
+    public enum Status {
+        CREATED, INVALID, ALREADY_EXISTS, NOT_FOUND
+    }
+
+    private int index;
+    private Status status;
+    private T result;
+    private String error;
+}
@@ -0,0 +1,32 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ответ на пакетный запрос: итоги и результаты по каждому элементу в порядке запроса
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse<T> {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult<T>> items;
+
+    public static <T> BatchResponse<T> of(List<BatchItemResult<T>> items) {
+        int succeeded = (int) items.stream()
+            .filter(item -> item.getStatus() == BatchItemResult.Status.CREATED)
+            .count();
+        return BatchResponse.<T>builder()
+            .succeeded(succeeded)
+            .failed(items.size() - succeeded)
+            .items(items)
+            .build();
+    }
+}
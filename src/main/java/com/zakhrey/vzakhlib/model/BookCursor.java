@@ -0,0 +1,28 @@
+package com.zakhrey.vzakhlib.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция курсора по книгам: последний ключ сортировки (название) и ID книги.
+ * Кодируется в непрозрачный URL-безопасный токен.
+ */
+public record BookCursor(String name, UUID id) {
+
+    private static final int UUID_LENGTH = 36;
+
+    public String encode() {
+        byte[] raw = (id + name).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new BookCursor(raw.substring(UUID_LENGTH), UUID.fromString(raw.substring(0, UUID_LENGTH)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(String.format("Некорректный курсор: '%s'", token), e);
+        }
+    }
+}
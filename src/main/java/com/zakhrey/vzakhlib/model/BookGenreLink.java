@@ -0,0 +1,9 @@
+package com.zakhrey.vzakhlib.model;
+
+import java.util.UUID;
+
+/**
+ * Связь книги с жанром (строка genre_for_book)
+ */
+public record BookGenreLink(UUID bookId, UUID genreId) {
+}
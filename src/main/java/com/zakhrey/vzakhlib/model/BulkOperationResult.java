@@ -0,0 +1,16 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат массовой операции: число затронутых записей
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResult {
+
+    private long affected;
+}
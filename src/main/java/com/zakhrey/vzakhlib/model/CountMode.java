@@ -0,0 +1,24 @@
+package com.zakhrey.vzakhlib.model;
+
+/**
+ * Способ подсчета общего количества элементов для постраничных списков
+ */
+public enum CountMode {
+    /** Точный COUNT на каждую страницу */
+    EXACT,
+    /** Приблизительное значение из кэша с ограниченным временем жизни */
+    APPROX,
+    /** Без подсчета: только признак наличия следующей страницы */
+    NONE;
+
+    public static CountMode fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Некорректный режим подсчета: '%s'", value), e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница курсорной (keyset) пагинации: без общего количества элементов,
+ * следующая страница запрашивается по непрозрачному токену {@code next}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private boolean hasNext;
+    private String next;
+}
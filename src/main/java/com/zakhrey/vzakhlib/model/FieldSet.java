@@ -0,0 +1,55 @@
+package com.zakhrey.vzakhlib.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Набор полей ответа из параметра fields (например, {@code fields=id,name,language}).
+ * Без параметра выбираются все поля. Невыбранные поля не попадают в ответ
+ * и, где это поддерживает запрос, не читаются из БД
+ */
+public record FieldSet(Set<String> names) {
+
+    public static final List<String> BOOK_FIELDS = List.of(
+        "id", "name", "description", "series", "language", "fileLink", "createTs", "updateTs", "genres");
+
+    /** Поля жанров и серий */
+    public static final List<String> DICTIONARY_FIELDS = List.of(
+        "id", "name", "description", "createTs", "updateTs");
+
+    public static final FieldSet ALL = new FieldSet(Set.of());
+
+    public static FieldSet fromParam(String value, List<String> allowed) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toCollection(TreeSet::new));
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException(String.format("Некорректное поле: '%s'", name));
+            }
+        }
+        return names.isEmpty() || names.containsAll(allowed) ? ALL : new FieldSet(Set.copyOf(names));
+    }
+
+    public boolean isAll() {
+        return names.isEmpty();
+    }
+
+    public boolean has(String field) {
+        return names.isEmpty() || names.contains(field);
+    }
+
+    /**
+     * Каноническая запись набора для ключей кэша и ETag: поля по алфавиту, для всех полей - пустая строка
+     */
+    public String key() {
+        return String.join(",", new TreeSet<>(names));
+    }
+}
@@ -0,0 +1,48 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Состояние задачи импорта каталога
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobStatus {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private UUID id;
+    private State state;
+    private String format;
+    private String source;
+    private int chunkSize;
+    private long processedRows;
+    private long committedRows;
+    private long importedBooks;
+    private long failedRows;
+    private long committedChunks;
+    private double rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private List<FailedRow> failures;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedRow {
+        private long row;
+        private String error;
+    }
+}
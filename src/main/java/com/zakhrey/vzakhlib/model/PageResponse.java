@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Data
 @Builder
@@ -32,4 +33,16 @@ public class PageResponse<T> {
             .last(page.isLast())
             .build();
     }
+
+    public <R> PageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return PageResponse.<R>builder()
+            .content(content.stream().<R>map(mapper).toList())
+            .currentPage(currentPage)
+            .totalPages(totalPages)
+            .totalElements(totalElements)
+            .pageSize(pageSize)
+            .first(first)
+            .last(last)
+            .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.zakhrey.vzakhlib.model;
+
+import java.time.Instant;
+
+/**
+ * Валидаторы условного GET. Last-Modified задается, только если отметка времени
+ * меняется при любом изменении представления ресурса, иначе сверяется один ETag
+ */
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    public static ResourceVersion of(String etag) {
+        return new ResourceVersion(etag, null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.zakhrey.vzakhlib.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница без точного COUNT: только признак наличия следующей страницы
+ * и, по запросу, приблизительное общее количество элементов.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+    private List<T> content;
+    private int currentPage;
+    private int pageSize;
+    private boolean first;
+    private boolean hasNext;
+    private Long approximateTotalElements;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice, Long approximateTotalElements) {
+        return SliceResponse.<T>builder()
+            .content(slice.getContent())
+            .currentPage(slice.getNumber())
+            .pageSize(slice.getSize())
+            .first(slice.isFirst())
+            .hasNext(slice.hasNext())
+            .approximateTotalElements(approximateTotalElements)
+            .build();
+    }
+
+    public <R> SliceResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return SliceResponse.<R>builder()
+            .content(content.stream().<R>map(mapper).toList())
+            .currentPage(currentPage)
+            .pageSize(pageSize)
+            .first(first)
+            .hasNext(hasNext)
+            .approximateTotalElements(approximateTotalElements)
+            .build();
+    }
+}
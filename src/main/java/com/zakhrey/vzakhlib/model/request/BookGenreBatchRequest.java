@@ -0,0 +1,16 @@
+package com.zakhrey.vzakhlib.model.request;
+
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookGenreBatchRequest {
+
+    // Связи книга-жанр, которые нужно добавить
+    private List<BookGenreLink> add;
+
+    // Связи книга-жанр, которые нужно удалить
+    private List<BookGenreLink> remove;
+}
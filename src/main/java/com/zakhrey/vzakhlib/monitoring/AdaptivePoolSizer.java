@@ -0,0 +1,76 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подстройка размера пула Hikari по наблюдаемой нагрузке ({@code vzakhlib.jdbc.pool.adaptive.enabled}).
+ * Если за интервал потоки ждали соединение или среднее ожидание выше {@code target-wait},
+ * пул растет на {@code step}; если занятых соединений в пике было меньше половины пула
+ * и никто не ждал - уменьшается на {@code step}. Размер остается в пределах
+ * {@code min-size}..{@code max-size}; лишние соединения Hikari закрывает по мере возврата.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "vzakhlib.jdbc.pool.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private final HikariDataSource pool;
+    private final ConnectionMonitor monitor;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final long targetWaitNanos;
+
+    public AdaptivePoolSizer(DataSource dataSource, ConnectionMonitor monitor,
+                             @Value("${vzakhlib.jdbc.pool.adaptive.min-size:5}") int minSize,
+                             @Value("${vzakhlib.jdbc.pool.adaptive.max-size:50}") int maxSize,
+                             @Value("${vzakhlib.jdbc.pool.adaptive.step:2}") int step,
+                             @Value("${vzakhlib.jdbc.pool.adaptive.target-wait:5ms}") Duration targetWait)
+        throws SQLException {
+        if (minSize < 1 || maxSize < minSize || step < 1) {
+            throw new IllegalArgumentException(String.format(
+                "Некорректные границы пула: min-size '%s', max-size '%s', step '%s'", minSize, maxSize, step));
+        }
+        this.pool = dataSource.unwrap(HikariDataSource.class);
+        this.monitor = monitor;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+        this.targetWaitNanos = targetWait.toNanos();
+    }
+
+    @Scheduled(fixedDelayString = "${vzakhlib.jdbc.pool.adaptive.interval:10s}")
+    public void adjust() {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        ConnectionMonitor.Window window = monitor.drainWindow();
+        if (poolBean == null) {
+            return;
+        }
+        int size = pool.getMaximumPoolSize();
+        int waiting = poolBean.getThreadsAwaitingConnection();
+        long meanWait = window.meanAcquireNanos();
+
+        int target = size;
+        if (waiting > 0 || meanWait > targetWaitNanos) {
+            target = Math.min(maxSize, size + step);
+        } else if (window.peakOpen() * 2 < size) {
+            target = Math.max(minSize, size - step);
+        }
+        if (target != size) {
+            pool.setMaximumPoolSize(target);
+            log.info("Размер пула соединений изменен: {} -> {} (ожидают {}, среднее ожидание {} мс, пик занятых {})",
+                size, target, waiting, TimeUnit.NANOSECONDS.toMillis(meanWait), window.peakOpen());
+        }
+    }
+}
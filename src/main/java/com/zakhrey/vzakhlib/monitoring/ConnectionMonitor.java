@@ -0,0 +1,134 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Учет соединений JDBC по методам сервисов: время ожидания соединения из пула
+ * ({@code vzakhlib.jdbc.connection.acquire}), время удержания ({@code vzakhlib.jdbc.connection.hold})
+ * и удержания дольше {@code vzakhlib.jdbc.leak-threshold} ({@code vzakhlib.jdbc.connection.leaks}).
+ * Для каждого такого удержания один раз пишется стек потока, который держит соединение.
+ * Метрики самого пула (занятые, простаивающие, ожидающие) публикует Hikari как {@code hikaricp.*}.
+ */
+@Slf4j
+@Component
+public class ConnectionMonitor {
+
+    private final MeterRegistry registry;
+    private final long leakThresholdNanos;
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong holdIds = new AtomicLong();
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peakOpen = new AtomicInteger();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+
+    public ConnectionMonitor(ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${vzakhlib.jdbc.leak-threshold:60s}") Duration leakThreshold) {
+        this.registry = meterRegistry.getIfAvailable();
+        this.leakThresholdNanos = leakThreshold.toNanos();
+    }
+
+    /**
+     * Соединение получено из пула за {@code waitNanos}; возвращает ID удержания для {@link #released}
+     */
+    long acquired(String method, long waitNanos) {
+        acquisitions.increment();
+        acquireNanos.add(waitNanos);
+        int current = open.incrementAndGet();
+        peakOpen.accumulateAndGet(current, Math::max);
+        if (registry != null) {
+            acquireTimers.computeIfAbsent(method, m -> timer("vzakhlib.jdbc.connection.acquire", m))
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+        long id = holdIds.incrementAndGet();
+        holds.put(id, new Hold(method, Thread.currentThread(), System.nanoTime()));
+        return id;
+    }
+
+    void released(long id) {
+        Hold hold = holds.remove(id);
+        if (hold == null) {
+            return;
+        }
+        open.decrementAndGet();
+        if (registry != null) {
+            holdTimers.computeIfAbsent(hold.getMethod(), m -> timer("vzakhlib.jdbc.connection.hold", m))
+                .record(System.nanoTime() - hold.getAcquiredNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String method) {
+        return Timer.builder(name).tag("method", method).register(registry);
+    }
+
+    /**
+     * Проверка удержаний; каждое удержание дольше порога сообщается один раз
+     */
+    @Scheduled(fixedDelayString = "${vzakhlib.jdbc.leak-check-interval:5s}")
+    public void detectLeaks() {
+        if (leakThresholdNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Hold hold : holds.values()) {
+            long heldNanos = now - hold.getAcquiredNanos();
+            if (heldNanos < leakThresholdNanos || hold.reported) {
+                continue;
+            }
+            hold.reported = true;
+            Throwable trace = new Throwable(String.format("Стек потока '%s'", hold.getThread().getName()));
+            trace.setStackTrace(hold.getThread().getStackTrace());
+            log.warn("Соединение удерживается {} мс методом '{}'", TimeUnit.NANOSECONDS.toMillis(heldNanos),
+                hold.getMethod(), trace);
+            if (registry != null) {
+                Counter.builder("vzakhlib.jdbc.connection.leaks").tag("method", hold.getMethod()).register(registry)
+                    .increment();
+            }
+        }
+    }
+
+    /**
+     * Сводка с прошлого вызова для подстройки пула: получения соединений, суммарное ожидание
+     * и наибольшее число одновременно занятых соединений
+     */
+    Window drainWindow() {
+        return new Window(acquisitions.sumThenReset(), acquireNanos.sumThenReset(), peakOpen.getAndSet(open.get()));
+    }
+
+    record Window(long acquisitions, long acquireNanos, int peakOpen) {
+
+        long meanAcquireNanos() {
+            return acquisitions == 0 ? 0 : acquireNanos / acquisitions;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Hold {
+
+        private final String method;
+        private final Thread thread;
+        private final long acquiredNanos;
+        private volatile boolean reported;
+    }
+}
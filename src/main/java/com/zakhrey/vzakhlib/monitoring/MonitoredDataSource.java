@@ -0,0 +1,96 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Источник данных, сообщающий {@link ConnectionMonitor} о получении и закрытии соединений.
+ * Монитор берется при первом обращении: источник данных создается раньше реестра метрик.
+ * Без монитора (срезы тестов) соединения отдаются как есть.
+ */
+public class MonitoredDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<ConnectionMonitor> monitorProvider;
+    private volatile ConnectionMonitor monitor;
+
+    public MonitoredDataSource(DataSource target, ObjectProvider<ConnectionMonitor> monitorProvider) {
+        super(target);
+        this.monitorProvider = monitorProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return monitored(super.getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return monitored(super.getConnection(username, password), start);
+    }
+
+    private Connection monitored(Connection connection, long start) {
+        ConnectionMonitor current = monitor();
+        if (current == null) {
+            return connection;
+        }
+        long holdId = current.acquired(ServiceMetricsInterceptor.current(), System.nanoTime() - start);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            new ConnectionHandler(connection, current, holdId));
+    }
+
+    private ConnectionMonitor monitor() {
+        ConnectionMonitor current = monitor;
+        if (current == null) {
+            current = monitorProvider.getIfAvailable();
+            monitor = current;
+        }
+        return current;
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final ConnectionMonitor monitor;
+        private final long holdId;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ConnectionHandler(Connection target, ConnectionMonitor monitor, long holdId) {
+            this.target = target;
+            this.monitor = monitor;
+            this.holdId = holdId;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        monitor.released(holdId);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL-запросы, выполненные в потоке за время HTTP-запроса или проверяемого участка теста:
+ * их число, время выполнения в JDBC и число выполнений каждой формы запроса.
+ * Формой считается текст SQL, в котором списки параметров {@code in (?, ?, ?)} свернуты в один.
+ * Заполняется {@link StatementRecorder} и {@link StatementTimingListener}; учет вложенных
+ * участков попадает и во внешние.
+ */
+public final class RequestStatements implements AutoCloseable {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private final RequestStatements parent;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int count;
+    private long jdbcNanos;
+
+    private RequestStatements(RequestStatements parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Начать учет в текущем потоке; завершается {@link #close()}
+     */
+    public static RequestStatements open() {
+        RequestStatements statements = new RequestStatements(CURRENT.get());
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    /**
+     * Учет, открытый в текущем потоке, либо null
+     */
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    static void recordStatement(String sql) {
+        RequestStatements statements = CURRENT.get();
+        if (statements == null) {
+            return;
+        }
+        String shape = shape(sql);
+        for (RequestStatements scope = statements; scope != null; scope = scope.parent) {
+            scope.count++;
+            scope.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Форма запроса: списки параметров свернуты в один
+     */
+    static String shape(String sql) {
+        return PARAMETER_LIST.matcher(sql).replaceAll("?");
+    }
+
+    static void recordJdbcTime(long nanos) {
+        for (RequestStatements scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * Формы запросов с числом выполнений в порядке первого выполнения
+     */
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    /**
+     * Формы, выполненные не менее {@code threshold} раз - вероятный N+1
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, times) -> {
+            if (times >= threshold) {
+                repeated.put(shape, times);
+            }
+        });
+        return repeated;
+    }
+}
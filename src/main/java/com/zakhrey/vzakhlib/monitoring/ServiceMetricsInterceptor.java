@@ -0,0 +1,240 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.zakhrey.vzakhlib.model.BatchResponse;
+import com.zakhrey.vzakhlib.model.CursorPageResponse;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.SliceResponse;
+import com.zakhrey.vzakhlib.service.BookExportService;
+import com.zakhrey.vzakhlib.service.BookImportService;
+import com.zakhrey.vzakhlib.service.BookService;
+import com.zakhrey.vzakhlib.service.GenreService;
+import com.zakhrey.vzakhlib.service.SeriesService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики вызовов сервисов {@link #SERVICES}: гистограмма времени {@code vzakhlib.service}
+ * (теги service, method, outcome), ошибки по типу исключения {@code vzakhlib.service.errors}
+ * и число элементов в ответах-страницах {@code vzakhlib.service.results}.
+ * Метры создаются при первом вызове метода; дальше запись только ищет их по {@link Method}
+ * и не создает объектов, чтобы не искажать измеряемый путь.
+ * Кроме того, запоминает в потоке вызванный метод сервиса ({@code BookServiceImpl.getBookById}) для тегов
+ * учета соединений и журнала медленных запросов. Перехватчик внешний по отношению к транзакции, поэтому
+ * соединение, взятое и возвращенное транзакцией, относится к этому методу. При вложенных вызовах сервисов
+ * учитывается внешний.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    /** Тег для работы с БД вне методов сервисов: импорт, загрузка индекса, ленивая загрузка в представлении */
+    public static final String OTHER = "other";
+
+    public static final List<Class<?>> SERVICES = List.of(BookService.class, GenreService.class, SeriesService.class,
+        BookImportService.class, BookExportService.class);
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final Map<Method, String> NAMES = new ConcurrentHashMap<>();
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public ServiceMetricsInterceptor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    /**
+     * Метод сервиса из {@link #SERVICES}, реализуемый классом {@code targetClass}, либо null
+     */
+    public static Class<?> serviceOf(Method method, Class<?> targetClass) {
+        for (Class<?> service : SERVICES) {
+            if (service.isAssignableFrom(targetClass)
+                && ReflectionUtils.findMethod(service, method.getName(), method.getParameterTypes()) != null) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Метод сервиса, выполняющийся в текущем потоке, либо {@link #OTHER}
+     */
+    public static String current() {
+        String method = CURRENT.get();
+        return method != null ? method : OTHER;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (CURRENT.get() != null) {
+            return metered(invocation);
+        }
+        CURRENT.set(name(invocation));
+        try {
+            return metered(invocation);
+        } finally {
+            // set(null) вместо remove(): после remove() каждый set() создает новую запись ThreadLocalMap
+            CURRENT.set(null);
+        }
+    }
+
+    private Object metered(MethodInvocation invocation) throws Throwable {
+        MethodMeters methodMeters = meters(invocation);
+        if (methodMeters == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            methodMeters.failed(System.nanoTime() - start, e);
+            throw e;
+        }
+        methodMeters.succeeded(System.nanoTime() - start, result);
+        return result;
+    }
+
+    private static String name(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        String name = NAMES.get(method);
+        if (name == null) {
+            Class<?> targetClass = targetClass(invocation);
+            name = NAMES.computeIfAbsent(method, m -> targetClass.getSimpleName() + "." + m.getName());
+        }
+        return name;
+    }
+
+    private static Class<?> targetClass(MethodInvocation invocation) {
+        return invocation.getThis() != null
+            ? invocation.getThis().getClass()
+            : invocation.getMethod().getDeclaringClass();
+    }
+
+    private MethodMeters meters(MethodInvocation invocation) {
+        MethodMeters methodMeters = meters.get(invocation.getMethod());
+        if (methodMeters != null) {
+            return methodMeters;
+        }
+        MeterRegistry current = registry();
+        if (current == null) {
+            return null;
+        }
+        Method method = invocation.getMethod();
+        Class<?> service = serviceOf(method, targetClass(invocation));
+        if (service == null) {
+            return null;
+        }
+        return meters.computeIfAbsent(method, m -> new MethodMeters(current, service.getSimpleName(), m));
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getIfAvailable();
+            registry = current;
+        }
+        return current;
+    }
+
+    private static final class MethodMeters {
+
+        private final MeterRegistry registry;
+        private final String service;
+        private final String method;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary results;
+        private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+        private MethodMeters(MeterRegistry registry, String service, Method method) {
+            this.registry = registry;
+            this.service = service;
+            this.method = method.getName();
+            this.success = timer("success");
+            this.error = timer("error");
+            this.results = returnsContent(method.getReturnType())
+                ? DistributionSummary.builder("vzakhlib.service.results")
+                    .description("Число элементов в ответе метода сервиса")
+                    .tags("service", service, "method", this.method)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(10_000.0)
+                    .register(registry)
+                : null;
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder("vzakhlib.service")
+                .description("Время вызова метода сервиса")
+                .tags("service", service, "method", method, "outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        }
+
+        void succeeded(long nanos, Object result) {
+            success.record(nanos, TimeUnit.NANOSECONDS);
+            if (results != null) {
+                int size = size(result);
+                if (size >= 0) {
+                    results.record(size);
+                }
+            }
+        }
+
+        void failed(long nanos, Throwable e) {
+            error.record(nanos, TimeUnit.NANOSECONDS);
+            Counter counter = errors.get(e.getClass());
+            if (counter == null) {
+                counter = errors.computeIfAbsent(e.getClass(), type -> Counter.builder("vzakhlib.service.errors")
+                    .description("Исключения методов сервисов по типу")
+                    .tags("service", service, "method", method, "exception", type.getSimpleName())
+                    .register(registry));
+            }
+            counter.increment();
+        }
+
+        private static boolean returnsContent(Class<?> type) {
+            return PageResponse.class.isAssignableFrom(type) || SliceResponse.class.isAssignableFrom(type)
+                || CursorPageResponse.class.isAssignableFrom(type) || BatchResponse.class.isAssignableFrom(type)
+                || Collection.class.isAssignableFrom(type);
+        }
+
+        private static int size(Object result) {
+            if (result instanceof PageResponse<?> page) {
+                return size(page.getContent());
+            }
+            if (result instanceof SliceResponse<?> slice) {
+                return size(slice.getContent());
+            }
+            if (result instanceof CursorPageResponse<?> cursorPage) {
+                return size(cursorPage.getContent());
+            }
+            if (result instanceof BatchResponse<?> batch) {
+                return size(batch.getItems());
+            }
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            return -1;
+        }
+
+        private static int size(Collection<?> content) {
+            return content == null ? 0 : content.size();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Запись журнала медленных запросов
+ *
+ * @param sql        запрос без лишних пробелов, списки параметров {@code in (?, ?)} свернуты в один
+ * @param parameters число параметров запроса
+ * @param inLists    размеры списков параметров IN в порядке следования
+ * @param method     метод сервиса, выполнивший запрос
+ * @param plan       план выполнения; строится по запросу к записи
+ * @param statement  исходный текст запроса для EXPLAIN
+ */
+public record SlowQuery(long id, LocalDateTime executedAt, String sql, int parameters, List<Integer> inLists,
+                        String method, double durationMs, String plan, @JsonIgnore String statement) {
+
+    SlowQuery withPlan(String plan) {
+        return new SlowQuery(id, executedAt, sql, parameters, inLists, method, durationMs, plan, statement);
+    }
+}
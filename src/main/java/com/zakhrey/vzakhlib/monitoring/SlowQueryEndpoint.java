@@ -0,0 +1,50 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/slowqueries}: журнал медленных запросов ({@link SlowQueryJournal}).
+ * GET - записи и порог, GET {@code /{id}} - запись с планом выполнения,
+ * POST {@code {"thresholdMs": 50}} - новый порог, DELETE - очистка журнала
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryJournal journal;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        List<SlowQuery> queries = journal.list();
+        return Map.of("thresholdMs", journal.getThreshold().toMillis(), "queries", queries);
+    }
+
+    @ReadOperation
+    public SlowQuery slowQuery(@Selector long id) {
+        return journal.withPlan(id).orElse(null);
+    }
+
+    @WriteOperation
+    public void threshold(long thresholdMs) {
+        if (thresholdMs < 0) {
+            throw new IllegalArgumentException(String.format("Некорректный порог: '%s'", thresholdMs));
+        }
+        journal.setThreshold(Duration.ofMillis(thresholdMs));
+    }
+
+    @DeleteOperation
+    public void clear() {
+        journal.clear();
+    }
+}
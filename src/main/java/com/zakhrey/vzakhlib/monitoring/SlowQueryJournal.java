@@ -0,0 +1,183 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Кольцевой буфер последних SQL-запросов Hibernate, выполнявшихся дольше порога
+ * ({@code vzakhlib.slow-queries.threshold}, меняется на лету через {@code /actuator/slowqueries}).
+ * Время выполнения сообщает {@link StatementTimingListener}; в фабрику сессий своего контекста журнал
+ * передается через {@link StatementRecorder}, пакеты в обход Hibernate - через {@link StatementRecorder#execute}.
+ * Быстрые запросы только сравниваются с порогом. План выполнения строится при первом запросе записи,
+ * а не при ее добавлении.
+ */
+@Slf4j
+@Component
+public class SlowQueryJournal {
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private final DataSource dataSource;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long thresholdNanos;
+
+    public SlowQueryJournal(DataSource dataSource,
+                            @Value("${vzakhlib.slow-queries.threshold:200ms}") Duration threshold,
+                            @Value("${vzakhlib.slow-queries.capacity:100}") int capacity) {
+        this.dataSource = dataSource;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    void executed(String statement, long nanos) {
+        if (nanos >= thresholdNanos) {
+            add(statement, nanos);
+        }
+    }
+
+    private void add(String statement, long nanos) {
+        String sql = SPACES.matcher(statement.trim()).replaceAll(" ");
+        List<Integer> inLists = new ArrayList<>();
+        Matcher matcher = IN_LIST.matcher(sql);
+        while (matcher.find()) {
+            inLists.add(count(matcher.group()));
+        }
+        String method = ServiceMetricsInterceptor.current();
+        double durationMs = nanos / 1_000_000.0;
+        long id = sequence.incrementAndGet();
+        entries.set(slot(id), new SlowQuery(id, LocalDateTime.now(), RequestStatements.shape(sql), count(sql),
+            List.copyOf(inLists), method, durationMs, null, statement));
+        log.warn("Медленный запрос {} мс в '{}': {}", String.format("%.1f", durationMs), method, sql);
+    }
+
+    /**
+     * Записи буфера, самые долгие первыми
+     */
+    public List<SlowQuery> list() {
+        List<SlowQuery> list = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            SlowQuery entry = entries.get(i);
+            if (entry != null) {
+                list.add(entry);
+            }
+        }
+        list.sort(Comparator.comparingDouble(SlowQuery::durationMs).reversed());
+        return list;
+    }
+
+    /**
+     * Запись с планом выполнения; план строится один раз и сохраняется в записи
+     */
+    public Optional<SlowQuery> withPlan(long id) {
+        SlowQuery entry = entries.get(slot(id));
+        if (entry == null || entry.id() != id) {
+            return Optional.empty();
+        }
+        if (entry.plan() != null) {
+            return Optional.of(entry);
+        }
+        SlowQuery explained = entry.withPlan(explain(entry.statement(), entry.parameters()));
+        entries.compareAndSet(slot(id), entry, explained);
+        return Optional.of(explained);
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public void setThreshold(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+        log.info("Порог журнала медленных запросов: {} мс", threshold.toMillis());
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+
+    private int slot(long id) {
+        return (int) (id % entries.length());
+    }
+
+    /**
+     * Значения параметров не сохраняются, поэтому на PostgreSQL строится общий план (GENERIC_PLAN, PostgreSQL 16+),
+     * иначе - план с NULL вместо параметров. EXPLAIN без ANALYZE запрос не выполняет.
+     */
+    private String explain(String statement, int parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            if ("PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                try {
+                    return explain(connection, "EXPLAIN (GENERIC_PLAN) " + numberParameters(statement), 0);
+                } catch (SQLException e) {
+                    log.debug("GENERIC_PLAN недоступен: {}", e.getMessage());
+                }
+            }
+            return explain(connection, "EXPLAIN " + statement, parameters);
+        } catch (SQLException e) {
+            log.warn("Не удалось построить план запроса: {}", e.getMessage());
+            return "План недоступен: " + e.getMessage();
+        }
+    }
+
+    private static String explain(Connection connection, String sql, int parameters) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= parameters; i++) {
+                explain.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    plan.append(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static String numberParameters(String statement) {
+        StringBuilder numbered = new StringBuilder(statement.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            char c = statement.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static int count(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
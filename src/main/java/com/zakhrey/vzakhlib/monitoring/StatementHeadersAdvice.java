@@ -0,0 +1,33 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Заголовки учета SQL-запросов ({@link StatementStatsFilter}) для ответов с телом:
+ * после записи тела ответ уже отправлен и заголовки добавить нельзя
+ */
+@ControllerAdvice
+public class StatementHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            StatementStatsFilter.writeHeaders(statements, response.getHeaders()::set);
+        }
+        return body;
+    }
+}
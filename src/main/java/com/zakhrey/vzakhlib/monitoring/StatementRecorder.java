@@ -0,0 +1,64 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Передает каждый подготавливаемый Hibernate SQL-запрос в {@link RequestStatements}
+ * и запоминает его вместе с журналом медленных запросов для {@link StatementTimingListener}.
+ * Подключается настройкой {@code hibernate.session_factory.statement_inspector}: приложение передает
+ * экземпляр со своим {@link SlowQueryJournal} (см. {@code MonitoringConfig}), а срезы тестов без него
+ * создают его по имени класса и ведут только учет запросов
+ */
+public class StatementRecorder implements StatementInspector {
+
+    private final SlowQueryJournal journal;
+
+    public StatementRecorder() {
+        this(null);
+    }
+
+    public StatementRecorder(SlowQueryJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements.recordStatement(sql);
+        StatementTimingListener.prepared(sql, journal);
+        return sql;
+    }
+
+    /**
+     * Запрос JDBC на соединении сессии в обход Hibernate ({@code doReturningWork}) с тем же учетом,
+     * что и у запросов Hibernate: запрос и время работы {@code work} попадают в {@link RequestStatements}
+     * и в журнал медленных запросов фабрики сессий
+     */
+    public static <T> T execute(Session session, String sql, Work<T> work) {
+        SlowQueryJournal journal = session.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+            .getSessionFactoryOptions()
+            .getStatementInspector() instanceof StatementRecorder recorder ? recorder.journal : null;
+        return session.doReturningWork(connection -> {
+            RequestStatements.recordStatement(sql);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                long start = System.nanoTime();
+                T result = work.execute(statement);
+                StatementTimingListener.executed(sql, journal, System.nanoTime() - start);
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Заполнение и выполнение подготовленного запроса, обычно пакета ({@link PreparedStatement#executeBatch()})
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+
+        T execute(PreparedStatement statement) throws SQLException;
+    }
+}
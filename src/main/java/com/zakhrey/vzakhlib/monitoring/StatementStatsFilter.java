@@ -0,0 +1,62 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Учет SQL-запросов HTTP-запроса (см. {@link RequestStatements}). Число запросов и время JDBC
+ * передаются в заголовках {@link #QUERY_COUNT} и {@link #QUERY_TIME} и пишутся в лог;
+ * форма запроса, выполненная не менее {@code nPlusOneThreshold} раз, пишется как возможный N+1.
+ * Заголовки ответа с телом выставляет {@link StatementHeadersAdvice} перед записью тела.
+ */
+@Slf4j
+public class StatementStatsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT = "X-Query-Count";
+    public static final String QUERY_TIME = "X-Query-Time-Ms";
+
+    private final int nPlusOneThreshold;
+
+    public StatementStatsFilter(int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        RequestStatements statements = RequestStatements.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statements.close();
+            if (!response.isCommitted()) {
+                writeHeaders(statements, response::setHeader);
+            }
+            report(request, statements);
+        }
+    }
+
+    static void writeHeaders(RequestStatements statements, BiConsumer<String, String> headers) {
+        headers.accept(QUERY_COUNT, String.valueOf(statements.getCount()));
+        headers.accept(QUERY_TIME, String.valueOf(TimeUnit.NANOSECONDS.toMillis(statements.getJdbcNanos())));
+    }
+
+    private void report(HttpServletRequest request, RequestStatements statements) {
+        if (statements.getCount() == 0) {
+            return;
+        }
+        log.debug("Запрос '{} {}': SQL-запросов {}, время JDBC {} мс", request.getMethod(), request.getRequestURI(),
+            statements.getCount(), TimeUnit.NANOSECONDS.toMillis(statements.getJdbcNanos()));
+        statements.repeated(nPlusOneThreshold).forEach((shape, times) ->
+            log.warn("Возможный N+1 в запросе '{} {}': {} раз выполнен запрос '{}'", request.getMethod(),
+                request.getRequestURI(), times, shape));
+    }
+}
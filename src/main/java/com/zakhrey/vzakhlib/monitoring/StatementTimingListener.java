@@ -0,0 +1,53 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Время выполнения запросов и пакетов JDBC для {@link RequestStatements} и {@link SlowQueryJournal}.
+ * Создается Hibernate для каждой сессии по настройке {@code hibernate.session.events.auto};
+ * текст выполняемого запроса и журнал своей фабрики сессий передает {@link StatementRecorder} при подготовке запроса.
+ */
+public class StatementTimingListener implements SessionEventListener {
+
+    private static final ThreadLocal<String> PREPARED = new ThreadLocal<>();
+    private static final ThreadLocal<SlowQueryJournal> JOURNAL = new ThreadLocal<>();
+
+    private long executeStart;
+    private long batchStart;
+    private String batchStatement;
+    private SlowQueryJournal batchJournal;
+
+    static void prepared(String sql, SlowQueryJournal journal) {
+        PREPARED.set(sql);
+        JOURNAL.set(journal);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed(PREPARED.get(), JOURNAL.get(), System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+        batchStatement = PREPARED.get();
+        batchJournal = JOURNAL.get();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed(batchStatement, batchJournal, System.nanoTime() - batchStart);
+    }
+
+    static void executed(String sql, SlowQueryJournal journal, long nanos) {
+        RequestStatements.recordJdbcTime(nanos);
+        if (journal != null && sql != null) {
+            journal.executed(sql, nanos);
+        }
+    }
+}
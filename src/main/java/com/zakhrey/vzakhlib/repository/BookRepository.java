@@ -2,19 +2,35 @@ package com.zakhrey.vzakhlib.repository;
 
 import com.zakhrey.vzakhlib.entity.Book;
 import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookCursor;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends CrudRepository<Book, UUID> {
+public interface BookRepository extends CrudRepository<Book, UUID>, BookRepositoryCustom {
 
     Page<Book> findAll(Pageable pageable);
     
@@ -36,6 +52,13 @@ public interface BookRepository extends CrudRepository<Book, UUID> {
     // Проверить существование по названию
     boolean existsByName(String name);
 
+    // Сохранить и сразу сбросить в БД: нарушение уникального индекса названия проявляется при вызове
+    <S extends Book> S saveAndFlush(S entity);
+
+    // Названия из списка, уже занятые существующими книгами
+    @Query("SELECT b.name FROM Book b WHERE b.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
     @Query("SELECT b FROM Book b WHERE " +
             "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
             "(:language IS NULL OR b.language = :language) AND " +
@@ -44,4 +67,261 @@ public interface BookRepository extends CrudRepository<Book, UUID> {
                            @Param("language") Language language,
                            @Param("seriesId") UUID seriesId,
                            Pageable pageable);
-}
\ No newline at end of file
+
+    // Страницы идентификаторов для двухфазной загрузки списков (без обхода ленивых связей)
+
+    @Query("SELECT b.id FROM Book b")
+    Page<UUID> findPageIds(Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.series.id = :seriesId")
+    Page<UUID> findPageIdsBySeriesId(@Param("seriesId") UUID seriesId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    Page<UUID> findPageIdsByGenreId(@Param("genreId") UUID genreId, Pageable pageable);
+
+    // Срезы идентификаторов без COUNT (режимы count=none и count=approx)
+
+    @Query("SELECT b.id FROM Book b")
+    Slice<UUID> findSliceIds(Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    Slice<UUID> findSliceIdsByGenreId(@Param("genreId") UUID genreId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE " +
+            "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:language IS NULL OR b.language = :language) AND " +
+            "(:seriesId IS NULL OR b.series.id = :seriesId)")
+    Slice<UUID> searchSliceIds(@Param("name") String name,
+                               @Param("language") Language language,
+                               @Param("seriesId") UUID seriesId,
+                               Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    long countByGenreId(@Param("genreId") UUID genreId);
+
+    @Query("SELECT COUNT(b) FROM Book b WHERE " +
+            "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:language IS NULL OR b.language = :language) AND " +
+            "(:seriesId IS NULL OR b.series.id = :seriesId)")
+    long countSearchBooks(@Param("name") String name,
+                          @Param("language") Language language,
+                          @Param("seriesId") UUID seriesId);
+
+    // Курсорная (keyset) пагинация по индексу (name, id): позиция задается последней выданной книгой
+
+    // Ключи курсора (название, ID): следующий курсор строится по ним, а не по загруженным во второй фазе книгам
+    String BOOK_CURSOR = "SELECT new com.zakhrey.vzakhlib.model.BookCursor(b.name, b.id) FROM Book b ";
+
+    @Query(BOOK_CURSOR + "ORDER BY b.name, b.id")
+    List<BookCursor> findFirstKeys(Limit limit);
+
+    @Query(BOOK_CURSOR +
+           "WHERE (b.name, b.id) > (:name, :id) " +
+           "ORDER BY b.name, b.id")
+    List<BookCursor> findKeysAfter(@Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    @Query(BOOK_CURSOR + "WHERE " +
+            "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:language IS NULL OR b.language = :language) AND " +
+            "(:seriesId IS NULL OR b.series.id = :seriesId) AND " +
+            "(:afterName IS NULL OR (b.name, b.id) > (:afterName, :afterId)) " +
+            "ORDER BY b.name, b.id")
+    List<BookCursor> searchKeysAfter(@Param("name") String name,
+                                     @Param("language") Language language,
+                                     @Param("seriesId") UUID seriesId,
+                                     @Param("afterName") String afterName,
+                                     @Param("afterId") UUID afterId,
+                                     Limit limit);
+
+    // Валидаторы условного GET: отметки времени книг, их серий и жанров без загрузки сущностей
+    @Query("SELECT b.id, b.updateTs, s.id, s.updateTs, g.id, g.updateTs FROM Book b " +
+           "LEFT JOIN b.series s " +
+           "LEFT JOIN b.genres g " +
+           "WHERE b.id IN :ids")
+    List<Object[]> findVersionRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Проекции для списков: строки BookDto без материализации сущностей, жанры - вторым запросом по ID книг
+
+    String BOOK_ROWS = "SELECT new com.zakhrey.vzakhlib.repository.BookRow(" +
+        "b.id, b.name, b.description, b.language, b.fileLink, b.createTs, b.updateTs, " +
+        "s.id, s.name, s.description, s.createTs, s.updateTs) " +
+        "FROM Book b LEFT JOIN b.series s";
+
+    String SEARCH_CONDITION =
+        "(:name IS NULL OR LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+        "(:language IS NULL OR b.language = :language) AND " +
+        "(:seriesId IS NULL OR b.series.id = :seriesId)";
+
+    @Query(value = BOOK_ROWS, countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookRow> findRows(Pageable pageable);
+
+    @Query(value = BOOK_ROWS + " WHERE s.id = :seriesId",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.series.id = :seriesId")
+    Page<BookRow> findRowsBySeriesId(@Param("seriesId") UUID seriesId, Pageable pageable);
+
+    @Query(value = BOOK_ROWS + " JOIN b.genres g WHERE g.id = :genreId",
+           countQuery = "SELECT COUNT(b) FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    Page<BookRow> findRowsByGenreId(@Param("genreId") UUID genreId, Pageable pageable);
+
+    @Query(value = BOOK_ROWS + " WHERE " + SEARCH_CONDITION,
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE " + SEARCH_CONDITION)
+    Page<BookRow> searchRows(@Param("name") String name,
+                             @Param("language") Language language,
+                             @Param("seriesId") UUID seriesId,
+                             Pageable pageable);
+
+    @Query("SELECT new com.zakhrey.vzakhlib.repository.GenreRow(" +
+           "b.id, g.id, g.name, g.description, g.createTs, g.updateTs) " +
+           "FROM Book b JOIN b.genres g WHERE b.id IN :bookIds")
+    List<GenreRow> findGenreRowsByBookIdIn(@Param("bookIds") Collection<UUID> bookIds);
+
+    /**
+     * Жанры книг страницы одним запросом (без запроса для пустой страницы)
+     */
+    default List<GenreRow> findGenreRows(Slice<BookRow> rows) {
+        if (!rows.hasContent()) {
+            return List.of();
+        }
+        return findGenreRowsByBookIdIn(rows.map(BookRow::id).getContent());
+    }
+
+    /**
+     * Жанры книг страницы, если они входят в набор полей; иначе таблица связей не читается
+     */
+    default List<GenreRow> findGenreRows(Slice<BookRow> rows, FieldSet fields) {
+        return fields.has("genres") ? findGenreRows(rows) : List.of();
+    }
+
+    // Загрузить книги вместе с серией и жанрами одним запросом
+    @Query("SELECT DISTINCT b FROM Book b " +
+           "LEFT JOIN FETCH b.series " +
+           "LEFT JOIN FETCH b.genres " +
+           "WHERE b.id IN :ids")
+    List<Book> findAllWithSeriesAndGenresByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Массовые операции: одна инструкция независимо от числа затронутых строк
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.series = null, b.updateTs = LOCAL DATETIME WHERE b.series.id = :seriesId")
+    int unlinkSeries(@Param("seriesId") UUID seriesId);
+
+    // Hibernate предварительно удаляет строки genre_for_book этих книг тем же условием
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Связи одной книги: одна инструкция, проверка существования серии или жанра входит в ее условие
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.series = (SELECT s FROM Series s WHERE s.id = :seriesId), " +
+           "b.updateTs = LOCAL DATETIME " +
+           "WHERE b.id = :bookId AND EXISTS (SELECT 1 FROM Series s WHERE s.id = :seriesId)")
+    int attachSeries(@Param("bookId") UUID bookId, @Param("seriesId") UUID seriesId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.series = null, b.updateTs = LOCAL DATETIME WHERE b.id = :bookId")
+    int detachSeries(@Param("bookId") UUID bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_for_book"))
+    @Query(value = "INSERT INTO genre_for_book (book_id, genre_id) " +
+                   "SELECT b.id, g.id FROM book b JOIN genre g ON g.id = :genreId " +
+                   "WHERE b.id = :bookId AND NOT EXISTS (" +
+                   "SELECT 1 FROM genre_for_book x WHERE x.book_id = b.id AND x.genre_id = g.id)",
+           nativeQuery = true)
+    int linkGenre(@Param("bookId") UUID bookId, @Param("genreId") UUID genreId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_for_book"))
+    @Query(value = "DELETE FROM genre_for_book WHERE book_id = :bookId AND genre_id = :genreId", nativeQuery = true)
+    int unlinkGenre(@Param("bookId") UUID bookId, @Param("genreId") UUID genreId);
+
+    // Потоковое чтение всего каталога для выгрузки: строки читаются с сервера порциями по fetch size
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.series ORDER BY b.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAllWithSeries();
+
+    // Жанры группы книг одним запросом: пары (ID книги, жанр)
+    @Query("SELECT b.id, g FROM Book b JOIN b.genres g WHERE b.id IN :ids")
+    List<Object[]> findGenresByBookIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Вторая фаза загрузки страницы: по странице идентификаторов подгружает книги
+     * с серией и жанрами одним запросом, сохраняя порядок и метаданные исходной страницы.
+     * Итого страница обходится в фиксированное число запросов независимо от ее размера.
+     * Книги, удаленные между фазами, пропускаются, а общее число уменьшается на их количество.
+     */
+    default Page<Book> fetchWithSeriesAndGenres(Page<UUID> idPage) {
+        if (!idPage.hasContent()) {
+            return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
+        }
+
+        List<Book> books = fetchWithSeriesAndGenres(idPage.getContent());
+        long missing = idPage.getNumberOfElements() - books.size();
+        return new PageImpl<>(books, idPage.getPageable(), idPage.getTotalElements() - missing);
+    }
+
+    /**
+     * То же для среза без COUNT.
+     */
+    default Slice<Book> fetchWithSeriesAndGenres(Slice<UUID> idSlice) {
+        if (!idSlice.hasContent()) {
+            return new SliceImpl<>(List.of(), idSlice.getPageable(), false);
+        }
+
+        return new SliceImpl<>(fetchWithSeriesAndGenres(idSlice.getContent()), idSlice.getPageable(),
+            idSlice.hasNext());
+    }
+
+    /**
+     * То же для списка идентификаторов: книги возвращаются в порядке {@code ids},
+     * удаленные между фазами пропускаются.
+     */
+    default List<Book> fetchWithSeriesAndGenres(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Book> booksById = findAllWithSeriesAndGenresByIdIn(ids).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Вторая фаза для ответа с параметром fields: по странице ID подгружает строки книг только
+     * с выбранными полями ({@link #findSparseRowsByIdIn}), сохраняя порядок и метаданные страницы.
+     * Жанры загружаются отдельно ({@link #findGenreRows(Slice, FieldSet)})
+     */
+    default Page<BookRow> fetchSparseRows(Page<UUID> idPage, FieldSet fields) {
+        List<BookRow> rows = fetchSparseRows(idPage.getContent(), fields);
+        long missing = idPage.getNumberOfElements() - rows.size();
+        return new PageImpl<>(rows, idPage.getPageable(), idPage.getTotalElements() - missing);
+    }
+
+    /**
+     * То же для среза без COUNT.
+     */
+    default Slice<BookRow> fetchSparseRows(Slice<UUID> idSlice, FieldSet fields) {
+        return new SliceImpl<>(fetchSparseRows(idSlice.getContent(), fields), idSlice.getPageable(),
+            idSlice.hasNext());
+    }
+
+    /**
+     * То же для списка идентификаторов: строки возвращаются в порядке {@code ids},
+     * удаленные между фазами книги пропускаются.
+     */
+    default List<BookRow> fetchSparseRows(List<UUID> ids, FieldSet fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, BookRow> rowsById = findSparseRowsByIdIn(fields, ids).stream()
+            .collect(Collectors.toMap(BookRow::id, Function.identity()));
+
+        return ids.stream().map(rowsById::get).filter(Objects::nonNull).toList();
+    }
+}
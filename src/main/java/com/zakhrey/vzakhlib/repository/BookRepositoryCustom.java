@@ -0,0 +1,58 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Полнотекстовый поиск по названию и описанию книги.
+     * Возвращает страницу ID книг, упорядоченных по релевантности.
+     * На PostgreSQL использует индексированный tsvector (см. db/postgresql/book_search_vector.sql),
+     * на остальных СУБД — эквивалентный поиск по словам запроса.
+     */
+    Page<UUID> fullTextSearchIds(String query, Language language, UUID seriesId, Pageable pageable);
+
+    /**
+     * Страница строк книг только с выбранными полями: невыбранные столбцы не читаются,
+     * серия присоединяется, только если она выбрана. Жанры загружаются отдельно
+     * ({@link BookRepository#findGenreRows(org.springframework.data.domain.Slice, FieldSet)}).
+     * Без пагинации COUNT не выполняется
+     */
+    Page<BookRow> findSparseRows(FieldSet fields, BookRowFilter filter, Pageable pageable);
+
+    /**
+     * Строки книг с выбранными полями по списку ID одним запросом, в произвольном порядке.
+     * Вторая фаза списков, где страницу ID выбирает отдельный запрос или индекс
+     * ({@link BookRepository#fetchSparseRows(Page, FieldSet)})
+     */
+    List<BookRow> findSparseRowsByIdIn(FieldSet fields, Collection<UUID> ids);
+
+    /**
+     * Добавить связи книга-жанр одним JDBC-пакетом. Связь с несуществующей книгой или жанром
+     * и уже существующая связь пропускаются. Возвращает число добавленных строк по каждой связи
+     * (0 или 1; драйвер может вернуть {@link java.sql.Statement#SUCCESS_NO_INFO}).
+     */
+    int[] linkGenres(List<BookGenreLink> links);
+
+    /**
+     * Вставить книги вместе со связями с жанрами JDBC-пакетами, пропуская книги с уже занятым названием
+     * (на PostgreSQL - INSERT ... ON CONFLICT DO NOTHING). Книгам присваиваются ID и отметки времени.
+     * Возвращает число вставленных строк по каждой книге (0 - название занято). Вставка идет мимо
+     * контекста персистентности, поэтому JPA-слушатели для этих книг не вызываются.
+     */
+    int[] insertSkippingTakenNames(List<Book> books);
+
+    /**
+     * Удалить связи книга-жанр одним JDBC-пакетом. Возвращает число удаленных строк по каждой связи.
+     */
+    int[] unlinkGenres(List<BookGenreLink> links);
+}
@@ -0,0 +1,471 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.monitoring.StatementRecorder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Cache;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация пользовательских запросов {@link BookRepository}.
+ */
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    // Ограничение числа слов запроса для переносимой реализации поиска
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static final String LINK_GENRE_SQL =
+        "INSERT INTO genre_for_book (book_id, genre_id) " +
+        "SELECT b.id, g.id FROM book b JOIN genre g ON g.id = ? " +
+        "WHERE b.id = ? AND NOT EXISTS (" +
+        "SELECT 1 FROM genre_for_book x WHERE x.book_id = b.id AND x.genre_id = g.id)";
+
+    private static final String INSERT_BOOK =
+        "INSERT INTO book (id, name, description, series_id, language, file_link, create_ts, update_ts) ";
+
+    // Строка с занятым названием пропускается уникальным индексом uk_book_name
+    private static final String INSERT_BOOK_POSTGRES_SQL =
+        INSERT_BOOK + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String INSERT_BOOK_SQL = INSERT_BOOK +
+        "SELECT CAST(? AS UUID), CAST(? AS VARCHAR(512)), CAST(? AS VARCHAR(4096)), CAST(? AS UUID), " +
+        "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(512)), CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP) " +
+        "WHERE NOT EXISTS (SELECT 1 FROM book x WHERE x.name = ?)";
+
+    private static final String BOOK_GENRES_ROLE = Book.class.getName() + ".genres";
+
+    private static final String UNIQUE_NAME = "uk_book_name";
+
+    private static final String UNLINK_GENRE_SQL =
+        "DELETE FROM genre_for_book WHERE genre_id = ? AND book_id = ?";
+
+    // Столбцы книги по полям представления, ID выбирается всегда
+    private static final Map<String, String> BOOK_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        BOOK_COLUMNS.put("name", "b.name");
+        BOOK_COLUMNS.put("description", "b.description");
+        BOOK_COLUMNS.put("language", "b.language");
+        BOOK_COLUMNS.put("fileLink", "b.fileLink");
+        BOOK_COLUMNS.put("createTs", "b.createTs");
+        BOOK_COLUMNS.put("updateTs", "b.updateTs");
+    }
+
+    private static final String SERIES_COLUMNS =
+        "s.id AS seriesId, s.name AS seriesName, s.description AS seriesDescription, " +
+        "s.createTs AS seriesCreateTs, s.updateTs AS seriesUpdateTs";
+
+    private static final Set<String> SORTABLE =
+        Set.of("id", "name", "description", "language", "fileLink", "createTs", "updateTs");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean postgres;
+
+    @Override
+    public Page<UUID> fullTextSearchIds(String query, Language language, UUID seriesId, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            return Page.empty(pageable);
+        }
+        return isPostgres()
+            ? postgresSearch(query, language, seriesId, pageable)
+            : portableSearch(query, language, seriesId, pageable);
+    }
+
+    /**
+     * Поиск по индексированному tsvector с ранжированием ts_rank_cd.
+     * Без фильтра по языку запрос разбирается обеими конфигурациями и объединяется через OR,
+     * поэтому GIN-индекс используется в обоих случаях.
+     */
+    private Page<UUID> postgresSearch(String query, Language language, UUID seriesId, Pageable pageable) {
+        String tsQuery = language == null
+            ? "(websearch_to_tsquery('russian', :q) || websearch_to_tsquery('english', :q))"
+            : "websearch_to_tsquery(CAST(:config AS regconfig), :q)";
+        String where = " FROM book b WHERE b.search_vector @@ " + tsQuery
+            + (language != null ? " AND b.language = :language" : "")
+            + (seriesId != null ? " AND b.series_id = :seriesId" : "");
+
+        Query select = entityManager.createNativeQuery(
+            "SELECT b.id" + where + " ORDER BY ts_rank_cd(b.search_vector, " + tsQuery + ") DESC, b.id",
+            UUID.class);
+        Query count = entityManager.createNativeQuery("SELECT COUNT(*)" + where, Long.class);
+
+        for (Query q : List.of(select, count)) {
+            q.setParameter("q", query);
+            if (language != null) {
+                q.setParameter("config", language == Language.RUS ? "russian" : "english");
+                q.setParameter("language", language.name());
+            }
+            if (seriesId != null) {
+                q.setParameter("seriesId", seriesId);
+            }
+        }
+
+        return page(select, count, pageable);
+    }
+
+    /**
+     * Эквивалент для СУБД без полнотекстового поиска (H2 в тестах): каждое слово запроса
+     * должно встречаться в названии или описании, совпадения в названии весят больше.
+     */
+    private Page<UUID> portableSearch(String query, Language language, UUID seriesId, Pageable pageable) {
+        List<String> terms = Arrays.stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .limit(MAX_QUERY_TERMS)
+            .toList();
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        StringBuilder where = new StringBuilder(" FROM Book b WHERE 1 = 1");
+        StringBuilder rank = new StringBuilder("0");
+        for (int i = 0; i < terms.size(); i++) {
+            String name = "LOWER(b.name) LIKE :t" + i;
+            String description = "LOWER(COALESCE(b.description, '')) LIKE :t" + i;
+            where.append(" AND (").append(name).append(" OR ").append(description).append(")");
+            rank.append(" + CASE WHEN ").append(name).append(" THEN 2 ELSE 0 END")
+                .append(" + CASE WHEN ").append(description).append(" THEN 1 ELSE 0 END");
+        }
+        if (language != null) {
+            where.append(" AND b.language = :language");
+        }
+        if (seriesId != null) {
+            where.append(" AND b.series.id = :seriesId");
+        }
+
+        TypedQuery<UUID> select = entityManager.createQuery(
+            "SELECT b.id" + where + " ORDER BY " + rank + " DESC, b.id", UUID.class);
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(b)" + where, Long.class);
+
+        for (Query q : List.of(select, count)) {
+            for (int i = 0; i < terms.size(); i++) {
+                q.setParameter("t" + i, "%" + terms.get(i) + "%");
+            }
+            if (language != null) {
+                q.setParameter("language", language);
+            }
+            if (seriesId != null) {
+                q.setParameter("seriesId", seriesId);
+            }
+        }
+
+        return page(select, count, pageable);
+    }
+
+    @Override
+    public Page<BookRow> findSparseRows(FieldSet fields, BookRowFilter filter, Pageable pageable) {
+        boolean series = fields.has("series");
+        StringBuilder from = new StringBuilder(series ? " FROM Book b LEFT JOIN b.series s" : " FROM Book b");
+        if (filter.genreId() != null) {
+            from.append(" JOIN b.genres g");
+        }
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (filter.bookId() != null) {
+            where.append(" AND b.id = :bookId");
+        }
+        if (filter.name() != null) {
+            where.append(" AND LOWER(b.name) LIKE LOWER(CONCAT('%', :name, '%'))");
+        }
+        if (filter.language() != null) {
+            where.append(" AND b.language = :language");
+        }
+        if (filter.seriesId() != null) {
+            where.append(" AND b.series.id = :seriesId");
+        }
+        if (filter.genreId() != null) {
+            where.append(" AND g.id = :genreId");
+        }
+
+        TypedQuery<Tuple> select = entityManager.createQuery(
+            sparseColumns(fields, series) + from + where + orderBy(pageable.getSort()), Tuple.class);
+        setFilterParameters(select, filter);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        List<BookRow> rows = select.getResultList().stream()
+            .map(tuple -> toRow(tuple, fields, series))
+            .toList();
+
+        // Без серии COUNT не присоединяет ее таблицу; на неполной первой странице COUNT не нужен
+        return PageableExecutionUtils.getPage(rows, pageable, () -> {
+            String countFrom = filter.genreId() != null ? " FROM Book b JOIN b.genres g" : " FROM Book b";
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(b)" + countFrom + where, Long.class);
+            setFilterParameters(count, filter);
+            return count.getSingleResult();
+        });
+    }
+
+    @Override
+    public List<BookRow> findSparseRowsByIdIn(FieldSet fields, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        boolean series = fields.has("series");
+        TypedQuery<Tuple> select = entityManager.createQuery(sparseColumns(fields, series)
+            + (series ? " FROM Book b LEFT JOIN b.series s" : " FROM Book b") + " WHERE b.id IN :ids", Tuple.class);
+        select.setParameter("ids", ids);
+        return select.getResultList().stream()
+            .map(tuple -> toRow(tuple, fields, series))
+            .toList();
+    }
+
+    private static String sparseColumns(FieldSet fields, boolean series) {
+        StringJoiner columns = new StringJoiner(", ", "SELECT ", "").add("b.id AS id");
+        BOOK_COLUMNS.forEach((field, column) -> {
+            if (fields.has(field)) {
+                columns.add(column + " AS " + field);
+            }
+        });
+        if (series) {
+            columns.add(SERIES_COLUMNS);
+        }
+        return columns.toString();
+    }
+
+    private static void setFilterParameters(Query query, BookRowFilter filter) {
+        if (filter.bookId() != null) {
+            query.setParameter("bookId", filter.bookId());
+        }
+        if (filter.name() != null) {
+            query.setParameter("name", filter.name());
+        }
+        if (filter.language() != null) {
+            query.setParameter("language", filter.language());
+        }
+        if (filter.seriesId() != null) {
+            query.setParameter("seriesId", filter.seriesId());
+        }
+        if (filter.genreId() != null) {
+            query.setParameter("genreId", filter.genreId());
+        }
+    }
+
+    // Имена полей сортировки подставляются в запрос, поэтому допускаются только столбцы книги
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orders = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException(
+                    String.format("Некорректное поле сортировки: '%s'", order.getProperty()));
+            }
+            orders.add("b." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orders.toString();
+    }
+
+    private static BookRow toRow(Tuple tuple, FieldSet fields, boolean series) {
+        return new BookRow(
+            tuple.get("id", UUID.class),
+            fields.has("name") ? tuple.get("name", String.class) : null,
+            fields.has("description") ? tuple.get("description", String.class) : null,
+            fields.has("language") ? tuple.get("language", Language.class) : null,
+            fields.has("fileLink") ? tuple.get("fileLink", String.class) : null,
+            fields.has("createTs") ? tuple.get("createTs", LocalDateTime.class) : null,
+            fields.has("updateTs") ? tuple.get("updateTs", LocalDateTime.class) : null,
+            series ? tuple.get("seriesId", UUID.class) : null,
+            series ? tuple.get("seriesName", String.class) : null,
+            series ? tuple.get("seriesDescription", String.class) : null,
+            series ? tuple.get("seriesCreateTs", LocalDateTime.class) : null,
+            series ? tuple.get("seriesUpdateTs", LocalDateTime.class) : null);
+    }
+
+    @Override
+    public int[] linkGenres(List<BookGenreLink> links) {
+        return executeBatch(LINK_GENRE_SQL, links);
+    }
+
+    @Override
+    public int[] unlinkGenres(List<BookGenreLink> links) {
+        return executeBatch(UNLINK_GENRE_SQL, links);
+    }
+
+    @Override
+    public int[] insertSkippingTakenNames(List<Book> books) {
+        if (books.isEmpty()) {
+            return new int[0];
+        }
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        boolean onConflict = isPostgres();
+        LocalDateTime now = LocalDateTime.now();
+        String sql = onConflict ? INSERT_BOOK_POSTGRES_SQL : INSERT_BOOK_SQL;
+        int[] counts = StatementRecorder.execute(session, sql, statement -> {
+            for (Book book : books) {
+                book.setId(UUID.randomUUID());
+                book.setCreateTs(now);
+                book.setUpdateTs(now);
+                bindBook(statement, book, onConflict);
+                statement.addBatch();
+            }
+            if (onConflict) {
+                return statement.executeBatch();
+            }
+            try {
+                return statement.executeBatch();
+            } catch (BatchUpdateException e) {
+                return insertRemaining(statement, books, e);
+            }
+        });
+
+        List<BookGenreLink> links = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (counts[i] != 0 && book.getGenres() != null) {
+                book.getGenres().forEach(genre -> links.add(new BookGenreLink(book.getId(), genre.getId())));
+            }
+        }
+        linkGenres(links);
+        return counts;
+    }
+
+    private static void bindBook(PreparedStatement statement, Book book, boolean onConflict) throws SQLException {
+        statement.setObject(1, book.getId());
+        statement.setString(2, book.getName());
+        statement.setString(3, book.getDescription());
+        statement.setObject(4, book.getSeries() != null ? book.getSeries().getId() : null);
+        statement.setString(5, book.getLanguage().name());
+        statement.setString(6, book.getFileLink());
+        statement.setObject(7, book.getCreateTs());
+        statement.setObject(8, book.getUpdateTs());
+        if (!onConflict) {
+            statement.setString(9, book.getName());
+        }
+    }
+
+    /**
+     * NOT EXISTS не видит незафиксированную вставку параллельной транзакции, и уникальный индекс
+     * обрывает пакет. Строки, не выполненные пакетом, вставляются по одной; нарушение uk_book_name
+     * отклоняет только свою строку. Откат одного оператора без отката транзакции есть в H2, MySQL и Oracle;
+     * на PostgreSQL ошибка прерывает транзакцию, поэтому там используется ON CONFLICT DO NOTHING
+     */
+    private int[] insertRemaining(PreparedStatement statement, List<Book> books, BatchUpdateException failure)
+        throws SQLException {
+        int[] executed = failure.getUpdateCounts() != null ? failure.getUpdateCounts() : new int[0];
+        int[] counts = new int[books.size()];
+        statement.clearBatch();
+        for (int i = 0; i < books.size(); i++) {
+            if (i < executed.length && executed[i] != Statement.EXECUTE_FAILED) {
+                counts[i] = executed[i] == Statement.SUCCESS_NO_INFO ? 1 : executed[i];
+                continue;
+            }
+            bindBook(statement, books.get(i), false);
+            try {
+                counts[i] = statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!violatesUniqueName(e)) {
+                    throw e;
+                }
+                counts[i] = 0;
+            }
+        }
+        return counts;
+    }
+
+    private boolean violatesUniqueName(SQLException e) {
+        JDBCException converted = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getSqlExceptionHelper()
+            .convert(e, "Вставка книги", INSERT_BOOK_SQL);
+        return converted instanceof ConstraintViolationException violation
+            && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+            && violation.getConstraintName() != null
+            && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(UNIQUE_NAME);
+    }
+
+    private int[] executeBatch(String sql, List<BookGenreLink> links) {
+        if (links.isEmpty()) {
+            return new int[0];
+        }
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        int[] counts = StatementRecorder.execute(session, sql, statement -> {
+            for (BookGenreLink link : links) {
+                statement.setObject(1, link.genreId());
+                statement.setObject(2, link.bookId());
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        });
+        // Коллекции жанров загруженных и закешированных книг больше не соответствуют таблице связей;
+        // из сессии отсоединяются только эти книги, остальные сущности вызывающего кода остаются управляемыми
+        detachBooks(session, links.stream().map(BookGenreLink::bookId).collect(Collectors.toSet()));
+        Cache cache = session.getSessionFactory().getCache();
+        links.forEach(link -> cache.evictCollectionData(BOOK_GENRES_ROLE, link.bookId()));
+        return counts;
+    }
+
+    private static void detachBooks(Session session, Set<UUID> bookIds) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = implementor.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        for (UUID bookId : bookIds) {
+            Object book = implementor.getPersistenceContextInternal()
+                .getEntity(implementor.generateEntityKey(bookId, persister));
+            if (book != null) {
+                session.detach(book);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<UUID> page(Query select, Query count, Pageable pageable) {
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        List<UUID> ids = select.getResultList();
+        long total = ((Number) count.getSingleResult()).longValue();
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,24 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Language;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Строка списка книг: столбцы BookDto из книги и ее серии, выбранные конструктором в JPQL.
+ * Не является сущностью и не попадает в контекст персистентности
+ */
+public record BookRow(UUID id,
+                      String name,
+                      String description,
+                      Language language,
+                      String fileLink,
+                      LocalDateTime createTs,
+                      LocalDateTime updateTs,
+                      UUID seriesId,
+                      String seriesName,
+                      String seriesDescription,
+                      LocalDateTime seriesCreateTs,
+                      LocalDateTime seriesUpdateTs) {
+}
@@ -0,0 +1,29 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Language;
+
+import java.util.UUID;
+
+/**
+ * Условия выборки строк книг. Условие со значением null не применяется
+ */
+public record BookRowFilter(UUID bookId, String name, Language language, UUID seriesId, UUID genreId) {
+
+    public static final BookRowFilter ALL = new BookRowFilter(null, null, null, null, null);
+
+    public static BookRowFilter byId(UUID bookId) {
+        return new BookRowFilter(bookId, null, null, null, null);
+    }
+
+    public static BookRowFilter bySeries(UUID seriesId) {
+        return new BookRowFilter(null, null, null, seriesId, null);
+    }
+
+    public static BookRowFilter byGenre(UUID genreId) {
+        return new BookRowFilter(null, null, null, null, genreId);
+    }
+
+    public static BookRowFilter search(String name, Language language, UUID seriesId) {
+        return new BookRowFilter(null, name, language, seriesId, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.zakhrey.vzakhlib.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Строка списка жанров или серий только с выбранными полями (невыбранные равны null).
+ * ID и updateTs читаются всегда: по ним строится ETag страницы
+ */
+public record DictionaryRow(UUID id,
+                            String name,
+                            String description,
+                            LocalDateTime createTs,
+                            LocalDateTime updateTs) {
+}
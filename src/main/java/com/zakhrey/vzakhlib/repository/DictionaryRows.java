@@ -0,0 +1,73 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.model.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Выборка страницы жанров или серий только с выбранными столбцами
+ */
+final class DictionaryRows {
+
+    private static final List<String> OPTIONAL_COLUMNS = List.of("name", "description", "createTs");
+
+    private static final Set<String> SORTABLE = Set.of("id", "name", "description", "createTs", "updateTs");
+
+    private DictionaryRows() {
+    }
+
+    static Page<DictionaryRow> find(EntityManager entityManager, String entity, FieldSet fields, Pageable pageable) {
+        StringJoiner columns = new StringJoiner(", ", "SELECT ", "").add("e.id AS id").add("e.updateTs AS updateTs");
+        OPTIONAL_COLUMNS.forEach(field -> {
+            if (fields.has(field)) {
+                columns.add("e." + field + " AS " + field);
+            }
+        });
+
+        TypedQuery<Tuple> select = entityManager.createQuery(
+            columns + " FROM " + entity + " e" + orderBy(pageable.getSort()), Tuple.class);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        List<DictionaryRow> rows = select.getResultList().stream()
+            .map(tuple -> new DictionaryRow(
+                tuple.get("id", UUID.class),
+                fields.has("name") ? tuple.get("name", String.class) : null,
+                fields.has("description") ? tuple.get("description", String.class) : null,
+                fields.has("createTs") ? tuple.get("createTs", LocalDateTime.class) : null,
+                tuple.get("updateTs", LocalDateTime.class)))
+            .toList();
+
+        return PageableExecutionUtils.getPage(rows, pageable, () -> entityManager
+            .createQuery("SELECT COUNT(e) FROM " + entity + " e", Long.class)
+            .getSingleResult());
+    }
+
+    // Имена полей сортировки подставляются в запрос, поэтому допускаются только столбцы записи
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orders = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException(
+                    String.format("Некорректное поле сортировки: '%s'", order.getProperty()));
+            }
+            orders.add("e." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orders.toString();
+    }
+}
@@ -1,18 +1,44 @@
 package com.zakhrey.vzakhlib.repository;
 
 import com.zakhrey.vzakhlib.entity.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.UUID;
 
 @Repository
-public interface GenreRepository extends CrudRepository<Genre, UUID> {
+public interface GenreRepository extends CrudRepository<Genre, UUID>, GenreRepositoryCustom {
     
     // Проверить существование по названию
     boolean existsByName(String name);
 
+    // Сохранить и сразу сбросить в БД: нарушение уникального индекса названия проявляется при вызове
+    <S extends Genre> S saveAndFlush(S entity);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Genre> findAll(Pageable pageable);
-}
\ No newline at end of file
+
+    // Привязать к жанру targetId все книги жанра sourceId, у которых его еще нет
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_for_book"))
+    @Query(value = "INSERT INTO genre_for_book (book_id, genre_id) " +
+                   "SELECT gb.book_id, :targetId FROM genre_for_book gb " +
+                   "WHERE gb.genre_id = :sourceId AND NOT EXISTS (" +
+                   "SELECT 1 FROM genre_for_book t WHERE t.book_id = gb.book_id AND t.genre_id = :targetId)",
+           nativeQuery = true)
+    int copyBookLinks(@Param("sourceId") UUID sourceId, @Param("targetId") UUID targetId);
+
+    // Отвязать все книги от жанра
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "genre_for_book"))
+    @Query(value = "DELETE FROM genre_for_book WHERE genre_id = :genreId", nativeQuery = true)
+    int deleteBookLinks(@Param("genreId") UUID genreId);
+}
@@ -0,0 +1,22 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Реализация пользовательских запросов {@link GenreRepository}.
+ */
+public class GenreRepositoryImpl implements GenreRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<DictionaryRow> findSparseRows(FieldSet fields, Pageable pageable) {
+        return DictionaryRows.find(entityManager, Genre.class.getSimpleName(), fields, pageable);
+    }
+}
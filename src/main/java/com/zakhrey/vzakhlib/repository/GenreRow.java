@@ -0,0 +1,15 @@
+package com.zakhrey.vzakhlib.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Жанр книги для списка: строка genre_for_book со столбцами GenreDto
+ */
+public record GenreRow(UUID bookId,
+                       UUID id,
+                       String name,
+                       String description,
+                       LocalDateTime createTs,
+                       LocalDateTime updateTs) {
+}
@@ -1,18 +1,25 @@
 package com.zakhrey.vzakhlib.repository;
 
 import com.zakhrey.vzakhlib.entity.Series;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.UUID;
 
 @Repository
-public interface SeriesRepository extends CrudRepository<Series, UUID> {
+public interface SeriesRepository extends CrudRepository<Series, UUID>, SeriesRepositoryCustom {
 
     // Проверить существование по названию
     boolean existsByName(String name);
 
+    // Сохранить и сразу сбросить в БД: нарушение уникального индекса названия проявляется при вызове
+    <S extends Series> S saveAndFlush(S entity);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Series> findAll(Pageable pageable);
 }
\ No newline at end of file
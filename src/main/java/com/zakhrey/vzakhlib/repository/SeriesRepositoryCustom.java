@@ -0,0 +1,14 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.model.FieldSet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface SeriesRepositoryCustom {
+
+    /**
+     * Страница серий только с выбранными полями: невыбранные столбцы не читаются. ID и updateTs читаются всегда.
+     * Без пагинации COUNT не выполняется
+     */
+    Page<DictionaryRow> findSparseRows(FieldSet fields, Pageable pageable);
+}
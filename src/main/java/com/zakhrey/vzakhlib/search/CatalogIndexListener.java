@@ -0,0 +1,74 @@
+package com.zakhrey.vzakhlib.search;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Series;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * JPA-слушатель сущностей {@link Book}, {@link Genre} и {@link Series}, поддерживающий
+ * {@link CatalogSearchIndex} в актуальном состоянии. Изменения применяются к индексу
+ * только после фиксации транзакции.
+ */
+@Component
+public class CatalogIndexListener {
+
+    private final ObjectProvider<CatalogSearchIndex> searchIndex;
+
+    public CatalogIndexListener(ObjectProvider<CatalogSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Book book) {
+            UUID id = book.getId();
+            String name = book.getName();
+            String description = book.getDescription();
+            // getId() у прокси серии не инициализирует ее
+            UUID seriesId = book.getSeries() != null ? book.getSeries().getId() : null;
+            // Незагруженная коллекция жанров не могла измениться: оставляем известные индексу жанры
+            Set<UUID> genreIds = book.getGenres() != null && Hibernate.isInitialized(book.getGenres())
+                ? book.getGenres().stream().map(Genre::getId).collect(Collectors.toSet())
+                : null;
+            afterCommit(index -> index.putBook(id, name, description, seriesId, genreIds));
+        } else if (entity instanceof Genre genre) {
+            UUID id = genre.getId();
+            String name = genre.getName();
+            afterCommit(index -> index.putGenre(id, name));
+        } else if (entity instanceof Series series) {
+            UUID id = series.getId();
+            String name = series.getName();
+            afterCommit(index -> index.putSeries(id, name));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Book book) {
+            UUID id = book.getId();
+            afterCommit(index -> index.removeBook(id));
+        } else if (entity instanceof Genre genre) {
+            UUID id = genre.getId();
+            afterCommit(index -> index.removeGenre(id));
+        } else if (entity instanceof Series series) {
+            UUID id = series.getId();
+            afterCommit(index -> index.removeSeries(id));
+        }
+    }
+
+    private void afterCommit(Consumer<CatalogSearchIndex> action) {
+        searchIndex.ifAvailable(index -> index.afterCommit(action));
+    }
+}
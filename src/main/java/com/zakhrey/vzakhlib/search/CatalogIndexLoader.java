@@ -0,0 +1,62 @@
+package com.zakhrey.vzakhlib.search;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Полная перестройка {@link CatalogSearchIndex} при старте приложения.
+ * Таблицы читаются потоком скалярных строк, без загрузки сущностей в контекст персистентности.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "vzakhlib.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogIndexLoader {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final CatalogSearchIndex searchIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("Перестройка поискового индекса каталога");
+        searchIndex.rebuild(index -> {
+            try (Stream<Object[]> rows = stream("SELECT g.id, g.name FROM Genre g")) {
+                rows.forEach(row -> index.putGenre((UUID) row[0], (String) row[1]));
+            }
+            try (Stream<Object[]> rows = stream("SELECT s.id, s.name FROM Series s")) {
+                rows.forEach(row -> index.putSeries((UUID) row[0], (String) row[1]));
+            }
+            try (Stream<Object[]> rows = stream(
+                    "SELECT b.id, b.name, b.description, s.id FROM Book b LEFT JOIN b.series s")) {
+                rows.forEach(row -> index.putBook(
+                    (UUID) row[0], (String) row[1], (String) row[2], (UUID) row[3], null));
+            }
+            try (Stream<Object[]> rows = stream("SELECT b.id, g.id FROM Book b JOIN b.genres g")) {
+                rows.forEach(row -> index.linkGenre((UUID) row[0], (UUID) row[1]));
+            }
+        });
+    }
+
+    private Stream<Object[]> stream(String query) {
+        return entityManager.createQuery(query, Object[].class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+}
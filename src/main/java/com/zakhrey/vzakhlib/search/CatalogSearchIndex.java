@@ -0,0 +1,165 @@
+package com.zakhrey.vzakhlib.search;
+
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Встроенный поисковый индекс каталога в памяти приложения.
+ * Синхронизируется с БД через {@link CatalogIndexListener}, при старте полностью
+ * перестраивается {@link CatalogIndexLoader}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "vzakhlib.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogSearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+    // Изменения, пришедшие во время перестройки; null, когда перестройки нет. Доступ под записью lock
+    private List<Consumer<InvertedIndex>> pendingDuringRebuild;
+
+    /**
+     * Ранжированные ID книг, подходящих под запрос
+     */
+    public List<UUID> search(String query) {
+        lock.readLock().lock();
+        try {
+            return index.search(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.bookCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Добавить или обновить книгу. {@code genreIds} равный null означает, что жанры не менялись.
+     */
+    public void putBook(UUID id, String name, String description, UUID seriesId, Set<UUID> genreIds) {
+        write(index -> index.putBook(id, name, description, seriesId, genreIds));
+    }
+
+    public void removeBook(UUID id) {
+        write(index -> index.removeBook(id));
+    }
+
+    public void removeBooks(Collection<UUID> ids) {
+        write(index -> ids.forEach(index::removeBook));
+    }
+
+    public void linkGenres(Collection<BookGenreLink> links) {
+        write(index -> links.forEach(link -> index.linkGenre(link.bookId(), link.genreId())));
+    }
+
+    public void unlinkGenres(Collection<BookGenreLink> links) {
+        write(index -> links.forEach(link -> index.unlinkGenre(link.bookId(), link.genreId())));
+    }
+
+    public void unlinkSeries(UUID seriesId) {
+        write(index -> index.unlinkSeries(seriesId));
+    }
+
+    public void moveGenre(UUID sourceId, UUID targetId) {
+        write(index -> index.moveGenre(sourceId, targetId));
+    }
+
+    public void putGenre(UUID id, String name) {
+        write(index -> index.putGenre(id, name));
+    }
+
+    public void removeGenre(UUID id) {
+        write(index -> index.removeGenre(id));
+    }
+
+    public void putSeries(UUID id, String name) {
+        write(index -> index.putSeries(id, name));
+    }
+
+    public void removeSeries(UUID id) {
+        write(index -> index.removeSeries(id));
+    }
+
+    /**
+     * Применить изменение к индексу после фиксации текущей транзакции (без транзакции - сразу).
+     * Нужно для массовых операций, которые меняют БД в обход JPA-слушателей сущностей.
+     */
+    public void afterCommit(Consumer<CatalogSearchIndex> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(this);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.accept(CatalogSearchIndex.this);
+            }
+        });
+    }
+
+    /**
+     * Построить индекс заново и атомарно заменить им текущий.
+     * Поиск продолжает работать по старому индексу, пока строится новый. Изменения, примененные
+     * к старому индексу за время построения, запоминаются и повторяются на новом перед заменой:
+     * все операции индекса идемпотентны, поэтому повтор уже учтенного загрузчиком изменения безопасен.
+     */
+    synchronized void rebuild(Consumer<InvertedIndex> loader) {
+        InvertedIndex rebuilt = new InvertedIndex();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            loader.accept(rebuilt);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild.forEach(action -> action.accept(rebuilt));
+                log.info("Поисковый индекс каталога перестроен: {} книг, повторено изменений во время перестройки: {}",
+                    rebuilt.bookCount(), pendingDuringRebuild.size());
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void write(Consumer<InvertedIndex> action) {
+        lock.writeLock().lock();
+        try {
+            action.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(action);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
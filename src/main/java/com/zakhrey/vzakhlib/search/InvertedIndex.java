@@ -0,0 +1,232 @@
+package com.zakhrey.vzakhlib.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Инвертированный индекс каталога: слова названий и описаний книг, названий жанров и серий.
+ * Не потокобезопасен, доступ синхронизирует {@link CatalogSearchIndex}.
+ */
+class InvertedIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float GENRE_WEIGHT = 2f;
+    private static final float SERIES_WEIGHT = 2f;
+    // Совпадение по префиксу (набор текста) весит меньше точного совпадения слова
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final NavigableMap<String, Map<UUID, Float>> bookTerms = new TreeMap<>();
+    private final NavigableMap<String, Set<UUID>> genreTerms = new TreeMap<>();
+    private final NavigableMap<String, Set<UUID>> seriesTerms = new TreeMap<>();
+
+    private final Map<UUID, BookDoc> books = new HashMap<>();
+    private final Map<UUID, List<String>> genres = new HashMap<>();
+    private final Map<UUID, List<String>> series = new HashMap<>();
+    private final Map<UUID, Set<UUID>> booksByGenre = new HashMap<>();
+    private final Map<UUID, Set<UUID>> booksBySeries = new HashMap<>();
+
+    private record BookDoc(Map<String, Float> terms, UUID seriesId, Set<UUID> genreIds) {
+    }
+
+    int bookCount() {
+        return books.size();
+    }
+
+    /**
+     * Добавить или заменить книгу. Если {@code genreIds} равен null, сохраняются ранее известные жанры.
+     */
+    void putBook(UUID id, String name, String description, UUID seriesId, Set<UUID> genreIds) {
+        BookDoc previous = removeBook(id);
+        Set<UUID> bookGenres = new HashSet<>();
+        if (genreIds != null) {
+            bookGenres.addAll(genreIds);
+        } else if (previous != null) {
+            bookGenres.addAll(previous.genreIds());
+        }
+
+        Map<String, Float> terms = new HashMap<>();
+        Tokenizer.tokenize(name).forEach(term -> terms.merge(term, NAME_WEIGHT, Float::sum));
+        Tokenizer.tokenize(description).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        terms.forEach((term, weight) -> bookTerms.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+
+        books.put(id, new BookDoc(terms, seriesId, bookGenres));
+        if (seriesId != null) {
+            booksBySeries.computeIfAbsent(seriesId, s -> new HashSet<>()).add(id);
+        }
+        bookGenres.forEach(genreId -> booksByGenre.computeIfAbsent(genreId, g -> new HashSet<>()).add(id));
+    }
+
+    void linkGenre(UUID bookId, UUID genreId) {
+        BookDoc doc = books.get(bookId);
+        if (doc != null && doc.genreIds().add(genreId)) {
+            booksByGenre.computeIfAbsent(genreId, g -> new HashSet<>()).add(bookId);
+        }
+    }
+
+    void unlinkGenre(UUID bookId, UUID genreId) {
+        BookDoc doc = books.get(bookId);
+        if (doc != null && doc.genreIds().remove(genreId)) {
+            removeLink(booksByGenre, genreId, bookId);
+        }
+    }
+
+    BookDoc removeBook(UUID id) {
+        BookDoc doc = books.remove(id);
+        if (doc == null) {
+            return null;
+        }
+        doc.terms().keySet().forEach(term -> removePosting(bookTerms, term, id));
+        if (doc.seriesId() != null) {
+            removeLink(booksBySeries, doc.seriesId(), id);
+        }
+        doc.genreIds().forEach(genreId -> removeLink(booksByGenre, genreId, id));
+        return doc;
+    }
+
+    /**
+     * Отвязать от серии все ее книги
+     */
+    void unlinkSeries(UUID seriesId) {
+        Set<UUID> linked = booksBySeries.remove(seriesId);
+        if (linked != null) {
+            linked.forEach(bookId -> books.computeIfPresent(bookId,
+                (id, doc) -> new BookDoc(doc.terms(), null, doc.genreIds())));
+        }
+    }
+
+    /**
+     * Перенести все книги жанра {@code sourceId} в жанр {@code targetId}
+     */
+    void moveGenre(UUID sourceId, UUID targetId) {
+        Set<UUID> linked = booksByGenre.remove(sourceId);
+        if (linked != null) {
+            linked.forEach(bookId -> {
+                books.get(bookId).genreIds().remove(sourceId);
+                linkGenre(bookId, targetId);
+            });
+        }
+    }
+
+    void putGenre(UUID id, String name) {
+        putNamed(genres, genreTerms, id, name);
+    }
+
+    void removeGenre(UUID id) {
+        removeNamed(genres, genreTerms, id);
+        Set<UUID> linked = booksByGenre.remove(id);
+        if (linked != null) {
+            linked.forEach(bookId -> books.get(bookId).genreIds().remove(id));
+        }
+    }
+
+    void putSeries(UUID id, String name) {
+        putNamed(series, seriesTerms, id, name);
+    }
+
+    void removeSeries(UUID id) {
+        removeNamed(series, seriesTerms, id);
+    }
+
+    /**
+     * Найти книги, подходящие под все слова запроса, в порядке убывания релевантности.
+     * Слово запроса совпадает с любым словом индекса, которое начинается с него.
+     */
+    List<UUID> search(String query) {
+        Map<UUID, Float> scores = null;
+        for (String term : new LinkedHashSet<>(Tokenizer.tokenize(query))) {
+            Map<UUID, Float> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<UUID, Float> matched = scores;
+                matched.keySet().retainAll(termScores.keySet());
+                termScores.forEach((id, score) -> matched.computeIfPresent(id, (k, v) -> v + score));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        if (scores == null || scores.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<UUID, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<UUID, Float>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    private Map<UUID, Float> scoreTerm(String term) {
+        Map<UUID, Float> result = new HashMap<>();
+
+        prefixRange(bookTerms, term).forEach((indexed, postings) -> {
+            float factor = factor(term, indexed);
+            postings.forEach((bookId, weight) -> result.merge(bookId, weight * factor, Math::max));
+        });
+        prefixRange(genreTerms, term).forEach((indexed, genreIds) -> {
+            float score = GENRE_WEIGHT * factor(term, indexed);
+            genreIds.forEach(genreId -> booksByGenre.getOrDefault(genreId, Set.of())
+                .forEach(bookId -> result.merge(bookId, score, Math::max)));
+        });
+        prefixRange(seriesTerms, term).forEach((indexed, seriesIds) -> {
+            float score = SERIES_WEIGHT * factor(term, indexed);
+            seriesIds.forEach(seriesId -> booksBySeries.getOrDefault(seriesId, Set.of())
+                .forEach(bookId -> result.merge(bookId, score, Math::max)));
+        });
+
+        return result;
+    }
+
+    private static float factor(String term, String indexed) {
+        return indexed.length() == term.length() ? 1f : PREFIX_FACTOR;
+    }
+
+    private static <V> NavigableMap<String, V> prefixRange(NavigableMap<String, V> terms, String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static void putNamed(Map<UUID, List<String>> docs, NavigableMap<String, Set<UUID>> terms,
+                                 UUID id, String name) {
+        removeNamed(docs, terms, id);
+        List<String> tokens = Tokenizer.tokenize(name);
+        tokens.forEach(term -> terms.computeIfAbsent(term, t -> new HashSet<>()).add(id));
+        docs.put(id, tokens);
+    }
+
+    private static void removeNamed(Map<UUID, List<String>> docs, NavigableMap<String, Set<UUID>> terms, UUID id) {
+        List<String> tokens = docs.remove(id);
+        if (tokens != null) {
+            tokens.forEach(term -> removeLink(terms, term, id));
+        }
+    }
+
+    private static void removePosting(Map<String, Map<UUID, Float>> terms, String term, UUID id) {
+        Map<UUID, Float> postings = terms.get(term);
+        if (postings != null) {
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static <K> void removeLink(Map<K, Set<UUID>> links, K key, UUID id) {
+        Set<UUID> ids = links.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                links.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.zakhrey.vzakhlib.search;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@UtilityClass
+public class Tokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Разбить текст на нормализованные слова: нижний регистр, ё заменяется на е
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е')))
+            .filter(token -> !token.isEmpty())
+            .toList();
+    }
+}
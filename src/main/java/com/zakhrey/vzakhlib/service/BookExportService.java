@@ -0,0 +1,13 @@
+package com.zakhrey.vzakhlib.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BookExportService {
+
+    /**
+     * Выгрузка всего каталога в формате NDJSON: одна книга с серией и жанрами в строке.
+     * Возвращает число выгруженных книг
+     */
+    long exportBooks(OutputStream out) throws IOException;
+}
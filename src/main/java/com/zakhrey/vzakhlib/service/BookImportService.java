@@ -0,0 +1,29 @@
+package com.zakhrey.vzakhlib.service;
+
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+public interface BookImportService {
+
+    /**
+     * Запуск импорта каталога из файла в каталоге-источнике (vzakhlib.import.source-dir)
+     */
+    ImportJobStatus startImport(String path, String format, Integer chunkSize);
+
+    /**
+     * Запуск импорта каталога из загруженного файла
+     */
+    ImportJobStatus startImport(MultipartFile file, String format, Integer chunkSize);
+
+    /**
+     * Состояние задачи импорта
+     */
+    ImportJobStatus getStatus(UUID jobId);
+
+    /**
+     * Продолжение прерванного импорта с последнего зафиксированного блока
+     */
+    ImportJobStatus resumeImport(UUID jobId);
+}
@@ -1,11 +1,20 @@
 package com.zakhrey.vzakhlib.service;
 
+import com.zakhrey.vzakhlib.model.BatchResponse;
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.CursorPageResponse;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
+import com.zakhrey.vzakhlib.model.SliceResponse;
 import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.model.request.BookGenreBatchRequest;
 import com.zakhrey.vzakhlib.model.request.BookUpdateRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface BookService {
@@ -16,9 +25,19 @@ public interface BookService {
     BookDto createBook(BookCreateRequest request);
 
     /**
-     * Просмотреть список книг с пагинацией
+     * Просмотреть список книг с пагинацией только с выбранными полями (невыбранные поля равны null)
      */
-    PageResponse<BookDto> getAllBooks(Pageable pageable);
+    PageResponse<BookDto> getAllBooks(Pageable pageable, FieldSet fields);
+
+    /**
+     * Валидатор условного GET для страницы списка книг
+     */
+    ResourceVersion getAllBooksVersion(Pageable pageable);
+
+    /**
+     * Тот же валидатор по уже загруженной странице списка книг
+     */
+    ResourceVersion getAllBooksVersion(PageResponse<BookDto> page, FieldSet fields);
 
     /**
      * Привязать книгу к серии
@@ -40,6 +59,11 @@ public interface BookService {
      */
     BookDto removeGenreFromBook(UUID bookId, UUID genreId);
 
+    /**
+     * Добавить и удалить пакет связей книга-жанр
+     */
+    BulkOperationResult updateGenreLinks(BookGenreBatchRequest request);
+
     /**
      * Изменить книгу
      */
@@ -50,16 +74,86 @@ public interface BookService {
      */
     void deleteBook(UUID bookId);
 
+    /**
+     * Удалить книги по списку ID одним запросом
+     */
+    BulkOperationResult deleteBooks(List<UUID> bookIds);
+
     /**
      * Получить книгу по ID
      */
     BookDto getBookById(UUID bookId);
 
     /**
-     * Поиск книг по различным критериям
+     * Получить книгу по ID только с выбранными полями. Если книга со всеми полями уже в кэше,
+     * возвращается она
+     */
+    BookDto getBookById(UUID bookId, FieldSet fields);
+
+    /**
+     * Валидатор условного GET для книги
+     */
+    ResourceVersion getBookVersion(UUID bookId);
+
+    /**
+     * Та же версия по уже загруженной книге; отметки, не попавшие в набор полей, дочитываются по ID
+     */
+    ResourceVersion getBookVersion(BookDto book, FieldSet fields);
+
+    /**
+     * Поиск книг по различным критериям с выбранными полями
      */
     PageResponse<BookDto> searchBooks(String name,
                                       String language,
                                       UUID seriesId,
-                                      Pageable pageable);
+                                      Pageable pageable,
+                                      FieldSet fields);
+
+    /**
+     * Просмотреть список книг с курсорной пагинацией (без подсчета общего количества)
+     */
+    CursorPageResponse<BookDto> scrollBooks(String cursor, int size);
+
+    /**
+     * Поиск книг с курсорной пагинацией
+     */
+    CursorPageResponse<BookDto> scrollSearchBooks(String name,
+                                                  String language,
+                                                  UUID seriesId,
+                                                  String cursor,
+                                                  int size);
+
+    /**
+     * Просмотреть список книг без точного подсчета (режимы approx и none) с выбранными полями
+     */
+    SliceResponse<BookDto> getAllBooksSlice(Pageable pageable, CountMode countMode, FieldSet fields);
+
+    /**
+     * Поиск книг без точного подсчета (режимы approx и none) с выбранными полями
+     */
+    SliceResponse<BookDto> searchBooksSlice(String name,
+                                            String language,
+                                            UUID seriesId,
+                                            Pageable pageable,
+                                            CountMode countMode,
+                                            FieldSet fields);
+
+    /**
+     * Полнотекстовый поиск книг по названию и описанию с ранжированием по релевантности
+     */
+    PageResponse<BookDto> fullTextSearch(String query,
+                                         String language,
+                                         UUID seriesId,
+                                         Pageable pageable,
+                                         FieldSet fields);
+
+    /**
+     * Поиск книг по встроенному индексу каталога в памяти (названия, описания, жанры, серии)
+     */
+    PageResponse<BookDto> indexSearch(String query, Pageable pageable, FieldSet fields);
+
+    /**
+     * Создать пакет книг с результатом по каждому элементу
+     */
+    BatchResponse<BookDto> createBooks(List<BookCreateRequest> requests);
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.zakhrey.vzakhlib.service;
 
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.GenreDto;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
+import com.zakhrey.vzakhlib.model.SliceResponse;
 import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
 import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,9 +22,14 @@ public interface GenreService {
     GenreDto createGenre(GenreCreateRequest request);
     
     /**
-     * Просмотр списка жанров с пагинацией
+     * Просмотр списка жанров с пагинацией только с выбранными полями (ID и updateTs есть всегда)
      */
-    PageResponse<GenreDto> getAllGenres(Pageable pageable);
+    PageResponse<GenreDto> getAllGenres(Pageable pageable, FieldSet fields);
+
+    /**
+     * Валидатор условного GET по загруженной странице списка жанров
+     */
+    ResourceVersion getAllGenresVersion(PageResponse<GenreDto> page);
     
     /**
      * Изменение жанра
@@ -30,14 +40,45 @@ public interface GenreService {
      * Удаление жанра
      */
     void deleteGenre(UUID genreId);
+
+    /**
+     * Перенести все книги жанра в другой жанр
+     */
+    BulkOperationResult reassignBooks(UUID genreId, UUID targetGenreId);
     
     /**
-     * Найти все книги одного жанра с пагинацией
+     * Найти все книги одного жанра с пагинацией и выбранными полями
      */
-    PageResponse<BookDto> getBooksByGenre(UUID genreId, Pageable pageable);
+    PageResponse<BookDto> getBooksByGenre(UUID genreId, Pageable pageable, FieldSet fields);
+
+    /**
+     * Валидатор условного GET для страницы книг жанра
+     */
+    ResourceVersion getBooksByGenreVersion(UUID genreId, Pageable pageable);
+
+    /**
+     * Тот же валидатор по уже загруженной странице книг жанра
+     */
+    ResourceVersion getBooksByGenreVersion(PageResponse<BookDto> page, FieldSet fields);
     
     /**
      * Получить жанр по ID
      */
     GenreDto getGenreById(UUID genreId);
+
+    /**
+     * Валидатор условного GET для жанра
+     */
+    ResourceVersion getGenreVersion(UUID genreId);
+
+    /**
+     * Та же версия по уже загруженному жанру
+     */
+    ResourceVersion getGenreVersion(GenreDto genre);
+    
+    /**
+     * Найти книги жанра без точного подсчета только с выбранными полями
+     */
+    SliceResponse<BookDto> getBooksByGenreSlice(UUID genreId, Pageable pageable, CountMode countMode,
+                                                FieldSet fields);
 }
\ No newline at end of file
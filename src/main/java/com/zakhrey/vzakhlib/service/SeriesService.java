@@ -1,7 +1,10 @@
 package com.zakhrey.vzakhlib.service;
 
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
 import com.zakhrey.vzakhlib.model.SeriesDto;
 import com.zakhrey.vzakhlib.model.request.SeriesCreateRequest;
 import com.zakhrey.vzakhlib.model.request.SeriesUpdateRequest;
@@ -17,9 +20,14 @@ public interface SeriesService {
     SeriesDto createSeries(SeriesCreateRequest request);
     
     /**
-     * Просмотреть список серий с пагинацией
+     * Просмотреть список серий с пагинацией только с выбранными полями (ID и updateTs есть всегда)
      */
-    PageResponse<SeriesDto> getAllSeries(Pageable pageable);
+    PageResponse<SeriesDto> getAllSeries(Pageable pageable, FieldSet fields);
+
+    /**
+     * Валидатор условного GET по загруженной странице списка серий
+     */
+    ResourceVersion getAllSeriesVersion(PageResponse<SeriesDto> page);
     
     /**
      * Изменить серию
@@ -30,14 +38,39 @@ public interface SeriesService {
      * Удалить серию
      */
     void deleteSeries(UUID seriesId);
+
+    /**
+     * Отвязать от серии все ее книги
+     */
+    BulkOperationResult detachAllBooks(UUID seriesId);
     
     /**
-     * Показать серию со всеми ее книгами с пагинацией
+     * Показать серию со всеми ее книгами с пагинацией и выбранными полями
+     */
+    PageResponse<BookDto> getSeriesWithBooks(UUID seriesId, Pageable pageable, FieldSet fields);
+
+    /**
+     * Валидатор условного GET для страницы книг серии
      */
-    PageResponse<BookDto> getSeriesWithBooks(UUID seriesId, Pageable pageable);
+    ResourceVersion getSeriesWithBooksVersion(UUID seriesId, Pageable pageable);
+
+    /**
+     * Тот же валидатор по уже загруженной странице книг серии
+     */
+    ResourceVersion getSeriesWithBooksVersion(PageResponse<BookDto> page, FieldSet fields);
     
     /**
      * Получить серию по ID
      */
     SeriesDto getSeriesById(UUID seriesId);
+
+    /**
+     * Валидатор условного GET для серии
+     */
+    ResourceVersion getSeriesVersion(UUID seriesId);
+
+    /**
+     * Та же версия по уже загруженной серии
+     */
+    ResourceVersion getSeriesVersion(SeriesDto series);
 }
\ No newline at end of file
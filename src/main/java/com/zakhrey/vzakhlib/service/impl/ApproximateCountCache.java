@@ -0,0 +1,48 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш результатов COUNT для режима {@code count=approx}: точный подсчет выполняется
+ * не чаще одного раза за время жизни записи, остальные страницы получают сохраненное значение.
+ */
+@Slf4j
+@Component
+public class ApproximateCountCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlNanos;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public ApproximateCountCache(@Value("${vzakhlib.count.approx-ttl:60s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long count(String key, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.countedAt() < ttlNanos) {
+            return cached.value();
+        }
+
+        if (counts.size() >= MAX_ENTRIES) {
+            log.debug("Кэш приблизительных счетчиков переполнен, очистка");
+            counts.clear();
+        }
+
+        long value = exactCount.getAsLong();
+        counts.put(key, new CachedCount(value, now));
+        return value;
+    }
+
+    private record CachedCount(long value, long countedAt) {
+    }
+}
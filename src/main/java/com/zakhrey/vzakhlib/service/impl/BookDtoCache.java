@@ -0,0 +1,219 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Кэш готовых {@link BookDto} для {@code GET /api/v1/books/{id}}.
+ * Вытеснение и допуск новых записей по частоте обращений (W-TinyLFU в Caffeine),
+ * объем ограничен приблизительным размером записей в байтах, время жизни - {@code vzakhlib.book-cache.expire-after-write}.
+ * Записи сбрасываются после фиксации транзакции, изменившей книгу, ее серию или жанры.
+ * Книга с неполным набором полей ({@code fields=}) хранится отдельной записью с этим набором в ключе.
+ */
+@Slf4j
+@Component
+public class BookDtoCache {
+
+    // Приблизительные размеры объектов в куче: заголовок DTO с полями и ссылками, UUID, дата, строка без символов
+    private static final int DTO_BYTES = 64;
+    private static final int UUID_BYTES = 32;
+    private static final int TIMESTAMP_BYTES = 48;
+    private static final int STRING_BYTES = 40;
+
+    private final Cache<Key, Entry> books;
+
+    // Отметки времени: значение clock перед загрузкой записи и после фиксации изменения жанра или серии
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<UUID, Long> genreChanges = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> seriesChanges = new ConcurrentHashMap<>();
+
+    // Наборы полей записей с неполным набором, чтобы сбрасывать их по ключу
+    private final Set<String> sparseFields = ConcurrentHashMap.newKeySet();
+
+    public BookDtoCache(@Value("${vzakhlib.book-cache.max-size:64MB}") DataSize maxSize,
+                        @Value("${vzakhlib.book-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.books = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((Key key, Entry entry) -> weigh(entry.book()))
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, books, "books"));
+    }
+
+    /**
+     * Книга из кэша либо загруженная {@code loader}; одновременные промахи по одному ID
+     * загружают ее один раз. Исключение загрузчика пробрасывается, в кэш ничего не попадает.
+     */
+    public BookDto get(UUID bookId, Function<UUID, BookDto> loader) {
+        return get(bookId, FieldSet.ALL, loader);
+    }
+
+    /**
+     * Книга с набором полей {@code fields}; записи с разными наборами не пересекаются.
+     * Запись, загрузка которой началась до изменения ее жанра или серии, загружается заново
+     */
+    public BookDto get(UUID bookId, FieldSet fields, Function<UUID, BookDto> loader) {
+        if (!fields.isAll()) {
+            sparseFields.add(fields.key());
+        }
+        Key key = new Key(bookId, fields.key());
+        Entry entry = books.get(key, k -> load(k, loader));
+        if (isStale(entry)) {
+            books.asMap().remove(key, entry);
+            entry = books.get(key, k -> load(k, loader));
+        }
+        return entry.book();
+    }
+
+    /**
+     * Книга со всеми полями, если она в кэше
+     */
+    public BookDto getIfPresent(UUID bookId) {
+        Entry entry = books.getIfPresent(new Key(bookId, FieldSet.ALL.key()));
+        return entry == null || isStale(entry) ? null : entry.book();
+    }
+
+    /**
+     * Сбросить книгу со всеми наборами полей. Записи удаляются по ключу: удаление ключа дожидается
+     * идущей загрузки, а просмотр кэша ее пропускает
+     */
+    public void evictAfterCommit(UUID bookId) {
+        afterCommit(() -> invalidate(bookId));
+    }
+
+    public void evictAfterCommit(Collection<UUID> bookIds) {
+        Set<UUID> ids = Set.copyOf(bookIds);
+        afterCommit(() -> ids.forEach(this::invalidate));
+    }
+
+    /**
+     * Сбросить все книги, в которые встроен жанр. Изменения жанров редки, поэтому
+     * кэш просматривается целиком вместо поддержки обратного индекса; записи, которые в этот момент
+     * загружаются, просмотр пропускает, их отбрасывает отметка изменения при чтении
+     */
+    public void evictByGenreAfterCommit(UUID genreId) {
+        afterCommit(() -> {
+            genreChanges.put(genreId, clock.incrementAndGet());
+            evictIf(book -> embedsGenre(book, genreId));
+        });
+    }
+
+    public void evictBySeriesAfterCommit(UUID seriesId) {
+        afterCommit(() -> {
+            seriesChanges.put(seriesId, clock.incrementAndGet());
+            evictIf(book -> embedsSeries(book, seriesId));
+        });
+    }
+
+    private Entry load(Key key, Function<UUID, BookDto> loader) {
+        long loadedAt = clock.get();
+        return new Entry(loader.apply(key.bookId()), loadedAt);
+    }
+
+    private boolean isStale(Entry entry) {
+        BookDto book = entry.book();
+        if (book.getSeries() != null && changedAfter(seriesChanges, book.getSeries().getId(), entry.loadedAt())) {
+            return true;
+        }
+        if (book.getGenres() != null && !genreChanges.isEmpty()) {
+            for (GenreDto genre : book.getGenres()) {
+                if (changedAfter(genreChanges, genre.getId(), entry.loadedAt())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean changedAfter(Map<UUID, Long> changes, UUID id, long loadedAt) {
+        Long changedAt = changes.get(id);
+        return changedAt != null && changedAt > loadedAt;
+    }
+
+    private static boolean embedsGenre(BookDto book, UUID genreId) {
+        return book.getGenres() != null && book.getGenres().stream()
+            .map(GenreDto::getId)
+            .anyMatch(genreId::equals);
+    }
+
+    private static boolean embedsSeries(BookDto book, UUID seriesId) {
+        return book.getSeries() != null && seriesId.equals(book.getSeries().getId());
+    }
+
+    private void invalidate(UUID bookId) {
+        books.invalidate(new Key(bookId, FieldSet.ALL.key()));
+        sparseFields.forEach(fields -> books.invalidate(new Key(bookId, fields)));
+    }
+
+    private void evictIf(Predicate<BookDto> predicate) {
+        books.asMap().values().removeIf(entry -> predicate.test(entry.book()));
+    }
+
+    /**
+     * Сброс до фиксации позволил бы параллельному чтению вернуть в кэш старое состояние,
+     * поэтому он выполняется после нее (или сразу, если транзакции нет).
+     */
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private record Key(UUID bookId, String fields) {
+    }
+
+    private record Entry(BookDto book, long loadedAt) {
+    }
+
+    static int weigh(BookDto book) {
+        long bytes = DTO_BYTES + UUID_BYTES + 2L * TIMESTAMP_BYTES
+            + size(book.getName()) + size(book.getDescription())
+            + size(book.getLanguage()) + size(book.getFileLink());
+        if (book.getSeries() != null) {
+            bytes += DTO_BYTES + UUID_BYTES + 2L * TIMESTAMP_BYTES
+                + size(book.getSeries().getName()) + size(book.getSeries().getDescription());
+        }
+        if (book.getGenres() != null) {
+            for (GenreDto genre : book.getGenres()) {
+                bytes += 2L * DTO_BYTES + UUID_BYTES + 2L * TIMESTAMP_BYTES
+                    + size(genre.getName()) + size(genre.getDescription());
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long size(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+}
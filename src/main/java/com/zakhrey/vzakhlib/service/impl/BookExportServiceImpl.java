@@ -0,0 +1,95 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.mapper.EntityMapper;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.service.BookExportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class BookExportServiceImpl implements BookExportService {
+
+    private final BookRepository bookRepository;
+    private final ObjectWriter writer;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookExportServiceImpl(BookRepository bookRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${vzakhlib.export.chunk-size:500}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.writer = objectMapper.writer();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Книги читаются потоком, жанры подгружаются одним запросом на блок книг.
+     * После записи блока контекст персистентности очищается, поэтому память
+     * не зависит от размера каталога.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream out) throws IOException {
+        log.info("Выгрузка каталога книг");
+
+        long exported = 0;
+        List<Book> chunk = new ArrayList<>(chunkSize);
+        try (Stream<Book> books = bookRepository.streamAllWithSeries()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    exported += writeChunk(chunk, out);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                exported += writeChunk(chunk, out);
+            }
+        }
+
+        log.info("Выгрузка каталога завершена: {} книг", exported);
+        return exported;
+    }
+
+    private int writeChunk(List<Book> chunk, OutputStream out) throws IOException {
+        Map<UUID, Set<Genre>> genresByBook = new HashMap<>();
+        for (Object[] row : bookRepository.findGenresByBookIdIn(chunk.stream().map(Book::getId).toList())) {
+            genresByBook.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((Genre) row[1]);
+        }
+
+        for (Book book : chunk) {
+            out.write(writer.writeValueAsBytes(
+                EntityMapper.toDto(book, genresByBook.getOrDefault(book.getId(), Set.of()))));
+            out.write('\n');
+        }
+        out.flush();
+
+        // Выгруженные сущности больше не нужны: освобождаем контекст персистентности
+        entityManager.clear();
+        return chunk.size();
+    }
+}
@@ -0,0 +1,315 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
+import com.zakhrey.vzakhlib.imports.BookImportPipeline;
+import com.zakhrey.vzakhlib.imports.BookImportPipeline.ResolvedRow;
+import com.zakhrey.vzakhlib.imports.BookRecordReader;
+import com.zakhrey.vzakhlib.imports.CsvBookRecordReader;
+import com.zakhrey.vzakhlib.imports.ImportCheckpointStore;
+import com.zakhrey.vzakhlib.imports.ImportFormat;
+import com.zakhrey.vzakhlib.imports.ImportJob;
+import com.zakhrey.vzakhlib.imports.ImportRecord;
+import com.zakhrey.vzakhlib.imports.NdjsonBookRecordReader;
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.search.CatalogSearchIndex;
+import com.zakhrey.vzakhlib.service.BookImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int MAX_CHUNK_SIZE = 10_000;
+
+    private final BookRepository bookRepository;
+    private final SeriesRepository seriesRepository;
+    private final GenreRepository genreRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportCheckpointStore checkpointStore;
+    private final ObjectProvider<CatalogSearchIndex> searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Path sourceDir;
+    private final int defaultChunkSize;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BookImportServiceImpl(BookRepository bookRepository,
+                                 SeriesRepository seriesRepository,
+                                 GenreRepository genreRepository,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 ImportCheckpointStore checkpointStore,
+                                 ObjectProvider<CatalogSearchIndex> searchIndex,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${vzakhlib.import.source-dir}") Path sourceDir,
+                                 @Value("${vzakhlib.import.chunk-size:1000}") int defaultChunkSize) {
+        this.bookRepository = bookRepository;
+        this.seriesRepository = seriesRepository;
+        this.genreRepository = genreRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.checkpointStore = checkpointStore;
+        this.searchIndex = searchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sourceDir = sourceDir.toAbsolutePath().normalize();
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    @Override
+    public ImportJobStatus startImport(String path, String format, Integer chunkSize) {
+        log.info("Запуск импорта из файла: {}", path);
+
+        Path file = sourceDir.resolve(path).normalize();
+        if (!file.startsWith(sourceDir)) {
+            throw new IllegalArgumentException(
+                String.format("Файл '%s' находится вне каталога импорта", path)
+            );
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException(
+                String.format("Файл импорта '%s' не найден", path)
+            );
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), ImportFormat.fromParam(format), file, path,
+            checkChunkSize(chunkSize));
+        return start(job);
+    }
+
+    @Override
+    public ImportJobStatus startImport(MultipartFile upload, String format, Integer chunkSize) {
+        log.info("Запуск импорта из загруженного файла: {}", upload.getOriginalFilename());
+
+        ImportFormat importFormat = ImportFormat.fromParam(format);
+        int size = checkChunkSize(chunkSize);
+        UUID jobId = UUID.randomUUID();
+
+        // Загрузка сохраняется на диск, чтобы разбирать ее потоком и иметь возможность продолжить импорт
+        Path file = checkpointStore.uploadFile(jobId);
+        try {
+            upload.transferTo(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить загруженный файл", e);
+        }
+
+        String source = Optional.ofNullable(upload.getOriginalFilename()).orElse(file.getFileName().toString());
+        return start(new ImportJob(jobId, importFormat, file, source, size));
+    }
+
+    @Override
+    public ImportJobStatus getStatus(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job != null) {
+            return job.toStatus();
+        }
+        return checkpointStore.find(jobId)
+            .map(ImportJob::new)
+            .map(ImportJob::toStatus)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                String.format("Задача импорта с ID '%s' не найдена", jobId)
+            ));
+    }
+
+    @Override
+    public ImportJobStatus resumeImport(UUID jobId) {
+        log.info("Продолжение импорта: {}", jobId);
+
+        ImportJob job = checkpointStore.find(jobId)
+            .map(ImportJob::new)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                String.format("Задача импорта с ID '%s' не найдена", jobId)
+            ));
+        if (job.toCheckpoint().state() == ImportJobStatus.State.COMPLETED) {
+            throw new IllegalStateException(
+                String.format("Задача импорта '%s' уже завершена", jobId)
+            );
+        }
+        log.info("Импорт {} продолжается после записи {}", jobId, job.getCommittedRows().get());
+
+        return start(job);
+    }
+
+    private ImportJobStatus start(ImportJob job) {
+        claim(job);
+        BookRecordReader reader;
+        try {
+            reader = openReader(job);
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId(), job);
+            throw e;
+        }
+        checkpointStore.save(job.toCheckpoint());
+
+        new BookImportPipeline(job, reader, new Resolver(), this::writeChunk,
+            running -> checkpointStore.save(running.toCheckpoint()))
+            .start();
+        return job.toStatus();
+    }
+
+    /**
+     * Атомарно закрепить задачу за новым конвейером: параллельные запросы продолжения одной задачи
+     * не должны запустить два конвейера, пишущих одни и те же строки и контрольную точку
+     */
+    private void claim(ImportJob job) {
+        ImportJob claimed = jobs.compute(job.getId(), (id, current) ->
+            current != null && (current.isRunning() || current.isCompleted()) ? current : job);
+        if (claimed != job) {
+            throw new IllegalStateException(claimed.isRunning()
+                ? String.format("Задача импорта '%s' еще выполняется", job.getId())
+                : String.format("Задача импорта '%s' уже завершена", job.getId()));
+        }
+    }
+
+    private BookRecordReader openReader(ImportJob job) {
+        try {
+            return switch (job.getFormat()) {
+                case CSV -> new CsvBookRecordReader(Files.newBufferedReader(job.getFile(), StandardCharsets.UTF_8));
+                case NDJSON -> new NdjsonBookRecordReader(
+                    Files.newBufferedReader(job.getFile(), StandardCharsets.UTF_8), objectMapper);
+            };
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                String.format("Не удалось открыть файл импорта: %s", e.getMessage()), e
+            );
+        }
+    }
+
+    private int checkChunkSize(Integer chunkSize) {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Размер блока должен быть от 1 до %d", MAX_CHUNK_SIZE)
+            );
+        }
+        return size;
+    }
+
+    /**
+     * Запись блока в отдельной транзакции. Названия проверяются одним запросом на блок,
+     * вставки идут JDBC-пакетами; название, занятое параллельной записью после проверки,
+     * пропускается уникальным индексом и отклоняет только свою строку
+     */
+    private List<ResolvedRow> writeChunk(List<ResolvedRow> chunk) {
+        return transactionTemplate.execute(status -> {
+            List<ResolvedRow> valid = chunk.stream().filter(row -> row.error() == null).toList();
+            Set<String> takenNames = new HashSet<>(bookRepository.findExistingNames(valid.stream()
+                .map(row -> row.book().getName())
+                .collect(Collectors.toSet())));
+
+            List<ResolvedRow> rejected = new ArrayList<>();
+            List<ResolvedRow> accepted = new ArrayList<>(valid.size());
+            for (ResolvedRow row : valid) {
+                if (takenNames.add(row.book().getName())) {
+                    accepted.add(row);
+                } else {
+                    rejected.add(new ResolvedRow(row.row(), null,
+                        String.format("Книга с названием '%s' уже существует", row.book().getName())));
+                }
+            }
+            int[] counts = bookRepository.insertSkippingTakenNames(accepted.stream().map(ResolvedRow::book).toList());
+            for (int i = 0; i < accepted.size(); i++) {
+                Book book = accepted.get(i).book();
+                if (counts[i] == 0) {
+                    rejected.add(new ResolvedRow(accepted.get(i).row(), null,
+                        String.format("Книга с названием '%s' уже существует", book.getName())));
+                } else {
+                    indexAfterCommit(book);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    // Вставка идет мимо JPA-слушателей, поэтому книга добавляется в индекс каталога явно
+    private void indexAfterCommit(Book book) {
+        UUID id = book.getId();
+        String name = book.getName();
+        String description = book.getDescription();
+        UUID seriesId = book.getSeries() != null ? book.getSeries().getId() : null;
+        Set<UUID> genreIds = book.getGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> i.putBook(id, name, description, seriesId, genreIds)));
+    }
+
+    /**
+     * Проверка записей одной задачи. Серии и жанры ищутся один раз и кешируются на время импорта
+     */
+    private class Resolver implements BookImportPipeline.RowResolver {
+
+        private final Map<UUID, Optional<Series>> series = new ConcurrentHashMap<>();
+        private final Map<UUID, Optional<Genre>> genres = new ConcurrentHashMap<>();
+
+        @Override
+        public ResolvedRow resolve(ImportRecord record) {
+            BookCreateRequest request = record.request();
+            Set<ConstraintViolation<BookCreateRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                return new ResolvedRow(record.row(), null, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            }
+
+            Series bookSeries = null;
+            if (request.getSeriesId() != null) {
+                bookSeries = series.computeIfAbsent(request.getSeriesId(), seriesRepository::findById).orElse(null);
+                if (bookSeries == null) {
+                    return new ResolvedRow(record.row(), null,
+                        String.format("Серия с ID '%s' не найдена", request.getSeriesId()));
+                }
+            }
+
+            Set<Genre> bookGenres = new HashSet<>();
+            if (request.getGenreIds() != null) {
+                for (UUID genreId : request.getGenreIds()) {
+                    Optional<Genre> genre = genres.computeIfAbsent(genreId, genreRepository::findById);
+                    if (genre.isEmpty()) {
+                        return new ResolvedRow(record.row(), null,
+                            String.format("Жанр с ID '%s' не найден", genreId));
+                    }
+                    bookGenres.add(genre.get());
+                }
+            }
+
+            return new ResolvedRow(record.row(), Book.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .language(request.getLanguage())
+                .fileLink(request.getFileLink())
+                .series(bookSeries)
+                .genres(bookGenres)
+                .build(), null);
+        }
+    }
+}
@@ -1,52 +1,83 @@
 package com.zakhrey.vzakhlib.service.impl;
 
+import com.zakhrey.vzakhlib.model.BatchItemResult;
+import com.zakhrey.vzakhlib.model.BatchResponse;
+import com.zakhrey.vzakhlib.model.BookCursor;
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.CursorPageResponse;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
 import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.model.request.BookGenreBatchRequest;
 import com.zakhrey.vzakhlib.model.request.BookUpdateRequest;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.SliceResponse;
 import com.zakhrey.vzakhlib.entity.Book;
 import com.zakhrey.vzakhlib.entity.Genre;
 import com.zakhrey.vzakhlib.entity.Series;
-import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
 import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
 import com.zakhrey.vzakhlib.mapper.EntityMapper;
 import com.zakhrey.vzakhlib.entity.Language;
 import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.BookRow;
+import com.zakhrey.vzakhlib.repository.BookRowFilter;
 import com.zakhrey.vzakhlib.repository.GenreRepository;
 import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.search.CatalogSearchIndex;
 import com.zakhrey.vzakhlib.service.BookService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
+
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
     
     private final BookRepository bookRepository;
     private final SeriesRepository seriesRepository;
     private final GenreRepository genreRepository;
+    private final ApproximateCountCache approximateCountCache;
+    private final BookDtoCache bookDtoCache;
+    private final ObjectProvider<CatalogSearchIndex> searchIndex;
+    private final Validator validator;
 
     @Override
     @Transactional
     public BookDto createBook(BookCreateRequest request) {
         log.info("Создание книги с названием: {}", request.getName());
         
-        // Проверка на существование книги с таким же названием
-        if (bookRepository.existsByName(request.getName())) {
-            throw new ResourceAlreadyExistsException(
-                String.format("Книга с названием '%s' уже существует", request.getName())
-            );
-        }
-        
-        // Создание новой книги
+        // Создание новой книги; уникальность названия проверяет индекс БД
         Book book = Book.builder()
             .name(request.getName())
             .description(request.getDescription())
@@ -75,45 +106,175 @@ public class BookServiceImpl implements BookService {
             });
         }
         
-        Book savedBook = bookRepository.save(book);
+        Book savedBook = UniqueNames.write(() -> bookRepository.saveAndFlush(book), UniqueNames.BOOK,
+            String.format("Книга с названием '%s' уже существует", request.getName()));
         log.info("Книга создана с ID: {}", savedBook.getId());
         
         return EntityMapper.toDto(savedBook);
     }
 
+    @Override
+    @Transactional
+    public BatchResponse<BookDto> createBooks(List<BookCreateRequest> requests) {
+        log.info("Пакетное создание книг: {} шт.", requests.size());
+
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Пакет не должен превышать %d книг", MAX_BATCH_SIZE)
+            );
+        }
+
+        // Все ссылки пакета проверяются тремя запросами: по названиям, сериям и жанрам
+        Set<String> takenNames = new HashSet<>(bookRepository.findExistingNames(requests.stream()
+            .map(BookCreateRequest::getName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet())));
+        Map<UUID, Series> seriesById = toMapById(seriesRepository.findAllById(requests.stream()
+            .map(BookCreateRequest::getSeriesId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet())), Series::getId);
+        Map<UUID, Genre> genresById = toMapById(genreRepository.findAllById(requests.stream()
+            .filter(request -> request.getGenreIds() != null)
+            .flatMap(request -> request.getGenreIds().stream())
+            .collect(Collectors.toSet())), Genre::getId);
+
+        List<BatchItemResult<BookDto>> results = new ArrayList<>(requests.size());
+        List<Book> books = new ArrayList<>();
+        List<BatchItemResult<BookDto>> created = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookCreateRequest request = requests.get(i);
+            BatchItemResult<BookDto> result = BatchItemResult.<BookDto>builder().index(i).build();
+            results.add(result);
+
+            Set<ConstraintViolation<BookCreateRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                result.setStatus(BatchItemResult.Status.INVALID);
+                result.setError(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            // Название занято существующей книгой или предыдущим элементом пакета
+            if (!takenNames.add(request.getName())) {
+                result.setStatus(BatchItemResult.Status.ALREADY_EXISTS);
+                result.setError(String.format("Книга с названием '%s' уже существует", request.getName()));
+                continue;
+            }
+
+            Series series = null;
+            if (request.getSeriesId() != null) {
+                series = seriesById.get(request.getSeriesId());
+                if (series == null) {
+                    takenNames.remove(request.getName());
+                    result.setStatus(BatchItemResult.Status.NOT_FOUND);
+                    result.setError(String.format("Серия с ID '%s' не найдена", request.getSeriesId()));
+                    continue;
+                }
+            }
+
+            Set<Genre> genres = new HashSet<>();
+            UUID missingGenre = null;
+            if (request.getGenreIds() != null) {
+                for (UUID genreId : request.getGenreIds()) {
+                    Genre genre = genresById.get(genreId);
+                    if (genre == null) {
+                        missingGenre = genreId;
+                        break;
+                    }
+                    genres.add(genre);
+                }
+            }
+            if (missingGenre != null) {
+                takenNames.remove(request.getName());
+                result.setStatus(BatchItemResult.Status.NOT_FOUND);
+                result.setError(String.format("Жанр с ID '%s' не найден", missingGenre));
+                continue;
+            }
+
+            books.add(Book.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .language(request.getLanguage())
+                .fileLink(request.getFileLink())
+                .series(series)
+                .genres(genres)
+                .build());
+            created.add(result);
+        }
+
+        // Вставки книг и строк genre_for_book идут JDBC-пакетами. Название, занятое параллельной записью
+        // после проверки выше, пропускает уникальный индекс, а не отклоняет весь пакет
+        int[] counts = bookRepository.insertSkippingTakenNames(books);
+        int inserted = 0;
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            BatchItemResult<BookDto> result = created.get(i);
+            if (counts[i] == 0) {
+                result.setStatus(BatchItemResult.Status.ALREADY_EXISTS);
+                result.setError(String.format("Книга с названием '%s' уже существует", book.getName()));
+                continue;
+            }
+            result.setStatus(BatchItemResult.Status.CREATED);
+            result.setResult(EntityMapper.toDto(book));
+            reindexAfterCommit(book);
+            inserted++;
+        }
+        log.info("Пакетное создание книг завершено: создано {} из {}", inserted, requests.size());
+
+        return BatchResponse.of(results);
+    }
+
+    private static <T> Map<UUID, T> toMapById(Iterable<T> entities, Function<T, UUID> idGetter) {
+        return StreamSupport.stream(entities.spliterator(), false)
+            .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<BookDto> getAllBooks(Pageable pageable) {
+    public PageResponse<BookDto> getAllBooks(Pageable pageable, FieldSet fields) {
         log.info("Получение списка книг с пагинацией: {}", pageable);
         
-        Page<Book> bookPage = bookRepository.findAll(pageable);
-        Page<BookDto> dtoPage = bookPage.map(EntityMapper::toDto);
+        // Проекция без сущностей: COUNT, строки страницы с серией, жанры книг страницы.
+        // При неполном наборе полей невыбранные столбцы, серия и жанры не читаются
+        Page<BookRow> rows = fields.isAll()
+            ? bookRepository.findRows(pageable)
+            : bookRepository.findSparseRows(fields, BookRowFilter.ALL, pageable);
+        Page<BookDto> dtoPage = EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields));
         
         return PageResponse.of(dtoPage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getAllBooksVersion(Pageable pageable) {
+        return ResourceVersions.ofBookPage(bookRepository.findPageIds(pageable), bookRepository);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getAllBooksVersion(PageResponse<BookDto> page, FieldSet fields) {
+        return ResourceVersions.ofBookPage(page, fields, bookRepository);
+    }
+
     @Override
     @Transactional
     public BookDto attachBookToSeries(UUID bookId, UUID seriesId) {
         log.info("Привязка книги с ID {} к серии с ID {}", bookId, seriesId);
         
-        // Поиск книги
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                String.format("Книга с ID '%s' не найдена", bookId)
-            ));
-        
-        // Поиск серии
-        Series series = seriesRepository.findById(seriesId)
-            .orElseThrow(() -> new ResourceNotFoundException(
+        // Обновление series_id без загрузки книги и серии: 0 строк, если одной из них нет
+        int updated = bookRepository.attachSeries(bookId, seriesId);
+        Book book = findBookWithSeriesAndGenres(bookId);
+        if (updated == 0) {
+            throw new ResourceNotFoundException(
                 String.format("Серия с ID '%s' не найдена", seriesId)
-            ));
-        
-        book.setSeries(series);
-        Book updatedBook = bookRepository.save(book);
+            );
+        }
+        reindexAfterCommit(book);
         log.info("Книга с ID {} привязана к серии с ID {}", bookId, seriesId);
         
-        return EntityMapper.toDto(updatedBook);
+        return EntityMapper.toDto(book);
     }
 
     @Override
@@ -121,17 +282,12 @@ public class BookServiceImpl implements BookService {
     public BookDto detachBookFromSeries(UUID bookId) {
         log.info("Отвязка книги с ID {} от серии", bookId);
         
-        // Поиск книги
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                String.format("Книга с ID '%s' не найдена", bookId)
-            ));
-        
-        book.setSeries(null);
-        Book updatedBook = bookRepository.save(book);
+        bookRepository.detachSeries(bookId);
+        Book book = findBookWithSeriesAndGenres(bookId);
+        reindexAfterCommit(book);
         log.info("Книга с ID {} отвязана от серии", bookId);
         
-        return EntityMapper.toDto(updatedBook);
+        return EntityMapper.toDto(book);
     }
 
     @Override
@@ -139,29 +295,18 @@ public class BookServiceImpl implements BookService {
     public BookDto addGenreToBook(UUID bookId, UUID genreId) {
         log.info("Добавление жанра с ID {} к книге с ID {}", genreId, bookId);
         
-        // Поиск книги с жанрами
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                String.format("Книга с ID '%s' не найдена", bookId)
-            ));
-        
-        // Поиск жанра
-        Genre genre = genreRepository.findById(genreId)
-            .orElseThrow(() -> new ResourceNotFoundException(
+        // Вставка в genre_for_book: 0 строк, если книги или жанра нет либо связь уже есть
+        int inserted = bookRepository.linkGenre(bookId, genreId);
+        Book book = findBookWithSeriesAndGenres(bookId);
+        if (inserted == 0 && !genreRepository.existsById(genreId)) {
+            throw new ResourceNotFoundException(
                 String.format("Жанр с ID '%s' не найден", genreId)
-            ));
-        
-        // Инициализация коллекции, если необходимо
-        if (book.getGenres() == null) {
-            book.setGenres(new HashSet<>());
+            );
         }
-        
-        // Добавление жанра
-        book.getGenres().add(genre);
-        Book updatedBook = bookRepository.save(book);
+        reindexAfterCommit(book);
         log.info("Жанр с ID {} добавлен к книге с ID {}", genreId, bookId);
         
-        return EntityMapper.toDto(updatedBook);
+        return EntityMapper.toDto(book);
     }
 
     @Override
@@ -169,21 +314,82 @@ public class BookServiceImpl implements BookService {
     public BookDto removeGenreFromBook(UUID bookId, UUID genreId) {
         log.info("Удаление жанра с ID {} у книги с ID {}", genreId, bookId);
         
-        // Поиск книги с жанрами
-        Book book = bookRepository.findByIdWithSeriesAndGenres(bookId)
+        bookRepository.unlinkGenre(bookId, genreId);
+        Book book = findBookWithSeriesAndGenres(bookId);
+        reindexAfterCommit(book);
+        log.info("Жанр с ID {} удален у книги с ID {}", genreId, bookId);
+        
+        return EntityMapper.toDto(book);
+    }
+
+    @Override
+    @Transactional
+    public BulkOperationResult updateGenreLinks(BookGenreBatchRequest request) {
+        List<BookGenreLink> add = distinctLinks(request.getAdd());
+        List<BookGenreLink> remove = distinctLinks(request.getRemove());
+        log.info("Пакетное изменение связей книга-жанр: добавить {}, удалить {}", add.size(), remove.size());
+
+        if (add.size() + remove.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Пакет не должен превышать %d связей", MAX_BATCH_SIZE)
+            );
+        }
+
+        // Каждый список применяется одним JDBC-пакетом; удаление выполняется после добавления
+        List<BookGenreLink> added = applied(add, bookRepository.linkGenres(add));
+        List<BookGenreLink> removed = applied(remove, bookRepository.unlinkGenres(remove));
+        bookDtoCache.evictAfterCommit(Stream.concat(added.stream(), removed.stream())
+            .map(BookGenreLink::bookId)
+            .toList());
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> {
+            i.linkGenres(added);
+            i.unlinkGenres(removed);
+        }));
+        log.info("Связи книга-жанр изменены: добавлено {}, удалено {}", added.size(), removed.size());
+
+        return new BulkOperationResult(added.size() + removed.size());
+    }
+
+    private static List<BookGenreLink> distinctLinks(List<BookGenreLink> links) {
+        if (links == null) {
+            return List.of();
+        }
+        if (links.stream().anyMatch(link -> link == null || link.bookId() == null || link.genreId() == null)) {
+            throw new IllegalArgumentException("Для связи должны быть указаны bookId и genreId");
+        }
+        return List.copyOf(new LinkedHashSet<>(links));
+    }
+
+    // Связи, реально измененные пакетом (SUCCESS_NO_INFO считается успехом)
+    private static List<BookGenreLink> applied(List<BookGenreLink> links, int[] counts) {
+        List<BookGenreLink> applied = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                applied.add(links.get(i));
+            }
+        }
+        return applied;
+    }
+
+    private Book findBookWithSeriesAndGenres(UUID bookId) {
+        return bookRepository.findByIdWithSeriesAndGenres(bookId)
             .orElseThrow(() -> new ResourceNotFoundException(
                 String.format("Книга с ID '%s' не найдена", bookId)
             ));
-        
-        // Удаление жанра
-        if (book.getGenres() != null) {
-            book.getGenres().removeIf(genre -> genre.getId().equals(genreId));
-        }
-        
-        Book updatedBook = bookRepository.save(book);
-        log.info("Жанр с ID {} удален у книги с ID {}", genreId, bookId);
-        
-        return EntityMapper.toDto(updatedBook);
+    }
+
+    /**
+     * Изменения прямыми запросами (связи, пакетные вставки) не проходят через JPA-слушатели:
+     * книга переиндексируется явно по загруженному состоянию
+     */
+    private void reindexAfterCommit(Book book) {
+        UUID id = book.getId();
+        bookDtoCache.evictAfterCommit(id);
+        String name = book.getName();
+        String description = book.getDescription();
+        UUID seriesId = book.getSeries() != null ? book.getSeries().getId() : null;
+        Set<UUID> genreIds = book.getGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> i.putBook(id, name, description, seriesId, genreIds)));
     }
 
     @Override
@@ -197,13 +403,8 @@ public class BookServiceImpl implements BookService {
                 String.format("Книга с ID '%s' не найдена", bookId)
             ));
         
-        // Проверка уникальности нового названия (если оно изменилось)
-        if (request.getName() != null && !request.getName().equals(book.getName())) {
-            if (bookRepository.existsByName(request.getName())) {
-                throw new ResourceAlreadyExistsException(
-                    String.format("Книга с названием '%s' уже существует", request.getName())
-                );
-            }
+        // Новое название (уникальность проверяет индекс БД при сохранении)
+        if (request.getName() != null) {
             book.setName(request.getName());
         }
         
@@ -220,7 +421,9 @@ public class BookServiceImpl implements BookService {
             book.setFileLink(request.getFileLink());
         }
         
-        Book updatedBook = bookRepository.save(book);
+        Book updatedBook = UniqueNames.write(() -> bookRepository.saveAndFlush(book), UniqueNames.BOOK,
+            String.format("Книга с названием '%s' уже существует", book.getName()));
+        bookDtoCache.evictAfterCommit(bookId);
         log.info("Книга с ID {} обновлена", bookId);
         
         return EntityMapper.toDto(updatedBook);
@@ -239,40 +442,256 @@ public class BookServiceImpl implements BookService {
         }
         
         bookRepository.deleteById(bookId);
+        bookDtoCache.evictAfterCommit(bookId);
         log.info("Книга с ID {} удалена", bookId);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
+    public BulkOperationResult deleteBooks(List<UUID> bookIds) {
+        log.info("Массовое удаление книг: {} шт.", bookIds.size());
+
+        if (bookIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Пакет не должен превышать %d книг", MAX_BATCH_SIZE)
+            );
+        }
+        if (bookIds.isEmpty()) {
+            return new BulkOperationResult(0);
+        }
+
+        // Связи с жанрами и сами книги удаляются двумя запросами без загрузки сущностей
+        Set<UUID> ids = new HashSet<>(bookIds);
+        int deleted = bookRepository.deleteAllByIdIn(ids);
+        bookDtoCache.evictAfterCommit(ids);
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> i.removeBooks(ids)));
+        log.info("Удалено книг: {}", deleted);
+
+        return new BulkOperationResult(deleted);
+    }
+
+    @Override
     public BookDto getBookById(UUID bookId) {
         log.info("Получение книги с ID: {}", bookId);
         
-        Book book = bookRepository.findByIdWithSeriesAndGenres(bookId)
-            .orElseThrow(() -> new ResourceNotFoundException(
+        // Без транзакции сервиса: попадание в кэш не занимает соединение с БД,
+        // при промахе запрос выполняется в транзакции репозитория
+        return bookDtoCache.get(bookId, id -> EntityMapper.toDto(findBookWithSeriesAndGenres(id)));
+    }
+
+    @Override
+    public BookDto getBookById(UUID bookId, FieldSet fields) {
+        if (fields.isAll()) {
+            return getBookById(bookId);
+        }
+        BookDto cached = bookDtoCache.getIfPresent(bookId);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("Получение книги с ID: {}, поля: {}", bookId, fields.key());
+
+        return bookDtoCache.get(bookId, fields, id -> {
+            Page<BookRow> rows = bookRepository.findSparseRows(fields, BookRowFilter.byId(id), Pageable.unpaged());
+            if (!rows.hasContent()) {
+                throw new ResourceNotFoundException(
+                    String.format("Книга с ID '%s' не найдена", id)
+                );
+            }
+            return EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields)).getContent().get(0);
+        });
+    }
+
+    @Override
+    public ResourceVersion getBookVersion(UUID bookId) {
+        // Закешированная книга проверяется без запросов, иначе - одним запросом отметок времени
+        BookDto cached = bookDtoCache.getIfPresent(bookId);
+        if (cached != null) {
+            return ResourceVersions.ofBook(cached);
+        }
+        List<Object[]> rows = bookRepository.findVersionRowsByIdIn(List.of(bookId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(
                 String.format("Книга с ID '%s' не найдена", bookId)
-            ));
-        
-        return EntityMapper.toDto(book);
+            );
+        }
+        return ResourceVersions.ofBookRows(rows);
+    }
+
+    @Override
+    public ResourceVersion getBookVersion(BookDto book, FieldSet fields) {
+        if (fields.has("updateTs") && fields.has("series") && fields.has("genres")) {
+            return ResourceVersions.ofBook(book);
+        }
+        return getBookVersion(book.getId());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<BookDto> searchBooks(String name, String language, UUID seriesId, Pageable pageable) {
+    public PageResponse<BookDto> searchBooks(String name, String language, UUID seriesId, Pageable pageable,
+                                             FieldSet fields) {
         log.info("Поиск книг с параметрами: name={}, language={}, seriesId={}", 
                  name, language, seriesId);
         
-        Language lang = null;
-        if (language != null && !language.isEmpty()) {
-            try {
-                lang = Language.valueOf(language.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                log.warn("Некорректный язык: {}", language);
-            }
-        }
+        Language lang = parseLanguage(language);
         
-        Page<Book> bookPage = bookRepository.searchBooks(name, lang, seriesId, pageable);
-        Page<BookDto> dtoPage = bookPage.map(EntityMapper::toDto);
+        Page<BookRow> rows = fields.isAll()
+            ? bookRepository.searchRows(name, lang, seriesId, pageable)
+            : bookRepository.findSparseRows(fields, BookRowFilter.search(name, lang, seriesId), pageable);
+        Page<BookDto> dtoPage = EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields));
         
         return PageResponse.of(dtoPage);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookDto> scrollBooks(String cursor, int size) {
+        log.info("Получение списка книг по курсору: cursor={}, size={}", cursor, size);
+
+        size = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+
+        // Запрашиваем на одну запись больше, чтобы узнать о наличии следующей страницы
+        Limit limit = Limit.of(size + 1);
+        List<BookCursor> keys;
+        if (cursor == null || cursor.isEmpty()) {
+            keys = bookRepository.findFirstKeys(limit);
+        } else {
+            BookCursor after = BookCursor.decode(cursor);
+            keys = bookRepository.findKeysAfter(after.name(), after.id(), limit);
+        }
+
+        return toCursorPage(keys, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookDto> scrollSearchBooks(String name, String language, UUID seriesId,
+                                                         String cursor, int size) {
+        log.info("Поиск книг по курсору: name={}, language={}, seriesId={}, cursor={}, size={}",
+                 name, language, seriesId, cursor, size);
+
+        size = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+        BookCursor after = cursor == null || cursor.isEmpty() ? null : BookCursor.decode(cursor);
+        List<BookCursor> keys = bookRepository.searchKeysAfter(name, parseLanguage(language), seriesId,
+            after != null ? after.name() : null,
+            after != null ? after.id() : null,
+            Limit.of(size + 1));
+
+        return toCursorPage(keys, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<BookDto> getAllBooksSlice(Pageable pageable, CountMode countMode, FieldSet fields) {
+        log.info("Получение списка книг без точного подсчета: {}, count={}", pageable, countMode);
+
+        Slice<BookDto> dtoSlice = toDtoSlice(bookRepository.findSliceIds(pageable), fields);
+        Long total = countMode == CountMode.APPROX
+            ? approximateCountCache.count("books", bookRepository::count)
+            : null;
+
+        return SliceResponse.of(dtoSlice, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<BookDto> searchBooksSlice(String name, String language, UUID seriesId,
+                                                   Pageable pageable, CountMode countMode, FieldSet fields) {
+        log.info("Поиск книг без точного подсчета: name={}, language={}, seriesId={}, count={}",
+                 name, language, seriesId, countMode);
+
+        Language lang = parseLanguage(language);
+        Slice<BookDto> dtoSlice = toDtoSlice(bookRepository.searchSliceIds(name, lang, seriesId, pageable), fields);
+        Long total = countMode == CountMode.APPROX
+            ? approximateCountCache.count(
+                String.format("books:search:%s:%s:%s", name == null ? "" : name.toLowerCase(), lang, seriesId),
+                () -> bookRepository.countSearchBooks(name, lang, seriesId))
+            : null;
+
+        return SliceResponse.of(dtoSlice, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<BookDto> fullTextSearch(String query, String language, UUID seriesId, Pageable pageable,
+                                                FieldSet fields) {
+        log.info("Полнотекстовый поиск книг: query={}, language={}, seriesId={}", query, language, seriesId);
+
+        // Порядок задается релевантностью, сортировка из запроса не применяется
+        Pageable unsorted = pageable.isPaged()
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+            : pageable;
+        Page<UUID> idPage = bookRepository.fullTextSearchIds(query, parseLanguage(language), seriesId, unsorted);
+
+        return PageResponse.of(toDtoPage(idPage, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<BookDto> indexSearch(String query, Pageable pageable, FieldSet fields) {
+        log.info("Поиск книг по встроенному индексу: query={}", query);
+
+        CatalogSearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) {
+            throw new IllegalStateException("Встроенный поисковый индекс отключен");
+        }
+
+        // Ранжирование выполняется в памяти, из БД одним запросом загружается только текущая страница
+        List<UUID> ranked = index.search(query);
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ranked.size()) : ranked.size();
+        Page<UUID> idPage = new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+
+        return PageResponse.of(toDtoPage(idPage, fields));
+    }
+
+    /**
+     * Вторая фаза списков, где ID выбирает отдельный запрос или индекс: все поля - из сущностей
+     * с серией и жанрами, выбранные поля - из строк проекции без невыбранных столбцов
+     */
+    private Page<BookDto> toDtoPage(Page<UUID> idPage, FieldSet fields) {
+        if (fields.isAll()) {
+            return bookRepository.fetchWithSeriesAndGenres(idPage).map(EntityMapper::toDto);
+        }
+        Page<BookRow> rows = bookRepository.fetchSparseRows(idPage, fields);
+        return EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields));
+    }
+
+    private Slice<BookDto> toDtoSlice(Slice<UUID> idSlice, FieldSet fields) {
+        if (fields.isAll()) {
+            return bookRepository.fetchWithSeriesAndGenres(idSlice).map(EntityMapper::toDto);
+        }
+        Slice<BookRow> rows = bookRepository.fetchSparseRows(idSlice, fields);
+        return EntityMapper.toDtoSlice(rows, bookRepository.findGenreRows(rows, fields));
+    }
+
+    /**
+     * Следующий курсор строится по последнему ключу первой фазы: книги, удаленные между фазами, выпадают
+     * из страницы, но не сдвигают курсор назад
+     */
+    private CursorPageResponse<BookDto> toCursorPage(List<BookCursor> keys, int size) {
+        boolean hasNext = keys.size() > size;
+        List<BookCursor> page = hasNext ? keys.subList(0, size) : keys;
+        List<Book> books = bookRepository.fetchWithSeriesAndGenres(page.stream().map(BookCursor::id).toList());
+
+        String next = hasNext ? page.get(page.size() - 1).encode() : null;
+
+        return CursorPageResponse.<BookDto>builder()
+            .content(books.stream().map(EntityMapper::toDto).toList())
+            .pageSize(size)
+            .hasNext(hasNext)
+            .next(next)
+            .build();
+    }
+
+    private Language parseLanguage(String language) {
+        if (language == null || language.isEmpty()) {
+            return null;
+        }
+        try {
+            return Language.valueOf(language.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Некорректный язык: {}", language);
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -1,22 +1,30 @@
 package com.zakhrey.vzakhlib.service.impl;
 
-import com.zakhrey.vzakhlib.entity.Book;
 import com.zakhrey.vzakhlib.entity.Genre;
-import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
 import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
 import com.zakhrey.vzakhlib.mapper.EntityMapper;
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.GenreDto;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
+import com.zakhrey.vzakhlib.model.SliceResponse;
 import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
 import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
 import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.BookRow;
+import com.zakhrey.vzakhlib.repository.BookRowFilter;
 import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.search.CatalogSearchIndex;
 import com.zakhrey.vzakhlib.service.GenreService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,26 +37,23 @@ public class GenreServiceImpl implements GenreService {
     
     private final GenreRepository genreRepository;
     private final BookRepository bookRepository;
+    private final ApproximateCountCache approximateCountCache;
+    private final BookDtoCache bookDtoCache;
+    private final ObjectProvider<CatalogSearchIndex> searchIndex;
     
     @Override
     @Transactional
     public GenreDto createGenre(GenreCreateRequest request) {
         log.info("Создание жанра с названием: {}", request.getName());
         
-        // Проверка на существование жанра с таким же названием
-        if (genreRepository.existsByName(request.getName())) {
-            throw new ResourceAlreadyExistsException(
-                String.format("Жанр с названием '%s' уже существует", request.getName())
-            );
-        }
-        
-        // Создание нового жанра
+        // Создание нового жанра; уникальность названия проверяет индекс БД
         Genre genre = Genre.builder()
             .name(request.getName())
             .description(request.getDescription())
             .build();
         
-        Genre savedGenre = genreRepository.save(genre);
+        Genre savedGenre = UniqueNames.write(() -> genreRepository.saveAndFlush(genre), UniqueNames.GENRE,
+            String.format("Жанр с названием '%s' уже существует", request.getName()));
         log.info("Жанр создан с ID: {}", savedGenre.getId());
         
         return EntityMapper.toDto(savedGenre);
@@ -56,15 +61,22 @@ public class GenreServiceImpl implements GenreService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<GenreDto> getAllGenres(Pageable pageable) {
+    public PageResponse<GenreDto> getAllGenres(Pageable pageable, FieldSet fields) {
         log.info("Получение списка жанров с пагинацией: {}", pageable);
         
-        Page<Genre> genrePage = genreRepository.findAll(pageable);
-        Page<GenreDto> dtoPage = genrePage.map(EntityMapper::toDto);
+        // Все поля - из кеша запросов, выбранные поля - проекцией без невыбранных столбцов
+        Page<GenreDto> dtoPage = fields.isAll()
+            ? genreRepository.findAll(pageable).map(EntityMapper::toDto)
+            : genreRepository.findSparseRows(fields, pageable).map(EntityMapper::toGenreDto);
         
         return PageResponse.of(dtoPage);
     }
 
+    @Override
+    public ResourceVersion getAllGenresVersion(PageResponse<GenreDto> page) {
+        return ResourceVersions.ofPage(page, GenreDto::getId, GenreDto::getUpdateTs);
+    }
+
     @Override
     @Transactional
     public GenreDto updateGenre(UUID genreId, GenreUpdateRequest request) {
@@ -76,13 +88,8 @@ public class GenreServiceImpl implements GenreService {
                 String.format("Жанр с ID '%s' не найден", genreId)
             ));
         
-        // Проверка уникальности нового названия (если оно изменилось)
-        if (request.getName() != null && !request.getName().equals(genre.getName())) {
-            if (genreRepository.existsByName(request.getName())) {
-                throw new ResourceAlreadyExistsException(
-                    String.format("Жанр с названием '%s' уже существует", request.getName())
-                );
-            }
+        // Новое название (уникальность проверяет индекс БД при сохранении)
+        if (request.getName() != null) {
             genre.setName(request.getName());
         }
         
@@ -91,7 +98,9 @@ public class GenreServiceImpl implements GenreService {
             genre.setDescription(request.getDescription());
         }
         
-        Genre updatedGenre = genreRepository.save(genre);
+        Genre updatedGenre = UniqueNames.write(() -> genreRepository.saveAndFlush(genre), UniqueNames.GENRE,
+            String.format("Жанр с названием '%s' уже существует", genre.getName()));
+        bookDtoCache.evictByGenreAfterCommit(genreId);
         log.info("Жанр с ID {} обновлен", genreId);
         
         return EntityMapper.toDto(updatedGenre);
@@ -109,13 +118,42 @@ public class GenreServiceImpl implements GenreService {
             );
         }
         
+        // Связи с книгами удаляются одним запросом, а не через коллекции книг
+        genreRepository.deleteBookLinks(genreId);
         genreRepository.deleteById(genreId);
+        bookDtoCache.evictByGenreAfterCommit(genreId);
         log.info("Жанр с ID {} удален", genreId);
     }
 
+    @Override
+    @Transactional
+    public BulkOperationResult reassignBooks(UUID genreId, UUID targetGenreId) {
+        log.info("Перенос книг из жанра {} в жанр {}", genreId, targetGenreId);
+        
+        if (genreId.equals(targetGenreId)) {
+            throw new IllegalArgumentException("Исходный и целевой жанры совпадают");
+        }
+        for (UUID id : new UUID[]{genreId, targetGenreId}) {
+            if (!genreRepository.existsById(id)) {
+                throw new ResourceNotFoundException(
+                    String.format("Жанр с ID '%s' не найден", id)
+                );
+            }
+        }
+        
+        // Копирование связей в целевой жанр и удаление исходных: два запроса на любой объем
+        genreRepository.copyBookLinks(genreId, targetGenreId);
+        int moved = genreRepository.deleteBookLinks(genreId);
+        bookDtoCache.evictByGenreAfterCommit(genreId);
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> i.moveGenre(genreId, targetGenreId)));
+        log.info("Из жанра {} перенесено книг: {}", genreId, moved);
+        
+        return new BulkOperationResult(moved);
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<BookDto> getBooksByGenre(UUID genreId, Pageable pageable) {
+    public PageResponse<BookDto> getBooksByGenre(UUID genreId, Pageable pageable, FieldSet fields) {
         log.info("Получение книг жанра с ID: {}", genreId);
         
         // Проверка существования жанра
@@ -126,12 +164,32 @@ public class GenreServiceImpl implements GenreService {
         }
         
         // Получение книг с пагинацией
-        Page<Book> bookPage = bookRepository.findByGenreId(genreId, pageable);
-        Page<BookDto> dtoPage = bookPage.map(EntityMapper::toDto);
+        Page<BookRow> rows = fields.isAll()
+            ? bookRepository.findRowsByGenreId(genreId, pageable)
+            : bookRepository.findSparseRows(fields, BookRowFilter.byGenre(genreId), pageable);
+        Page<BookDto> dtoPage = EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields));
         
         return PageResponse.of(dtoPage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getBooksByGenreVersion(UUID genreId, Pageable pageable) {
+        if (!genreRepository.existsById(genreId)) {
+            throw new ResourceNotFoundException(
+                String.format("Жанр с ID '%s' не найден", genreId)
+            );
+        }
+
+        return ResourceVersions.ofBookPage(bookRepository.findPageIdsByGenreId(genreId, pageable), bookRepository);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getBooksByGenreVersion(PageResponse<BookDto> page, FieldSet fields) {
+        return ResourceVersions.ofBookPage(page, fields, bookRepository);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public GenreDto getGenreById(UUID genreId) {
@@ -144,4 +202,49 @@ public class GenreServiceImpl implements GenreService {
         
         return EntityMapper.toDto(genre);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getGenreVersion(UUID genreId) {
+        // Сущность читается из кеша второго уровня
+        Genre genre = genreRepository.findById(genreId)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                String.format("Жанр с ID '%s' не найден", genreId)
+            ));
+
+        return ResourceVersions.of(genre.getId(), genre.getUpdateTs());
+    }
+
+    @Override
+    public ResourceVersion getGenreVersion(GenreDto genre) {
+        return ResourceVersions.of(genre.getId(), genre.getUpdateTs());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<BookDto> getBooksByGenreSlice(UUID genreId, Pageable pageable, CountMode countMode,
+                                                       FieldSet fields) {
+        log.info("Получение книг жанра с ID {} без точного подсчета, count={}", genreId, countMode);
+
+        // Проверка существования жанра
+        if (!genreRepository.existsById(genreId)) {
+            throw new ResourceNotFoundException(
+                String.format("Жанр с ID '%s' не найден", genreId)
+            );
+        }
+
+        Slice<UUID> idSlice = bookRepository.findSliceIdsByGenreId(genreId, pageable);
+        Slice<BookDto> dtoSlice;
+        if (fields.isAll()) {
+            dtoSlice = bookRepository.fetchWithSeriesAndGenres(idSlice).map(EntityMapper::toDto);
+        } else {
+            Slice<BookRow> rows = bookRepository.fetchSparseRows(idSlice, fields);
+            dtoSlice = EntityMapper.toDtoSlice(rows, bookRepository.findGenreRows(rows, fields));
+        }
+        Long total = countMode == CountMode.APPROX
+            ? approximateCountCache.count("books:genre:" + genreId, () -> bookRepository.countByGenreId(genreId))
+            : null;
+
+        return SliceResponse.of(dtoSlice, total);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Построение валидаторов условного GET по ID и отметкам времени updateTs.
+ * Состояние книги включает отметки ее серии и жанров, поскольку они встроены в BookDto,
+ * а также набор ID жанров: изменение связей не меняет ни одну отметку времени.
+ */
+final class ResourceVersions {
+
+    private ResourceVersions() {
+    }
+
+    static ResourceVersion of(UUID id, LocalDateTime updateTs) {
+        String etag = etag(id + "@" + stamp(updateTs));
+        return updateTs == null
+            ? ResourceVersion.of(etag)
+            : new ResourceVersion(etag, updateTs.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Версия загруженной страницы жанров или серий: общее число и отметка каждой записи страницы
+     */
+    static <T> ResourceVersion ofPage(PageResponse<T> page, Function<T, UUID> id,
+                                      Function<T, LocalDateTime> updateTs) {
+        StringJoiner state = new StringJoiner(";", page.getTotalElements() + ":", "");
+        page.getContent().forEach(item -> state.add(id.apply(item) + "@" + stamp(updateTs.apply(item))));
+        return ResourceVersion.of(etag(state.toString()));
+    }
+
+    static ResourceVersion ofBook(BookDto book) {
+        return ResourceVersion.of(etag(bookState(book)));
+    }
+
+    static ResourceVersion ofBookRows(List<Object[]> rows) {
+        return ResourceVersion.of(etag(bookStates(rows).values().iterator().next()));
+    }
+
+    /**
+     * Версия страницы книг: общее число, порядок ID на странице и состояние каждой книги
+     * по строкам {@link BookRepository#findVersionRowsByIdIn}
+     */
+    static ResourceVersion ofBookPage(Page<UUID> idPage, BookRepository bookRepository) {
+        Map<UUID, String> states = idPage.hasContent()
+            ? bookStates(bookRepository.findVersionRowsByIdIn(idPage.getContent()))
+            : Map.of();
+        return bookPage(idPage.getTotalElements(), idPage.getContent(), states);
+    }
+
+    /**
+     * Та же версия по уже загруженной странице. Если в ответе нет отметок книги, серии или жанров
+     * (параметр fields), они дочитываются одним запросом по ID книг страницы
+     */
+    static ResourceVersion ofBookPage(PageResponse<BookDto> page, FieldSet fields, BookRepository bookRepository) {
+        List<UUID> ids = page.getContent().stream().map(BookDto::getId).toList();
+        Map<UUID, String> states;
+        if (fields.has("updateTs") && fields.has("series") && fields.has("genres")) {
+            states = new HashMap<>();
+            page.getContent().forEach(book -> states.put(book.getId(), bookState(book)));
+        } else {
+            states = ids.isEmpty() ? Map.of() : bookStates(bookRepository.findVersionRowsByIdIn(ids));
+        }
+        return bookPage(page.getTotalElements(), ids, states);
+    }
+
+    private static ResourceVersion bookPage(long total, List<UUID> ids, Map<UUID, String> states) {
+        StringJoiner page = new StringJoiner(";", total + ":", "");
+        ids.forEach(id -> page.add(states.getOrDefault(id, id.toString())));
+        return ResourceVersion.of(etag(page.toString()));
+    }
+
+    // Строки (ID книги, updateTs, ID серии, updateTs серии, ID жанра, updateTs жанра) по книгам
+    private static Map<UUID, String> bookStates(List<Object[]> rows) {
+        Map<UUID, Object[]> books = new HashMap<>();
+        Map<UUID, Map<UUID, LocalDateTime>> genres = new HashMap<>();
+        for (Object[] row : rows) {
+            UUID bookId = (UUID) row[0];
+            books.putIfAbsent(bookId, row);
+            Map<UUID, LocalDateTime> bookGenres = genres.computeIfAbsent(bookId, id -> new TreeMap<>());
+            if (row[4] != null) {
+                bookGenres.put((UUID) row[4], (LocalDateTime) row[5]);
+            }
+        }
+
+        Map<UUID, String> states = new HashMap<>();
+        books.forEach((bookId, row) -> states.put(bookId, bookState(bookId, (LocalDateTime) row[1],
+            (UUID) row[2], (LocalDateTime) row[3], genres.get(bookId))));
+        return states;
+    }
+
+    private static String bookState(BookDto book) {
+        Map<UUID, LocalDateTime> genres = new TreeMap<>();
+        if (book.getGenres() != null) {
+            book.getGenres().forEach(genre -> genres.put(genre.getId(), genre.getUpdateTs()));
+        }
+        return bookState(book.getId(), book.getUpdateTs(),
+            book.getSeries() != null ? book.getSeries().getId() : null,
+            book.getSeries() != null ? book.getSeries().getUpdateTs() : null,
+            genres);
+    }
+
+    private static String bookState(UUID id, LocalDateTime updateTs, UUID seriesId, LocalDateTime seriesUpdateTs,
+                                     Map<UUID, LocalDateTime> genres) {
+        StringBuilder state = new StringBuilder()
+            .append(id).append('@').append(stamp(updateTs))
+            .append('|').append(seriesId).append('@').append(stamp(seriesUpdateTs));
+        genres.forEach((genreId, genreUpdateTs) ->
+            state.append('|').append(genreId).append('@').append(stamp(genreUpdateTs)));
+        return state.toString();
+    }
+
+    // Точность отметок в БД - микросекунды, сущность до перечитывания хранит наносекунды
+    private static String stamp(LocalDateTime updateTs) {
+        return updateTs == null ? "" : updateTs.truncatedTo(ChronoUnit.MICROS).toString();
+    }
+
+    private static String etag(String state) {
+        return DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,20 +1,25 @@
 package com.zakhrey.vzakhlib.service.impl;
 
-import com.zakhrey.vzakhlib.entity.Book;
 import com.zakhrey.vzakhlib.entity.Series;
-import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
 import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
 import com.zakhrey.vzakhlib.mapper.EntityMapper;
 import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.FieldSet;
 import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.ResourceVersion;
 import com.zakhrey.vzakhlib.model.SeriesDto;
 import com.zakhrey.vzakhlib.model.request.SeriesCreateRequest;
 import com.zakhrey.vzakhlib.model.request.SeriesUpdateRequest;
 import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.BookRow;
+import com.zakhrey.vzakhlib.repository.BookRowFilter;
 import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.search.CatalogSearchIndex;
 import com.zakhrey.vzakhlib.service.SeriesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,26 +34,22 @@ public class SeriesServiceImpl implements SeriesService {
     
     private final SeriesRepository seriesRepository;
     private final BookRepository bookRepository;
+    private final BookDtoCache bookDtoCache;
+    private final ObjectProvider<CatalogSearchIndex> searchIndex;
 
     @Override
     @Transactional
     public SeriesDto createSeries(SeriesCreateRequest request) {
         log.info("Создание серии с названием: {}", request.getName());
         
-        // Проверка на существование серии с таким же названием
-        if (seriesRepository.existsByName(request.getName())) {
-            throw new ResourceAlreadyExistsException(
-                String.format("Серия с названием '%s' уже существует", request.getName())
-            );
-        }
-        
-        // Создание новой серии
+        // Создание новой серии; уникальность названия проверяет индекс БД
         Series series = Series.builder()
             .name(request.getName())
             .description(request.getDescription())
             .build();
         
-        Series savedSeries = seriesRepository.save(series);
+        Series savedSeries = UniqueNames.write(() -> seriesRepository.saveAndFlush(series), UniqueNames.SERIES,
+            String.format("Серия с названием '%s' уже существует", request.getName()));
         log.info("Серия создана с ID: {}", savedSeries.getId());
         
         return EntityMapper.toDto(savedSeries);
@@ -56,15 +57,22 @@ public class SeriesServiceImpl implements SeriesService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<SeriesDto> getAllSeries(Pageable pageable) {
+    public PageResponse<SeriesDto> getAllSeries(Pageable pageable, FieldSet fields) {
         log.info("Получение списка серий с пагинацией: {}", pageable);
         
-        Page<Series> seriesPage = seriesRepository.findAll(pageable);
-        Page<SeriesDto> dtoPage = seriesPage.map(EntityMapper::toDto);
+        // Все поля - из кеша запросов, выбранные поля - проекцией без невыбранных столбцов
+        Page<SeriesDto> dtoPage = fields.isAll()
+            ? seriesRepository.findAll(pageable).map(EntityMapper::toDto)
+            : seriesRepository.findSparseRows(fields, pageable).map(EntityMapper::toSeriesDto);
         
         return PageResponse.of(dtoPage);
     }
 
+    @Override
+    public ResourceVersion getAllSeriesVersion(PageResponse<SeriesDto> page) {
+        return ResourceVersions.ofPage(page, SeriesDto::getId, SeriesDto::getUpdateTs);
+    }
+
     @Override
     @Transactional
     public SeriesDto updateSeries(UUID seriesId, SeriesUpdateRequest request) {
@@ -76,13 +84,8 @@ public class SeriesServiceImpl implements SeriesService {
                 String.format("Серия с ID '%s' не найден", seriesId)
             ));
         
-        // Проверка уникальности нового названия (если оно изменилось)
-        if (request.getName() != null && !request.getName().equals(series.getName())) {
-            if (seriesRepository.existsByName(request.getName())) {
-                throw new ResourceAlreadyExistsException(
-                    String.format("Серия с названием '%s' уже существует", request.getName())
-                );
-            }
+        // Новое название (уникальность проверяет индекс БД при сохранении)
+        if (request.getName() != null) {
             series.setName(request.getName());
         }
         
@@ -91,7 +94,9 @@ public class SeriesServiceImpl implements SeriesService {
             series.setDescription(request.getDescription());
         }
         
-        Series updatedSeries = seriesRepository.save(series);
+        Series updatedSeries = UniqueNames.write(() -> seriesRepository.saveAndFlush(series), UniqueNames.SERIES,
+            String.format("Серия с названием '%s' уже существует", series.getName()));
+        bookDtoCache.evictBySeriesAfterCommit(seriesId);
         log.info("Серия с ID {} обновлена", seriesId);
         
         return EntityMapper.toDto(updatedSeries);
@@ -108,19 +113,40 @@ public class SeriesServiceImpl implements SeriesService {
                 String.format("Серия с ID '%s' не найдена", seriesId)
             ));
         
-        // Удаление всех книг из серии
-        bookRepository.findBySeriesId(seriesId).forEach(book -> {
-            book.setSeries(null);
-            bookRepository.save(book);
-        });
+        // Отвязка всех книг серии одним запросом
+        unlinkBooks(seriesId);
         
         seriesRepository.delete(series);
         log.info("Серия с ID {} удалена", seriesId);
     }
 
+    @Override
+    @Transactional
+    public BulkOperationResult detachAllBooks(UUID seriesId) {
+        log.info("Отвязка всех книг от серии с ID: {}", seriesId);
+        
+        if (!seriesRepository.existsById(seriesId)) {
+            throw new ResourceNotFoundException(
+                String.format("Серия с ID '%s' не найдена", seriesId)
+            );
+        }
+        
+        int detached = unlinkBooks(seriesId);
+        log.info("От серии с ID {} отвязано книг: {}", seriesId, detached);
+        
+        return new BulkOperationResult(detached);
+    }
+
+    private int unlinkBooks(UUID seriesId) {
+        int detached = bookRepository.unlinkSeries(seriesId);
+        bookDtoCache.evictBySeriesAfterCommit(seriesId);
+        searchIndex.ifAvailable(index -> index.afterCommit(i -> i.unlinkSeries(seriesId)));
+        return detached;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<BookDto> getSeriesWithBooks(UUID seriesId, Pageable pageable) {
+    public PageResponse<BookDto> getSeriesWithBooks(UUID seriesId, Pageable pageable, FieldSet fields) {
         log.info("Получение серии с ID {} и её книг", seriesId);
         
         // Проверка существования серии
@@ -131,12 +157,32 @@ public class SeriesServiceImpl implements SeriesService {
         }
         
         // Получение книг серии с пагинацией
-        Page<Book> bookPage = bookRepository.findBySeriesId(seriesId, pageable);
-        Page<BookDto> dtoPage = bookPage.map(EntityMapper::toDto);
+        Page<BookRow> rows = fields.isAll()
+            ? bookRepository.findRowsBySeriesId(seriesId, pageable)
+            : bookRepository.findSparseRows(fields, BookRowFilter.bySeries(seriesId), pageable);
+        Page<BookDto> dtoPage = EntityMapper.toDtoPage(rows, bookRepository.findGenreRows(rows, fields));
         
         return PageResponse.of(dtoPage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getSeriesWithBooksVersion(UUID seriesId, Pageable pageable) {
+        if (!seriesRepository.existsById(seriesId)) {
+            throw new ResourceNotFoundException(
+                String.format("Серия с ID '%s' не найдена", seriesId)
+            );
+        }
+
+        return ResourceVersions.ofBookPage(bookRepository.findPageIdsBySeriesId(seriesId, pageable), bookRepository);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getSeriesWithBooksVersion(PageResponse<BookDto> page, FieldSet fields) {
+        return ResourceVersions.ofBookPage(page, fields, bookRepository);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public SeriesDto getSeriesById(UUID seriesId) {
@@ -149,4 +195,21 @@ public class SeriesServiceImpl implements SeriesService {
         
         return EntityMapper.toDto(series);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getSeriesVersion(UUID seriesId) {
+        // Сущность читается из кеша второго уровня
+        Series series = seriesRepository.findById(seriesId)
+            .orElseThrow(() -> new ResourceNotFoundException(
+                String.format("Серия с ID '%s' не найдена", seriesId)
+            ));
+
+        return ResourceVersions.of(series.getId(), series.getUpdateTs());
+    }
+
+    @Override
+    public ResourceVersion getSeriesVersion(SeriesDto series) {
+        return ResourceVersions.of(series.getId(), series.getUpdateTs());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Уникальность названий книг, жанров и серий обеспечивают уникальные индексы БД
+ * (на PostgreSQL - db/postgresql/unique_names.sql). Запись выполняется без предварительной
+ * проверки, а нарушение индекса при сбросе изменений преобразуется в {@link ResourceAlreadyExistsException}.
+ */
+final class UniqueNames {
+
+    static final String BOOK = "uk_book_name";
+    static final String GENRE = "uk_genre_name";
+    static final String SERIES = "uk_series_name";
+
+    private UniqueNames() {
+    }
+
+    /**
+     * Выполнить запись со сбросом в БД (saveAndFlush), чтобы нарушение индекса {@code constraint}
+     * проявилось здесь, а не при фиксации транзакции
+     */
+    static <T> T write(Supplier<T> saveAndFlush, String constraint, String message) {
+        try {
+            return saveAndFlush.get();
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, constraint)) {
+                throw new ResourceAlreadyExistsException(message);
+            }
+            throw e;
+        }
+    }
+
+    // Имя ограничения в сообщении СУБД может быть дополнено схемой и регистром (H2: PUBLIC.UK_BOOK_NAME_...)
+    private static boolean violates(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,5 @@
+-- Ключ курсорной пагинации книг (PostgreSQL).
+-- Запросы /api/v1/books/scroll и /api/v1/books/search/scroll сортируют по (name, id)
+-- и ищут позицию сравнением (b.name, b.id) > (:name, :id).
+
+CREATE INDEX IF NOT EXISTS idx_book_name_id ON book (name, id);
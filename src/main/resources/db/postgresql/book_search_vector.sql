@@ -0,0 +1,14 @@
+-- Полнотекстовый поиск по книгам (PostgreSQL).
+-- Вектор строится по названию (вес A) и описанию (вес B) с конфигурацией,
+-- соответствующей языку книги: russian для RUS, english для ENG.
+
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector(CASE language WHEN 'RUS' THEN 'russian'::regconfig ELSE 'english'::regconfig END,
+                              coalesce(name, '')), 'A') ||
+        setweight(to_tsvector(CASE language WHEN 'RUS' THEN 'russian'::regconfig ELSE 'english'::regconfig END,
+                              coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_book_search_vector ON book USING GIN (search_vector);
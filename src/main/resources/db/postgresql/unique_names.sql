@@ -0,0 +1,31 @@
+-- Уникальность названий (PostgreSQL). Сервисы не проверяют название перед записью:
+-- дубликат отклоняет индекс, нарушение преобразуется в ResourceAlreadyExistsException по имени индекса.
+-- Жанры и серии уникальны без учета регистра, книги - с учетом. Схема, созданная Hibernate
+-- (ddl-auto, в том числе H2 в тестах), различает регистр и у жанров с сериями.
+-- Ограничения uk_*_name, созданные ddl-auto, удаляются ниже и заменяются индексами.
+-- Перед созданием индексов существующие дубликаты нужно устранить.
+
+-- Прежние ограничения UNIQUE на name (в том числе автоматически названное ограничение genre.name
+-- из ранней схемы) удаляются: иначе дубликат нарушит их раньше uk_*_name и не будет распознан
+DO $$
+DECLARE
+    legacy record;
+BEGIN
+    FOR legacy IN
+        SELECT c.conrelid::regclass AS table_name, c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.contype = 'u'
+          AND c.conrelid IN ('book'::regclass, 'genre'::regclass, 'series'::regclass)
+          AND cardinality(c.conkey) = 1
+          AND a.attname = 'name'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', legacy.table_name, legacy.conname);
+    END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_book_name ON book (name);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_genre_name ON genre (lower(name));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_series_name ON series (lower(name));
@@ -0,0 +1,89 @@
+package com.zakhrey.vzakhlib.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseBackpressureFilterTest {
+
+    @Test
+    void rejectsRequestWhenAllPermitsAreBusy() throws Exception {
+        DatabaseBackpressureFilter filter = new DatabaseBackpressureFilter(1, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, (req, res) -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response.getStatus();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), rejected, (req, res) -> fail());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS));
+        assertEquals(1, filter.availablePermits());
+
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), accepted, (req, res) -> { });
+        assertEquals(200, accepted.getStatus());
+    }
+
+    @Test
+    void asyncRequestHoldsPermitUntilCompletion() throws Exception {
+        DatabaseBackpressureFilter filter = new DatabaseBackpressureFilter(1, Duration.ofMillis(50));
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/v1/books/export");
+        export.setAsyncSupported(true);
+
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(0, filter.availablePermits());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), rejected, (req, res) -> fail());
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void permitsFollowLimit() throws Exception {
+        AtomicInteger limit = new AtomicInteger(2);
+        DatabaseBackpressureFilter filter = new DatabaseBackpressureFilter(limit::get, Duration.ofMillis(50));
+
+        limit.set(5);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), new MockHttpServletResponse(),
+            (req, res) -> assertEquals(4, filter.availablePermits()));
+        assertEquals(5, filter.availablePermits());
+
+        limit.set(1);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), new MockHttpServletResponse(),
+            (req, res) -> assertEquals(0, filter.availablePermits()));
+        assertEquals(1, filter.availablePermits());
+    }
+}
@@ -0,0 +1,187 @@
+package com.zakhrey.vzakhlib.controller.rest;
+
+import com.zakhrey.vzakhlib.config.HttpFormatConfig;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.SeriesDto;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.service.GenreService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatsIntegrationTest {
+
+    private static final MediaType CBOR = HttpFormatConfig.CBOR;
+    private static final MediaType SMILE = HttpFormatConfig.SMILE;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GenreService genreService;
+
+    private GenreDto genre;
+
+    @BeforeEach
+    void setUp() {
+        GenreCreateRequest request = new GenreCreateRequest();
+        request.setName("Фантастика " + UUID.randomUUID());
+        genre = genreService.createGenre(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        genreService.deleteGenre(genre.getId());
+    }
+
+    @Test
+    void genre_isEncodedByAcceptHeader() throws Exception {
+        String url = "/api/v1/genres/" + genre.getId();
+        for (MediaType type : List.of(CBOR, SMILE)) {
+            ObjectMapper mapper = type.equals(CBOR) ? HttpFormatConfig.cborMapper() : HttpFormatConfig.smileMapper();
+            byte[] body = mockMvc.perform(get(url).accept(type))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(type))
+                .andReturn().getResponse().getContentAsByteArray();
+
+            JsonNode decoded = mapper.readTree(body);
+            assertEquals(genre.getName(), decoded.get("name").asString());
+        }
+    }
+
+    @Test
+    void etag_differsByFormatAndVariesOnAccept() throws Exception {
+        String url = "/api/v1/genres/" + genre.getId();
+        String jsonEtag = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cborEtag = mockMvc.perform(get(url).accept(CBOR))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(jsonEtag, cborEtag);
+        mockMvc.perform(get(url).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(CBOR));
+        mockMvc.perform(get(url).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        assertEquals(jsonEtag, mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, "*/*"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(cborEtag, mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, "application/cbor, application/json"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void etag_followsFormatChosenByContentNegotiation() throws Exception {
+        String url = "/api/v1/genres/" + genre.getId();
+        for (String accept : List.of("application/x-jackson-smile;q=0.9, application/cbor;q=0.8",
+                                     "application/*;q=0.5, application/cbor",
+                                     "application/*",
+                                     "text/html, application/cbor;q=0.1")) {
+            MockHttpServletResponse response = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+            MediaType written = MediaType.parseMediaType(response.getContentType());
+            String expected = mockMvc.perform(get(url).accept(written))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            assertEquals(expected, response.getHeader(HttpHeaders.ETAG), accept);
+        }
+    }
+
+    @Test
+    void wildcardAccept_keepsJson() throws Exception {
+        mockMvc.perform(get("/api/v1/genres/" + genre.getId()).header(HttpHeaders.ACCEPT, "*/*"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void bookPage_binaryFormatsAreSmallerThanJson() throws IOException {
+        PageResponse<BookDto> page = samplePage(100);
+
+        byte[] json = JsonMapper.builder().build().writeValueAsBytes(page);
+        byte[] cbor = HttpFormatConfig.cborMapper().writeValueAsBytes(page);
+        byte[] smile = HttpFormatConfig.smileMapper().writeValueAsBytes(page);
+        log.info("Страница из 100 книг, байт (без сжатия / gzip): JSON {} / {}, CBOR {} / {}, Smile {} / {}",
+            json.length, gzip(json).length, cbor.length, gzip(cbor).length, smile.length, gzip(smile).length);
+
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < cbor.length);
+        assertTrue(gzip(json).length < json.length / 3);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    // Книги одной серии с двумя общими жанрами, как на типичной странице списка
+    private static PageResponse<BookDto> samplePage(int size) {
+        LocalDateTime now = LocalDateTime.now();
+        SeriesDto series = SeriesDto.builder().id(UUID.randomUUID()).name("Цикл").createTs(now).updateTs(now).build();
+        Set<GenreDto> genres = Set.of(
+            GenreDto.builder().id(UUID.randomUUID()).name("Фантастика").createTs(now).updateTs(now).build(),
+            GenreDto.builder().id(UUID.randomUUID()).name("Детектив").createTs(now).updateTs(now).build());
+
+        List<BookDto> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(BookDto.builder()
+                .id(UUID.randomUUID())
+                .name("Книга " + i)
+                .description("Описание книги " + i)
+                .language("RUS")
+                .series(series)
+                .genres(genres)
+                .createTs(now)
+                .updateTs(now)
+                .build());
+        }
+        return PageResponse.<BookDto>builder()
+            .content(books)
+            .currentPage(0)
+            .pageSize(size)
+            .totalElements(size)
+            .totalPages(1)
+            .first(true)
+            .last(true)
+            .build();
+    }
+}
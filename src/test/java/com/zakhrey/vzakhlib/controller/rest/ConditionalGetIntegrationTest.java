@@ -0,0 +1,238 @@
+package com.zakhrey.vzakhlib.controller.rest;
+
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.SeriesDto;
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
+import com.zakhrey.vzakhlib.model.request.SeriesCreateRequest;
+import com.zakhrey.vzakhlib.service.BookService;
+import com.zakhrey.vzakhlib.service.GenreService;
+import com.zakhrey.vzakhlib.service.SeriesService;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private SeriesService seriesService;
+
+    private SeriesDto series;
+    private GenreDto genre;
+    private GenreDto otherGenre;
+    private BookDto book;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        series = seriesService.createSeries(seriesRequest("Цикл " + suffix));
+        genre = genreService.createGenre(genreRequest("Фантастика " + suffix));
+        otherGenre = genreService.createGenre(genreRequest("Детектив " + suffix));
+
+        BookCreateRequest request = new BookCreateRequest();
+        request.setName("Книга " + suffix);
+        request.setLanguage(Language.RUS);
+        request.setSeriesId(series.getId());
+        request.setGenreIds(Set.of(genre.getId()));
+        book = bookService.createBook(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookService.deleteBook(book.getId());
+        genreService.deleteGenre(genre.getId());
+        genreService.deleteGenre(otherGenre.getId());
+        seriesService.deleteSeries(series.getId());
+    }
+
+    private static SeriesCreateRequest seriesRequest(String name) {
+        SeriesCreateRequest request = new SeriesCreateRequest();
+        request.setName(name);
+        return request;
+    }
+
+    private static GenreCreateRequest genreRequest(String name) {
+        GenreCreateRequest request = new GenreCreateRequest();
+        request.setName(name);
+        return request;
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private int statusIfNoneMatch(String url, String etag) throws Exception {
+        return mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    void book_unchangedReturns304AndGenreLinkChangesEtag() throws Exception {
+        String url = "/api/v1/books/" + book.getId();
+        String etag = etag(url);
+
+        // Вторая проверка идет по закешированной книге и должна давать тот же ETag
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(QueryBudget.atMost(1))
+            .andExpect(content().string(""));
+
+        bookService.addGenreToBook(book.getId(), otherGenre.getId());
+
+        assertEquals(200, statusIfNoneMatch(url, etag));
+        assertNotEquals(etag, etag(url));
+    }
+
+    @Test
+    void singleResources_unconditionalGetDerivesEtagFromLoadedDto() throws Exception {
+        // Без If-None-Match версия строится по загруженному ответу, без отдельного запроса отметок времени
+        String bookUrl = "/api/v1/books/" + book.getId();
+        String etag = mockMvc.perform(get(bookUrl))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.atMost(1))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(304, statusIfNoneMatch(bookUrl, etag));
+
+        for (String url : new String[]{"/api/v1/genres/" + otherGenre.getId(), "/api/v1/series/" + series.getId()}) {
+            String dictionaryEtag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertEquals(304, statusIfNoneMatch(url, dictionaryEtag), url);
+        }
+    }
+
+    @Test
+    void genre_supportsLastModifiedAndEtag() throws Exception {
+        String url = "/api/v1/genres/" + genre.getId();
+        String lastModified = mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        String etag = etag(url);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+            .andExpect(status().isNotModified());
+        assertEquals(304, statusIfNoneMatch(url, etag));
+
+        GenreUpdateRequest request = new GenreUpdateRequest();
+        request.setDescription("Новое описание");
+        genreService.updateGenre(genre.getId(), request);
+
+        assertEquals(200, statusIfNoneMatch(url, etag));
+    }
+
+    @Test
+    void seriesList_changesWhenSeriesIsAdded() throws Exception {
+        String etag = etag("/api/v1/series");
+        assertEquals(304, statusIfNoneMatch("/api/v1/series", etag));
+
+        SeriesDto added = seriesService.createSeries(seriesRequest("Еще цикл " + UUID.randomUUID()));
+        try {
+            assertEquals(200, statusIfNoneMatch("/api/v1/series", etag));
+        } finally {
+            seriesService.deleteSeries(added.getId());
+        }
+    }
+
+    @Test
+    void bookLists_unconditionalGetDerivesEtagFromLoadedPage() throws Exception {
+        // Страница книг, COUNT и жанры страницы - без отдельных запросов ID страницы, COUNT и версий книг
+        for (String url : new String[]{"/api/v1/books?sort=name", "/api/v1/genres/" + genre.getId() + "/books"}) {
+            String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(3))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertEquals(304, statusIfNoneMatch(url, etag), url);
+        }
+
+        // Без отметок в ответе версии книг дочитываются одним запросом по ID страницы
+        String sparseEtag = mockMvc.perform(get("/api/v1/books?sort=name").param("fields", "id,name"))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.atMost(3))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(304, mockMvc.perform(get("/api/v1/books?sort=name").param("fields", "id,name")
+                .header(HttpHeaders.IF_NONE_MATCH, sparseEtag))
+            .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void genreList_etagFollowsLoadedPage() throws Exception {
+        String url = "/api/v1/genres?size=1000";
+        String etag = mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.atMost(2))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(304, statusIfNoneMatch(url, etag));
+
+        GenreUpdateRequest request = new GenreUpdateRequest();
+        request.setDescription("Новое описание");
+        genreService.updateGenre(otherGenre.getId(), request);
+
+        assertEquals(200, statusIfNoneMatch(url, etag));
+    }
+
+    @Test
+    void seriesBooksPage_changesWhenEmbeddedGenreChanges() throws Exception {
+        String url = "/api/v1/series/" + series.getId() + "/books";
+        String etag = etag(url);
+        assertEquals(304, statusIfNoneMatch(url, etag));
+
+        GenreUpdateRequest request = new GenreUpdateRequest();
+        request.setName("Научная фантастика " + UUID.randomUUID());
+        genreService.updateGenre(genre.getId(), request);
+
+        assertEquals(200, statusIfNoneMatch(url, etag));
+    }
+
+    @Test
+    void book_fieldsLimitResponseAndChangeEtag() throws Exception {
+        String url = "/api/v1/books/" + book.getId();
+        String fullEtag = etag(url);
+
+        String sparseEtag = mockMvc.perform(get(url).param("fields", "id,name"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(book.getName()))
+            .andExpect(jsonPath("$.description").doesNotExist())
+            .andExpect(jsonPath("$.genres").doesNotExist())
+            .andExpect(QueryBudget.atMost(2))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(fullEtag, sparseEtag);
+        assertEquals(304, mockMvc.perform(get(url).param("fields", "name,id").header(HttpHeaders.IF_NONE_MATCH, sparseEtag))
+            .andReturn().getResponse().getStatus());
+    }
+}
@@ -0,0 +1,111 @@
+package com.zakhrey.vzakhlib.generator;
+
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.GeneratedBook;
+import com.zakhrey.vzakhlib.generator.CatalogGenerator.Settings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogGeneratorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("DELETE FROM genre_for_book");
+        jdbc.update("DELETE FROM book");
+        jdbc.update("DELETE FROM series");
+        jdbc.update("DELETE FROM genre");
+    }
+
+    @Test
+    void books_areDeterministicAndAddressableByIndex() {
+        CatalogGenerator generator = new CatalogGenerator(new Settings(5000, 30, 200, 7, 1, 100));
+
+        assertEquals(generator.book(1234), new CatalogGenerator(new Settings(5000, 30, 200, 7, 4, 500)).book(1234));
+        assertNotEquals(generator.book(1234).id(), new CatalogGenerator(new Settings(5000, 30, 200, 8, 1, 100))
+            .book(1234).id());
+        assertEquals(generator.bookId(1234), generator.book(1234).id());
+
+        Set<String> names = new HashSet<>();
+        Map<UUID, Integer> genreUse = new HashMap<>();
+        Map<UUID, Integer> seriesSizes = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            GeneratedBook book = generator.book(i);
+            assertTrue(names.add(book.name()), book.name());
+            assertFalse(book.genreIds().isEmpty());
+            assertTrue(book.description().length() <= CatalogGenerator.MAX_DESCRIPTION_LENGTH);
+            book.genreIds().forEach(genre -> genreUse.merge(genre, 1, Integer::sum));
+            if (book.seriesId() != null) {
+                seriesSizes.merge(book.seriesId(), 1, Integer::sum);
+            }
+        }
+        int firstGenre = genreUse.getOrDefault(generator.genreId(0), 0);
+        int lastGenre = genreUse.getOrDefault(generator.genreId(29), 0);
+        assertTrue(firstGenre > lastGenre * 5, firstGenre + " / " + lastGenre);
+
+        List<Integer> sizes = seriesSizes.values().stream().sorted().toList();
+        assertTrue(sizes.get(sizes.size() - 1) > sizes.get(sizes.size() / 2) * 5, sizes.toString());
+    }
+
+    @Test
+    void generate_writesCatalogThroughJdbcBatches() throws Exception {
+        Settings settings = new Settings(1200, 20, 50, 42, 3, 100);
+        CatalogGenerator generator = new CatalogGenerator(settings);
+
+        long links;
+        try (CatalogWriter writer = new JdbcCatalogWriter(dataSource)) {
+            links = generator.generate(writer);
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertEquals(1200, jdbc.queryForObject("SELECT COUNT(*) FROM book", Long.class));
+        assertEquals(20, jdbc.queryForObject("SELECT COUNT(*) FROM genre", Long.class));
+        assertEquals(50, jdbc.queryForObject("SELECT COUNT(*) FROM series", Long.class));
+        assertEquals(links, jdbc.queryForObject("SELECT COUNT(*) FROM genre_for_book", Long.class));
+        assertEquals(Math.min(generator.getBooksInSeries(), 1200),
+            jdbc.queryForObject("SELECT COUNT(*) FROM book WHERE series_id IS NOT NULL", Long.class));
+        assertEquals(generator.book(777).name(),
+            jdbc.queryForObject("SELECT name FROM book WHERE id = ?", String.class, generator.bookId(777)));
+    }
+
+    @Test
+    void generate_writesCopyFilesPerWorker(@TempDir Path directory) throws Exception {
+        CatalogGenerator generator = new CatalogGenerator(new Settings(250, 10, 20, 42, 2, 50));
+
+        long links;
+        try (CatalogWriter writer = new CsvCatalogWriter(directory, 2)) {
+            links = generator.generate(writer);
+        }
+
+        long books = Files.readAllLines(directory.resolve("book-0.csv")).size()
+            + Files.readAllLines(directory.resolve("book-1.csv")).size() - 2;
+        long genreLinks = Files.readAllLines(directory.resolve("genre_for_book-0.csv")).size()
+            + Files.readAllLines(directory.resolve("genre_for_book-1.csv")).size() - 2;
+        assertEquals(250, books);
+        assertEquals(links, genreLinks);
+        assertEquals(11, Files.readAllLines(directory.resolve("genre.csv")).size());
+        assertEquals(6, Files.readAllLines(directory.resolve("copy.sql")).size());
+    }
+}
@@ -0,0 +1,244 @@
+package com.zakhrey.vzakhlib.load;
+
+import com.zakhrey.vzakhlib.generator.CatalogGenerator;
+import com.zakhrey.vzakhlib.generator.CatalogWriter;
+import com.zakhrey.vzakhlib.generator.JdbcCatalogWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест REST API каталога на встроенной H2: наполняет каталог генератором
+ * {@link CatalogGenerator} (зерно фиксировано, поэтому данные одинаковы от прогона к прогону), прогоняет смесь чтения и
+ * записи по контроллерам книг, жанров и серий с постоянной интенсивностью и сравнивает пропускную
+ * способность, долю ошибок и p99 задержки с порогами из {@code load/thresholds.properties}.
+ * Отчет пишется в {@code target/load-test/report-platform.txt} (пул потоков Tomcat) или
+ * {@code report-virtual.txt} ({@link VirtualThreadsLoadTest}); когда есть оба прогона, их сравнение
+ * пишется в {@code comparison.txt}.
+ * Запуск: {@code mvn -Pload-test test}; размер каталога и нагрузка задаются системными свойствами
+ * {@code load.books}, {@code load.genres}, {@code load.series}, {@code load.rate} (запросов в секунду),
+ * {@code load.duration} и {@code load.warmup} (секунд).
+ */
+@Slf4j
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:loadtest-${spring.threads.virtual.enabled:false};DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.format_sql=false",
+    "logging.level.com.zakhrey.vzakhlib=WARN"})
+class CatalogLoadTest {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long SEED = 42;
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final Path REPORTS = Path.of("target", "load-test");
+    private static final List<String> MODES = List.of("platform", "virtual");
+
+    private final int books = Integer.getInteger("load.books", 2000);
+    private final int genres = Integer.getInteger("load.genres", 40);
+    private final int series = Integer.getInteger("load.series", 100);
+    private final int rate = Integer.getInteger("load.rate", 25);
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private CatalogGenerator catalog;
+    private final AtomicLong created = new AtomicLong();
+
+    @BeforeAll
+    void seedCatalog() throws InterruptedException {
+        catalog = new CatalogGenerator(new CatalogGenerator.Settings(books, genres, series, SEED, 2, BATCH_SIZE));
+        try (CatalogWriter writer = new JdbcCatalogWriter(dataSource)) {
+            catalog.generate(writer);
+        }
+    }
+
+    @Test
+    void mixedWorkload_staysWithinThresholds() throws Exception {
+        Properties thresholds = thresholds();
+        List<LoadDriver.Operation> operations = operations();
+        Map<String, LoadDriver.Result> results;
+        try (LoadDriver driver = new LoadDriver(MAX_IN_FLIGHT)) {
+            driver.run(operations, rate, warmup);
+            results = driver.run(operations, rate, duration);
+        }
+
+        String mode = virtualThreads ? "virtual" : "platform";
+        String report = report(results);
+        log.warn("Результаты нагрузки ({}, {} запросов/с, {} с):\n{}", mode, rate, duration.toSeconds(), report);
+        Files.createDirectories(REPORTS);
+        Files.writeString(REPORTS.resolve("report-" + mode + ".txt"), report);
+        saveResults(mode, results);
+        compareModes();
+
+        List<String> violations = new ArrayList<>();
+        double throughput = results.values().stream().mapToDouble(LoadDriver.Result::throughput).sum();
+        double minThroughput = rate * Double.parseDouble(thresholds.getProperty("throughput.min-ratio"));
+        if (throughput < minThroughput) {
+            violations.add(String.format("пропускная способность %.1f/с ниже %.1f/с", throughput, minThroughput));
+        }
+        double maxErrorRate = Double.parseDouble(thresholds.getProperty("error-rate.max"));
+        for (LoadDriver.Result result : results.values()) {
+            if (result.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s: доля ошибок %.4f выше %.4f",
+                    result.name(), result.errorRate(), maxErrorRate));
+            }
+            String p99 = thresholds.getProperty(result.name() + ".p99-ms");
+            if (p99 != null && result.percentileMs(99) > Double.parseDouble(p99)) {
+                violations.add(String.format("%s: p99 %.1f мс выше %s мс", result.name(), result.percentileMs(99), p99));
+            }
+        }
+        assertTrue(violations.isEmpty(), "Регрессия под нагрузкой: " + String.join("; ", violations));
+    }
+
+    private List<LoadDriver.Operation> operations() {
+        return List.of(
+            new LoadDriver.Operation("books.page", 30, () ->
+                get("/api/v1/books?size=20&sort=name&page=" + random(books / 20))),
+            new LoadDriver.Operation("books.byId", 30, () ->
+                get("/api/v1/books/" + catalog.bookId(random(books)))),
+            new LoadDriver.Operation("books.search", 10, () ->
+                get("/api/v1/books/search?language=rus&sort=name&name="
+                    + URLEncoder.encode(title(catalog.book(random(books))), StandardCharsets.UTF_8))),
+            new LoadDriver.Operation("genres.books", 10, () ->
+                get("/api/v1/genres/" + catalog.genreId(random(genres)) + "/books?size=20&sort=name")),
+            new LoadDriver.Operation("series.books", 5, () ->
+                get("/api/v1/series/" + catalog.seriesId(random(series)) + "/books")),
+            new LoadDriver.Operation("genres.list", 5, () ->
+                get("/api/v1/genres")),
+            new LoadDriver.Operation("books.create", 5, () ->
+                send("POST", "/api/v1/books", bookJson())),
+            new LoadDriver.Operation("genres.update", 5, () ->
+                send("PUT", "/api/v1/genres/" + catalog.genreId(random(genres)),
+                    "{\"description\":\"Обновлено " + System.nanoTime() + "\"}")));
+    }
+
+    /**
+     * Название книги без номера, который генератор добавляет для уникальности
+     */
+    private static String title(CatalogGenerator.GeneratedBook book) {
+        return book.name().substring(0, book.name().lastIndexOf(" ("));
+    }
+
+    private String bookJson() {
+        return String.format("{\"name\":\"Новая книга %d\",\"language\":\"RUS\",\"seriesId\":\"%s\",\"genreIds\":[\"%s\"]}",
+            created.incrementAndGet(), catalog.seriesId(random(series)), catalog.genreId(random(genres)));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(Math.max(bound, 1));
+    }
+
+    private static String report(Map<String, LoadDriver.Result> results) {
+        StringBuilder report = new StringBuilder(String.format("%-14s %8s %8s %8s %9s %9s %9s %9s%n",
+            "operation", "requests", "errors", "rps", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (LoadDriver.Result result : results.values()) {
+            report.append(String.format("%-14s %8d %8d %8.1f %9.1f %9.1f %9.1f %9.1f%n",
+                result.name(), result.requests(), result.errors(), result.throughput(),
+                result.percentileMs(50), result.percentileMs(95), result.percentileMs(99),
+                result.latency().getMaxValue() / 1_000_000.0));
+        }
+        return report.toString();
+    }
+
+    private static void saveResults(String mode, Map<String, LoadDriver.Result> results) throws IOException {
+        Properties saved = new Properties();
+        for (LoadDriver.Result result : results.values()) {
+            saved.setProperty(result.name() + ".rps", String.format(Locale.ROOT, "%.1f", result.throughput()));
+            saved.setProperty(result.name() + ".p99-ms", String.format(Locale.ROOT, "%.1f", result.percentileMs(99)));
+            saved.setProperty(result.name() + ".errors", String.valueOf(result.errors()));
+        }
+        try (OutputStream out = Files.newOutputStream(REPORTS.resolve("results-" + mode + ".properties"))) {
+            saved.store(out, null);
+        }
+    }
+
+    /**
+     * Сравнение пула потоков Tomcat с виртуальными потоками по последним прогонам обоих режимов
+     */
+    private static void compareModes() throws IOException {
+        List<Properties> runs = new ArrayList<>();
+        for (String mode : MODES) {
+            Path file = REPORTS.resolve("results-" + mode + ".properties");
+            if (!Files.exists(file)) {
+                return;
+            }
+            Properties run = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                run.load(in);
+            }
+            runs.add(run);
+        }
+        StringBuilder comparison = new StringBuilder(String.format("%-14s %12s %12s %14s %14s %10s %10s%n",
+            "operation", "rps platform", "rps virtual", "p99 ms platf.", "p99 ms virt.", "err platf.", "err virt."));
+        new TreeSet<>(runs.get(0).stringPropertyNames()).stream()
+            .filter(key -> key.endsWith(".rps"))
+            .map(key -> key.substring(0, key.length() - ".rps".length()))
+            .forEach(operation -> comparison.append(String.format("%-14s %12s %12s %14s %14s %10s %10s%n", operation,
+                runs.get(0).getProperty(operation + ".rps"), runs.get(1).getProperty(operation + ".rps", "-"),
+                runs.get(0).getProperty(operation + ".p99-ms"), runs.get(1).getProperty(operation + ".p99-ms", "-"),
+                runs.get(0).getProperty(operation + ".errors"), runs.get(1).getProperty(operation + ".errors", "-"))));
+        Files.writeString(REPORTS.resolve("comparison.txt"), comparison.toString());
+        log.warn("Пул потоков Tomcat и виртуальные потоки:\n{}", comparison);
+    }
+
+    private static Properties thresholds() throws IOException {
+        Properties thresholds = new Properties();
+        try (InputStream in = CatalogLoadTest.class.getResourceAsStream("/load/thresholds.properties")) {
+            thresholds.load(in);
+        }
+        return thresholds;
+    }
+}
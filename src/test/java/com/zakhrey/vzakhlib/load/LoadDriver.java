@@ -0,0 +1,142 @@
+package com.zakhrey.vzakhlib.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Нагрузка с постоянной интенсивностью поступления запросов (открытая модель): запросы отправляются
+ * по расписанию независимо от того, ответил ли сервер на предыдущие. Задержка отсчитывается от
+ * запланированного момента отправки, поэтому отставание самого генератора тоже попадает в задержку
+ * и не скрывает очередь на сервере. Запрос сверх {@code maxInFlight} одновременных считается ошибкой.
+ */
+class LoadDriver implements AutoCloseable {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ExecutorService callbacks = Executors.newFixedThreadPool(4);
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(callbacks)
+        .build();
+    private final int maxInFlight;
+
+    LoadDriver(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Операция нагрузки: имя, вес в смеси и фабрика очередного запроса
+     */
+    record Operation(String name, int weight, Supplier<HttpRequest> request) {
+    }
+
+    /**
+     * Итоги операции за замер
+     */
+    record Result(String name, long requests, long errors, double throughput, Histogram latency) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        double percentileMs(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Выполнить смесь операций с интенсивностью {@code ratePerSecond} в течение {@code duration}
+     * и дождаться ответов на все отправленные запросы
+     */
+    Map<String, Result> run(List<Operation> operations, int ratePerSecond, Duration duration)
+        throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        operations.forEach(operation -> stats.put(operation.name(), new Stats()));
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long count = duration.toSeconds() * ratePerSecond;
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Operation operation = pick(operations, totalWeight);
+            Stats operationStats = stats.get(operation.name());
+            operationStats.requests.increment();
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                operationStats.rejected.increment();
+                continue;
+            }
+            client.sendAsync(operation.request().get(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    operationStats.latency.recordValue(Math.min(System.nanoTime() - intended, MAX_LATENCY_NANOS));
+                    if (error != null || response.statusCode() >= 400) {
+                        operationStats.failed.increment();
+                    }
+                    inFlight.decrementAndGet();
+                });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        stats.forEach((name, operationStats) -> {
+            long requests = operationStats.requests.sum();
+            long rejected = operationStats.rejected.sum();
+            long failed = operationStats.failed.sum();
+            long completed = operationStats.latency.getTotalCount();
+            long unanswered = requests - rejected - completed;
+            results.put(name, new Result(name, requests, rejected + failed + unanswered,
+                (completed - failed) / seconds, operationStats.latency));
+        });
+        return results;
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    @Override
+    public void close() {
+        callbacks.shutdownNow();
+    }
+
+    private static final class Stats {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    }
+}
@@ -0,0 +1,14 @@
+package com.zakhrey.vzakhlib.load;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Тот же нагрузочный прогон, что и {@link CatalogLoadTest}, на виртуальных потоках с ограничением
+ * одновременных запросов по пулу соединений. Выполняется только на JDK 21+: {@code mvn -Pload-test,java21 test}
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadTest extends CatalogLoadTest {
+}
@@ -0,0 +1,68 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.service.GenreService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ConnectionMonitorTest {
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void connectionTimers_areTaggedWithServiceMethod() {
+        GenreCreateRequest request = new GenreCreateRequest();
+        request.setName("Жанр " + UUID.randomUUID());
+        GenreDto genre = genreService.createGenre(request);
+        genreService.deleteGenre(genre.getId());
+
+        Timer hold = meterRegistry.find("vzakhlib.jdbc.connection.hold").tag("method", "GenreServiceImpl.createGenre").timer();
+        Timer acquire = meterRegistry.find("vzakhlib.jdbc.connection.acquire").tag("method", "GenreServiceImpl.deleteGenre").timer();
+        assertNotNull(hold);
+        assertNotNull(acquire);
+        assertTrue(hold.count() >= 1);
+        assertTrue(acquire.count() >= 1);
+        // Пул за оберткой источника данных по-прежнему публикует свои метрики
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+    }
+
+    @Test
+    void longHold_isReportedOnce() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConnectionMonitor monitor = new ConnectionMonitor(
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class),
+            Duration.ofMillis(1));
+
+        long holdId = monitor.acquired("BookServiceImpl.exportBooks", 0);
+        Thread.sleep(10);
+        monitor.detectLeaks();
+        monitor.detectLeaks();
+        monitor.released(holdId);
+        monitor.released(holdId);
+
+        Counter leaks = registry.find("vzakhlib.jdbc.connection.leaks").tag("method", "BookServiceImpl.exportBooks").counter();
+        assertNotNull(leaks);
+        assertEquals(1, leaks.count());
+        assertEquals(1, registry.find("vzakhlib.jdbc.connection.hold").timer().count());
+        assertEquals(1, monitor.drainWindow().peakOpen());
+        assertEquals(0, monitor.drainWindow().peakOpen());
+    }
+}
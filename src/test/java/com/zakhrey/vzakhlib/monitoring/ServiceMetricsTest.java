@@ -0,0 +1,128 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
+import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.service.GenreService;
+import com.zakhrey.vzakhlib.service.impl.GenreServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "management.prometheus.metrics.export.enabled=true",
+    "management.endpoints.web.exposure.include=prometheus"})
+@AutoConfigureMockMvc
+class ServiceMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private Advisor serviceMetricsAdvisor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCalls_arePublishedForPrometheus() throws Exception {
+        GenreCreateRequest request = new GenreCreateRequest();
+        request.setName("Жанр " + UUID.randomUUID());
+        GenreDto genre = genreService.createGenre(request);
+        try {
+            assertThrows(ResourceAlreadyExistsException.class, () -> genreService.createGenre(request));
+            assertThrows(ResourceNotFoundException.class, () -> genreService.getGenreById(UUID.randomUUID()));
+            genreService.getAllGenres(PageRequest.of(0, 5), FieldSet.ALL);
+        } finally {
+            genreService.deleteGenre(genre.getId());
+        }
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("vzakhlib_service_seconds_bucket{method=\"createGenre\",outcome=\"success\",service=\"GenreService\""));
+        assertTrue(scrape.contains("vzakhlib_service_errors_total{exception=\"ResourceAlreadyExistsException\",method=\"createGenre\",service=\"GenreService\"}"));
+        assertTrue(scrape.contains("vzakhlib_service_errors_total{exception=\"ResourceNotFoundException\",method=\"getGenreById\",service=\"GenreService\"}"));
+        assertTrue(scrape.contains("vzakhlib_service_results_count{method=\"getAllGenres\",service=\"GenreService\"}"));
+    }
+
+    @Test
+    void recordingThroughProxy_doesNotAllocate() {
+        GenreDto genre = GenreDto.builder().id(UUID.randomUUID()).name("Жанр").build();
+        FixedGenreService target = new FixedGenreService(genre);
+        GenreService metered = proxy(target, serviceMetricsAdvisor);
+        GenreService plain = proxy(target, new DefaultPointcutAdvisor((MethodInterceptor) MethodInvocation::proceed));
+        UUID id = genre.getId();
+
+        // Разница с таким же прокси без метрик: объекты вызова создает сам прокси Spring
+        long overhead = allocated(() -> metered.getGenreById(id)) - allocated(() -> plain.getGenreById(id));
+
+        // Один объект на вызов дал бы не меньше 1.6 МБ
+        assertTrue(overhead < 64 * 1024, "Выделено байт: " + overhead);
+        metered.getGenreById(id);
+        assertEquals("FixedGenreService.getGenreById", target.method);
+        assertTrue(meterRegistry.get("vzakhlib.service")
+            .tags("service", "GenreService", "method", "getGenreById", "outcome", "success")
+            .timer().count() >= 200_000);
+    }
+
+    private static GenreService proxy(GenreService target, Advisor advisor) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (GenreService) factory.getProxy();
+    }
+
+    private static long allocated(Runnable call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 100_000; i++) {
+            call.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            call.run();
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    /**
+     * Сервис без БД: запоминает метод сервиса, видимый в потоке во время вызова
+     */
+    static class FixedGenreService extends GenreServiceImpl {
+
+        private final GenreDto genre;
+        private String method;
+
+        FixedGenreService(GenreDto genre) {
+            super(null, null, null, null, null);
+            this.genre = genre;
+        }
+
+        @Override
+        public GenreDto getGenreById(UUID genreId) {
+            method = ServiceMetricsInterceptor.current();
+            return genre;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.zakhrey.vzakhlib.monitoring;
+
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.service.BookService;
+import com.zakhrey.vzakhlib.service.GenreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "vzakhlib.slow-queries.threshold=0ms",
+    "management.endpoints.web.exposure.include=slowqueries"})
+@AutoConfigureMockMvc
+class SlowQueryJournalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private SlowQueryJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        journal.setThreshold(Duration.ZERO);
+        journal.clear();
+    }
+
+    @Test
+    void statementsOverThreshold_areJournaledWithServiceMethodAndPlan() throws Exception {
+        journal.clear();
+        bookService.searchBooks("книга", "rus", null, PageRequest.of(0, 5), FieldSet.ALL);
+
+        SlowQuery query = journal.list().stream()
+            .filter(entry -> entry.method().equals("BookServiceImpl.searchBooks"))
+            .findFirst()
+            .orElseThrow();
+        assertTrue(query.parameters() > 0);
+        assertFalse(query.sql().contains("\n"));
+        assertNull(query.plan());
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.thresholdMs").value(0))
+            .andExpect(jsonPath("$.queries[0].statement").doesNotExist());
+        mockMvc.perform(get("/actuator/slowqueries/" + query.id()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.plan").value(not(startsWith("План недоступен"))));
+    }
+
+    @Test
+    void batchesOutsideHibernate_areJournaled() {
+        GenreCreateRequest genreRequest = new GenreCreateRequest();
+        genreRequest.setName("Жанр " + UUID.randomUUID());
+        GenreDto genre = genreService.createGenre(genreRequest);
+        BookCreateRequest request = new BookCreateRequest();
+        request.setName("Книга " + UUID.randomUUID());
+        request.setLanguage(Language.RUS);
+        request.setGenreIds(Set.of(genre.getId()));
+        journal.clear();
+
+        BookDto book = bookService.createBooks(List.of(request)).getItems().get(0).getResult();
+
+        List<String> journaled = journal.list().stream()
+            .filter(entry -> entry.method().equals("BookServiceImpl.createBooks"))
+            .map(SlowQuery::sql)
+            .toList();
+        assertTrue(journaled.stream().anyMatch(sql -> sql.startsWith("INSERT INTO book ")), journaled.toString());
+        assertTrue(journaled.stream().anyMatch(sql -> sql.startsWith("INSERT INTO genre_for_book ")), journaled.toString());
+
+        bookService.deleteBook(book.getId());
+        genreService.deleteGenre(genre.getId());
+    }
+
+    @Test
+    void threshold_changesAtRuntime() throws Exception {
+        mockMvc.perform(post("/actuator/slowqueries")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"thresholdMs\": 60000}"))
+            .andExpect(status().isNoContent());
+        journal.clear();
+
+        bookService.searchBooks("книга", "rus", null, PageRequest.of(0, 5), FieldSet.ALL);
+
+        assertEquals(Duration.ofMinutes(1), journal.getThreshold());
+        assertTrue(journal.list().isEmpty());
+    }
+}
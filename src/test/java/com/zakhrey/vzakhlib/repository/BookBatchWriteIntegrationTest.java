@@ -0,0 +1,117 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookBatchWriteIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("DELETE FROM genre_for_book");
+        jdbc.update("DELETE FROM book");
+        jdbc.update("DELETE FROM series");
+        jdbc.update("DELETE FROM genre");
+    }
+
+    @Test
+    void insertSkippingTakenNames_skipsNameTakenByConcurrentTransaction() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CompletableFuture<int[]> counts;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO book "
+                + "(id, name, language, create_ts, update_ts) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, "Занятое название");
+                insert.setString(3, Language.RUS.name());
+                insert.setObject(4, LocalDateTime.now());
+                insert.setObject(5, LocalDateTime.now());
+                insert.executeUpdate();
+            }
+
+            // Вставка не видит незафиксированную строку и ждет уникальный индекс
+            counts = CompletableFuture.supplyAsync(() -> transaction.execute(status ->
+                bookRepository.insertSkippingTakenNames(List.of(book("Занятое название"), book("Свободное название")))));
+            Thread.sleep(300);
+            connection.commit();
+        }
+
+        assertArrayEquals(new int[]{0, 1}, counts.get(10, TimeUnit.SECONDS));
+        assertEquals(2, new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM book", Long.class));
+    }
+
+    @Test
+    void linkGenres_detachesOnlyLinkedBooks() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Series series = entityManager.persist(Series.builder().name("Цикл").build());
+            Genre fantasy = entityManager.persist(Genre.builder().name("Фантастика").build());
+            Genre detective = entityManager.persist(Genre.builder().name("Детектив").build());
+            Book linked = entityManager.persist(book("Связанная книга", series, fantasy));
+            Book other = entityManager.persist(book("Другая книга", series, fantasy));
+            entityManager.flush();
+
+            assertArrayEquals(new int[]{1},
+                bookRepository.linkGenres(List.of(new BookGenreLink(linked.getId(), detective.getId()))));
+
+            assertFalse(entityManager.getEntityManager().contains(linked));
+            assertTrue(entityManager.getEntityManager().contains(other));
+            assertTrue(entityManager.getEntityManager().contains(series));
+            assertTrue(entityManager.getEntityManager().contains(fantasy));
+            assertTrue(entityManager.getEntityManager().contains(detective));
+            assertEquals(Set.of("Фантастика", "Детектив"), entityManager.find(Book.class, linked.getId())
+                .getGenres().stream().map(Genre::getName).collect(Collectors.toSet()));
+        });
+    }
+
+    private static Book book(String name) {
+        return Book.builder().name(name).language(Language.RUS).genres(new HashSet<>()).build();
+    }
+
+    private static Book book(String name, Series series, Genre genre) {
+        return Book.builder().name(name).language(Language.RUS).series(series).genres(new HashSet<>(Set.of(genre)))
+            .build();
+    }
+}
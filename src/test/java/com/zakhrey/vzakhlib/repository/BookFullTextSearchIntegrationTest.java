@@ -0,0 +1,77 @@
+package com.zakhrey.vzakhlib.repository;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Language;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookFullTextSearchIntegrationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Book dunePrimary;
+    private Book duneMention;
+    private Book russian;
+
+    @BeforeEach
+    void setUp() {
+        duneMention = persist("Foundation", "Often compared with Dune and its desert planet", Language.ENG);
+        dunePrimary = persist("Dune", "Desert planet Arrakis", Language.ENG);
+        russian = persist("Пикник на обочине", "Зона, сталкеры и пустынные окраины", Language.RUS);
+        persist("Солярис", "Океан на далекой планете", Language.RUS);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Book persist(String name, String description, Language language) {
+        return entityManager.persist(Book.builder()
+            .name(name)
+            .description(description)
+            .language(language)
+            .build());
+    }
+
+    @Test
+    void whenTermMatchesName_thenRankedAboveDescriptionMatch() {
+        Page<UUID> page = bookRepository.fullTextSearchIds("dune", null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(dunePrimary.getId(), duneMention.getId()), page.getContent());
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void whenSeveralTerms_thenAllMustMatch() {
+        Page<UUID> page = bookRepository.fullTextSearchIds("desert arrakis", null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(dunePrimary.getId()), page.getContent());
+    }
+
+    @Test
+    void whenLanguageGiven_thenOnlyThatLanguageMatches() {
+        Page<UUID> page = bookRepository.fullTextSearchIds("зона", Language.RUS, null, PageRequest.of(0, 10));
+        Page<UUID> none = bookRepository.fullTextSearchIds("зона", Language.ENG, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(russian.getId()), page.getContent());
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    void whenQueryBlank_thenEmptyPage() {
+        assertTrue(bookRepository.fullTextSearchIds("  ", null, null, PageRequest.of(0, 10)).isEmpty());
+    }
+}
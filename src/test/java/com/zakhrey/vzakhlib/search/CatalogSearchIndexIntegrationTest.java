@@ -0,0 +1,86 @@
+package com.zakhrey.vzakhlib.search;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CatalogSearchIndexIntegrationTest {
+
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+
+    @Autowired
+    private CatalogIndexLoader indexLoader;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        genreRepository.deleteAll();
+    }
+
+    @Test
+    void whenEntitiesCommitted_thenIndexFollowsThem() {
+        Book book = transactionTemplate.execute(status -> {
+            Genre genre = genreRepository.save(Genre.builder().name("Киберпанк").build());
+            return bookRepository.save(Book.builder()
+                .name("Нейромант")
+                .language(Language.RUS)
+                .genres(new HashSet<>(Set.of(genre)))
+                .build());
+        });
+
+        assertEquals(List.of(book.getId()), searchIndex.search("нейро"));
+        assertEquals(List.of(book.getId()), searchIndex.search("киберпанк"));
+
+        bookRepository.deleteById(book.getId());
+
+        assertEquals(List.of(), searchIndex.search("нейромант"));
+    }
+
+    @Test
+    void whenTransactionRolledBack_thenIndexUnchanged() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.save(Book.builder().name("Черновик").language(Language.RUS).build());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), searchIndex.search("черновик"));
+    }
+
+    @Test
+    void whenRebuilt_thenIndexMatchesDatabase() {
+        Book book = bookRepository.save(Book.builder()
+            .name("Гиперион")
+            .description("Паломники и Шрайк")
+            .language(Language.RUS)
+            .build());
+        searchIndex.removeBook(book.getId());
+
+        indexLoader.rebuild();
+
+        assertEquals(List.of(book.getId()), searchIndex.search("шрайк"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.zakhrey.vzakhlib.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSearchIndexTest {
+
+    @Test
+    void rebuild_keepsChangesAppliedWhileBuilding() {
+        CatalogSearchIndex searchIndex = new CatalogSearchIndex();
+        UUID loaded = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+
+        searchIndex.rebuild(index -> {
+            index.putBook(loaded, "Дюна", null, null, null);
+            index.putBook(removed, "Солярис", null, null, null);
+            // Изменения, зафиксированные другими транзакциями, пока загрузчик читает БД
+            searchIndex.putBook(added, "Основание", null, null, null);
+            searchIndex.removeBook(removed);
+        });
+
+        assertEquals(List.of(loaded), searchIndex.search("дюна"));
+        assertEquals(List.of(added), searchIndex.search("основание"));
+        assertTrue(searchIndex.search("солярис").isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.zakhrey.vzakhlib.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID saga = UUID.randomUUID();
+    private final UUID dune = UUID.randomUUID();
+    private final UUID foundation = UUID.randomUUID();
+    private final UUID solaris = UUID.randomUUID();
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.putGenre(fantasy, "Фантастика");
+        index.putSeries(saga, "Хроники Дюны");
+        index.putBook(dune, "Дюна", "Пустынная планета Арракис", saga, Set.of(fantasy));
+        index.putBook(foundation, "Основание", "Упоминается Дюна и пустынная планета", null, Set.of(fantasy));
+        index.putBook(solaris, "Солярис", "Океан на далекой планете", null, null);
+    }
+
+    @Test
+    void whenTermInName_thenRankedAboveDescription() {
+        assertEquals(List.of(dune, foundation), index.search("дюна"));
+    }
+
+    @Test
+    void whenPrefixTyped_thenMatchesWholeWords() {
+        assertEquals(List.of(solaris), index.search("сол"));
+        assertEquals(Set.of(dune, foundation, solaris), Set.copyOf(index.search("план")));
+    }
+
+    @Test
+    void whenTermsInDifferentFields_thenAllMustMatch() {
+        assertEquals(List.of(dune), index.search("хроники арракис"));
+        assertEquals(List.of(), index.search("солярис арракис"));
+    }
+
+    @Test
+    void whenGenreNameMatches_thenBooksOfGenreFound() {
+        assertEquals(Set.of(dune, foundation), Set.copyOf(index.search("фантастика")));
+    }
+
+    @Test
+    void whenBookUpdatedWithoutGenres_thenKnownGenresKept() {
+        index.putBook(foundation, "Основание", "Галактическая империя", null, null);
+
+        assertEquals(List.of(dune), index.search("дюна"));
+        assertTrue(index.search("фантастика").contains(foundation));
+    }
+
+    @Test
+    void whenRemoved_thenNoLongerFound() {
+        index.removeBook(dune);
+        index.removeGenre(fantasy);
+
+        assertEquals(List.of(foundation), index.search("дюна"));
+        assertEquals(List.of(), index.search("фантастика"));
+        assertEquals(2, index.bookCount());
+    }
+
+    @Test
+    void whenSeriesUnlinkedOrGenreMoved_thenLinksFollow() {
+        UUID classics = UUID.randomUUID();
+        index.putGenre(classics, "Классика");
+
+        index.unlinkSeries(saga);
+        index.moveGenre(fantasy, classics);
+
+        assertEquals(List.of(), index.search("хроники"));
+        assertEquals(List.of(), index.search("фантастика"));
+        assertEquals(Set.of(dune, foundation), Set.copyOf(index.search("классика")));
+    }
+}
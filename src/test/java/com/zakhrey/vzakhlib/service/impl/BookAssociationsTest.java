@@ -0,0 +1,134 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.BookGenreLink;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.BookGenreBatchRequest;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ServiceJpaTest
+class BookAssociationsTest {
+
+    // изменяющий запрос + загрузка книги с серией и жанрами для ответа
+    private static final int ASSOCIATION_QUERIES = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Book book;
+    private Series series;
+    private Genre fantasy;
+    private Genre detective;
+
+    @BeforeEach
+    void setUp() {
+        series = fixture.series();
+        fantasy = fixture.genre();
+        detective = fixture.genre("Детектив");
+        book = fixture.book("Книга", Language.RUS, null, fantasy);
+        fixture.reset();
+    }
+
+    private Set<UUID> genreIds(BookDto dto) {
+        return dto.getGenres().stream().map(GenreDto::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    void addAndRemoveGenre_runDirectStatements() {
+        BookDto added = QueryBudget.assertAtMost(ASSOCIATION_QUERIES, () ->
+            bookService.addGenreToBook(book.getId(), detective.getId()));
+
+        assertEquals(Set.of(fantasy.getId(), detective.getId()), genreIds(added));
+
+        BookDto removed = QueryBudget.assertAtMost(ASSOCIATION_QUERIES, () ->
+            bookService.removeGenreFromBook(book.getId(), fantasy.getId()));
+
+        assertEquals(Set.of(detective.getId()), genreIds(removed));
+    }
+
+    @Test
+    void addGenre_whenAlreadyLinked_isNoOp() {
+        BookDto result = bookService.addGenreToBook(book.getId(), fantasy.getId());
+
+        assertEquals(Set.of(fantasy.getId()), genreIds(result));
+    }
+
+    @Test
+    void addGenre_whenBookOrGenreMissing_throwsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+            () -> bookService.addGenreToBook(UUID.randomUUID(), fantasy.getId()));
+        assertThrows(ResourceNotFoundException.class,
+            () -> bookService.addGenreToBook(book.getId(), UUID.randomUUID()));
+    }
+
+    @Test
+    void attachAndDetachSeries_runDirectStatements() {
+        BookDto attached = QueryBudget.assertAtMost(ASSOCIATION_QUERIES, () ->
+            bookService.attachBookToSeries(book.getId(), series.getId()));
+
+        assertEquals(series.getId(), attached.getSeries().getId());
+
+        BookDto detached = bookService.detachBookFromSeries(book.getId());
+
+        assertNull(detached.getSeries());
+        assertThrows(ResourceNotFoundException.class,
+            () -> bookService.attachBookToSeries(book.getId(), UUID.randomUUID()));
+    }
+
+    @Test
+    void updateGenreLinks_appliesBatchAndSkipsInvalidPairs() {
+        List<UUID> bookIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookIds.add(fixture.book("Книга " + i, Language.ENG, null).getId());
+        }
+        entityManager.flush();
+
+        List<BookGenreLink> add = new ArrayList<>(bookIds.stream()
+            .map(id -> new BookGenreLink(id, detective.getId()))
+            .toList());
+        add.add(new BookGenreLink(book.getId(), fantasy.getId()));
+        add.add(new BookGenreLink(book.getId(), UUID.randomUUID()));
+        add.add(new BookGenreLink(bookIds.get(0), detective.getId()));
+
+        BookGenreBatchRequest request = new BookGenreBatchRequest();
+        request.setAdd(add);
+        request.setRemove(List.of(new BookGenreLink(book.getId(), fantasy.getId())));
+
+        BulkOperationResult result = bookService.updateGenreLinks(request);
+
+        // 20 новых связей + одна удаленная; дубликат, существующая связь и неизвестный жанр пропущены
+        assertEquals(21, result.getAffected());
+        assertEquals(20, bookRepository.countByGenreId(detective.getId()));
+        assertEquals(0, bookRepository.countByGenreId(fantasy.getId()));
+    }
+}
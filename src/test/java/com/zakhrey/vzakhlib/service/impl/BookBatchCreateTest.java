@@ -0,0 +1,106 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.BatchItemResult;
+import com.zakhrey.vzakhlib.model.BatchResponse;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.request.BookCreateRequest;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ServiceJpaTest
+class BookBatchCreateTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Series series;
+    private Genre genre;
+
+    @BeforeEach
+    void setUp() {
+        series = fixture.series();
+        genre = fixture.genre();
+        fixture.book("Существующая", Language.RUS, null);
+        fixture.reset();
+    }
+
+    private BookCreateRequest request(String name) {
+        BookCreateRequest request = new BookCreateRequest();
+        request.setName(name);
+        request.setLanguage(Language.RUS);
+        request.setSeriesId(series.getId());
+        request.setGenreIds(Set.of(genre.getId()));
+        return request;
+    }
+
+    @Test
+    void createBooks_resolvesReferencesOnceAndBatchesInserts() {
+        List<BookCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(request("Книга " + i));
+        }
+
+        // названия + серии + жанры + по одному пакету вставок в book и genre_for_book на все 40 книг
+        BatchResponse<BookDto> response = QueryBudget.assertAtMost(5, () -> {
+            BatchResponse<BookDto> created = bookService.createBooks(requests);
+            entityManager.flush();
+            return created;
+        });
+
+        assertEquals(40, response.getSucceeded());
+        assertEquals(CatalogFixture.SERIES_NAME, response.getItems().get(0).getResult().getSeries().getName());
+        assertEquals(40L, entityManager.getEntityManager()
+            .createQuery("SELECT COUNT(b) FROM Book b JOIN b.genres g", Long.class)
+            .getSingleResult());
+    }
+
+    @Test
+    void createBooks_reportsPerItemFailures() {
+        BookCreateRequest invalid = request(" ");
+        BookCreateRequest missingSeries = request("Без серии");
+        missingSeries.setSeriesId(UUID.randomUUID());
+        BookCreateRequest missingGenre = request("Без жанра");
+        missingGenre.setGenreIds(Set.of(UUID.randomUUID()));
+
+        BatchResponse<BookDto> response = bookService.createBooks(List.of(
+            request("Новая"), request("Существующая"), request("Новая"), invalid, missingSeries, missingGenre));
+        entityManager.flush();
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(5, response.getFailed());
+        assertEquals(List.of(
+                BatchItemResult.Status.CREATED,
+                BatchItemResult.Status.ALREADY_EXISTS,
+                BatchItemResult.Status.ALREADY_EXISTS,
+                BatchItemResult.Status.INVALID,
+                BatchItemResult.Status.NOT_FOUND,
+                BatchItemResult.Status.NOT_FOUND),
+            response.getItems().stream().map(BatchItemResult::getStatus).toList());
+        assertEquals(2, bookRepository.count());
+    }
+}
@@ -0,0 +1,206 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.exception.ResourceNotFoundException;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.BookUpdateRequest;
+import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
+import com.zakhrey.vzakhlib.model.request.SeriesUpdateRequest;
+import com.zakhrey.vzakhlib.monitoring.RequestStatements;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Кэш сбрасывается после фиксации транзакций, поэтому каждый вызов сервиса идет в своей
+@ServiceJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookDtoCacheTest {
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private SeriesServiceImpl seriesService;
+
+    @Autowired
+    private BookDtoCache bookDtoCache;
+
+    private Book book;
+    private Genre genre;
+    private Series series;
+
+    @BeforeEach
+    void setUp() {
+        series = fixture.series();
+        genre = fixture.genre();
+        book = fixture.book("Книга", Language.RUS, series, genre);
+        fixture.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteAll();
+    }
+
+    @Test
+    void getBookById_secondReadRunsNoQueries() {
+        BookDto first = QueryBudget.assertAtMost(1, () -> bookService.getBookById(book.getId()));
+        BookDto second = QueryBudget.assertAtMost(0, () -> bookService.getBookById(book.getId()));
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void getBookById_missingBookIsNotCached() {
+        UUID missing = UUID.randomUUID();
+
+        try (RequestStatements statements = RequestStatements.open()) {
+            assertThrows(ResourceNotFoundException.class, () -> bookService.getBookById(missing));
+            assertThrows(ResourceNotFoundException.class, () -> bookService.getBookById(missing));
+
+            // каждое обращение к отсутствующей книге снова идет в базу
+            assertEquals(2, statements.getCount());
+        }
+    }
+
+    @Test
+    void updateBook_evictsCachedBook() {
+        bookService.getBookById(book.getId());
+
+        BookUpdateRequest request = new BookUpdateRequest();
+        request.setDescription("Новое описание");
+        bookService.updateBook(book.getId(), request);
+
+        assertEquals("Новое описание", bookService.getBookById(book.getId()).getDescription());
+    }
+
+    @Test
+    void removeGenreFromBook_evictsCachedBook() {
+        bookService.getBookById(book.getId());
+
+        bookService.removeGenreFromBook(book.getId(), genre.getId());
+
+        assertTrue(bookService.getBookById(book.getId()).getGenres().isEmpty());
+    }
+
+    @Test
+    void updateGenre_evictsBooksEmbeddingIt() {
+        bookService.getBookById(book.getId());
+
+        GenreUpdateRequest request = new GenreUpdateRequest();
+        request.setName("Научная фантастика");
+        genreService.updateGenre(genre.getId(), request);
+
+        assertEquals(Set.of("Научная фантастика"), bookService.getBookById(book.getId()).getGenres().stream()
+            .map(GenreDto::getName)
+            .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void updateSeries_evictsBooksEmbeddingIt() {
+        bookService.getBookById(book.getId());
+
+        SeriesUpdateRequest request = new SeriesUpdateRequest();
+        request.setName("Новый цикл");
+        seriesService.updateSeries(series.getId(), request);
+
+        assertEquals("Новый цикл", bookService.getBookById(book.getId()).getSeries().getName());
+    }
+
+    @Test
+    void deleteBook_evictsCachedBook() {
+        bookService.getBookById(book.getId());
+
+        bookService.deleteBook(book.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookById(book.getId()));
+    }
+
+    @Test
+    void getBookById_sparseFieldsAreCachedSeparatelyAndEvicted() {
+        FieldSet fields = FieldSet.fromParam("id,name", FieldSet.BOOK_FIELDS);
+        BookDto first = QueryBudget.assertAtMost(1, () -> bookService.getBookById(book.getId(), fields));
+        QueryBudget.assertAtMost(0, () -> bookService.getBookById(book.getId(), fields));
+
+        assertEquals("Книга", first.getName());
+        assertNull(first.getSeries());
+
+        BookUpdateRequest request = new BookUpdateRequest();
+        request.setName("Новое название");
+        bookService.updateBook(book.getId(), request);
+
+        assertEquals("Новое название", bookService.getBookById(book.getId(), fields).getName());
+    }
+
+    @Test
+    void genreChangeDuringLoad_reloadsEntry() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<BookDto> inFlight = CompletableFuture.supplyAsync(() -> bookDtoCache.get(bookId, id -> {
+            if (loads.incrementAndGet() > 1) {
+                return bookWithGenre(id, "Новое название жанра");
+            }
+            loading.countDown();
+            try {
+                changed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return bookWithGenre(id, "Фантастика");
+        }));
+
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        bookDtoCache.evictByGenreAfterCommit(genre.getId());
+        changed.countDown();
+
+        assertEquals("Новое название жанра", inFlight.get(5, TimeUnit.SECONDS).getGenres().iterator().next().getName());
+        assertEquals("Новое название жанра", bookDtoCache.get(bookId, id -> fail("Запись должна быть в кэше"))
+            .getGenres().iterator().next().getName());
+        assertEquals(2, loads.get());
+    }
+
+    private BookDto bookWithGenre(UUID bookId, String genreName) {
+        return BookDto.builder()
+            .id(bookId)
+            .name("Книга")
+            .genres(Set.of(GenreDto.builder().id(genre.getId()).name(genreName).build()))
+            .build();
+    }
+
+    @Test
+    void weigh_growsWithContent() {
+        BookDto small = BookDto.builder().id(book.getId()).name("Книга").build();
+        BookDto large = BookDto.builder().id(book.getId()).name("Книга").description("x".repeat(10_000)).build();
+
+        assertTrue(BookDtoCache.weigh(large) - BookDtoCache.weigh(small) >= 20_000);
+    }
+}
@@ -0,0 +1,111 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.service.BookExportService;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "vzakhlib.export.chunk-size=10",
+    "vzakhlib.export.timeout=45m"
+})
+@AutoConfigureMockMvc
+class BookExportServiceIntegrationTest {
+
+    @Autowired
+    private BookExportService exportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private SeriesRepository seriesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Series series = seriesRepository.save(Series.builder().name("Цикл").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Фантастика").build());
+        for (int i = 0; i < 25; i++) {
+            bookRepository.save(Book.builder()
+                .name(String.format("Книга %02d", i))
+                .language(Language.RUS)
+                .series(i % 2 == 0 ? series : null)
+                .genres(i % 5 == 0 ? new HashSet<>(Set.of(genre)) : new HashSet<>())
+                .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        genreRepository.deleteAll();
+        seriesRepository.deleteAll();
+    }
+
+    @Test
+    void exportBooks_writesOneLinePerBookWithSeriesAndGenres() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // поток книг + запрос жанров на каждый блок из 10 книг
+        long exported = QueryBudget.assertAtMost(1 + 3, () -> exportService.exportBooks(out));
+
+        List<BookDto> books = out.toString(StandardCharsets.UTF_8).lines()
+            .map(line -> objectMapper.readValue(line, BookDto.class))
+            .toList();
+        assertEquals(25, exported);
+        assertEquals(25, books.size());
+        assertEquals(13, books.stream().filter(book -> book.getSeries() != null).count());
+        assertEquals(5, books.stream().filter(book -> !book.getGenres().isEmpty()).count());
+        assertTrue(books.stream()
+            .filter(book -> book.getSeries() != null)
+            .allMatch(book -> "Цикл".equals(book.getSeries().getName())));
+    }
+
+    @Test
+    void exportEndpoint_usesItsOwnAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/books/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertEquals(TimeUnit.MINUTES.toMillis(45), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        assertEquals(25, result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().count());
+    }
+}
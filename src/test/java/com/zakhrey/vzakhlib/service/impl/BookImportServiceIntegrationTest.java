@@ -0,0 +1,198 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.model.ImportJobStatus;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.service.BookImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookImportServiceIntegrationTest {
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Value("${vzakhlib.import.source-dir}")
+    private Path sourceDir;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        genreRepository.deleteAll();
+    }
+
+    private String write(String content, String extension) throws IOException {
+        Files.createDirectories(sourceDir);
+        String name = UUID.randomUUID() + extension;
+        Files.writeString(sourceDir.resolve(name), content, StandardCharsets.UTF_8);
+        return name;
+    }
+
+    private ImportJobStatus await(UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ImportJobStatus status = importService.getStatus(jobId);
+            if (status.getState() != ImportJobStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        fail("Импорт не завершился");
+        return null;
+    }
+
+    @Test
+    void csvImport_commitsInChunksAndReportsFailedRows() throws Exception {
+        Genre genre = genreRepository.save(Genre.builder().name("Фантастика").build());
+        StringBuilder csv = new StringBuilder("name,description,language,genre_ids\n");
+        csv.append("\"Книга, с запятой\",\"Описание\nв две строки с \"\"кавычками\"\"\",rus,").append(genre.getId()).append('\n');
+        for (int i = 2; i <= 25; i++) {
+            String name = switch (i) {
+                case 7 -> "";
+                case 9 -> "Книга 08";
+                default -> String.format("Книга %02d", i);
+            };
+            csv.append(name).append(",,").append(i == 5 ? "xx" : "eng").append(",\n");
+        }
+
+        ImportJobStatus started = importService.startImport(write(csv.toString(), ".csv"), "csv", 10);
+        ImportJobStatus status = await(started.getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState(), status.getError());
+        assertEquals(25, status.getProcessedRows());
+        assertEquals(25, status.getCommittedRows());
+        assertEquals(3, status.getCommittedChunks());
+        assertEquals(22, status.getImportedBooks());
+        assertEquals(3, status.getFailedRows());
+        assertEquals(List.of(5L, 7L, 9L), status.getFailures().stream()
+            .map(ImportJobStatus.FailedRow::getRow).sorted().toList());
+        assertEquals(22, bookRepository.count());
+
+        assertTrue(bookRepository.existsByName("Книга, с запятой"));
+    }
+
+    @Test
+    void failedImport_resumesFromLastCommittedChunk() throws Exception {
+        StringBuilder valid = new StringBuilder("name,language\n");
+        for (int i = 1; i <= 15; i++) {
+            valid.append(String.format("Книга %02d,rus\n", i));
+        }
+        String file = write(valid + "\"Незакрытая кавычка,rus\n", ".csv");
+
+        ImportJobStatus failed = await(importService.startImport(file, "csv", 10).getId());
+
+        assertEquals(ImportJobStatus.State.FAILED, failed.getState());
+        assertNotNull(failed.getError());
+        assertEquals(15, failed.getCommittedRows());
+        assertEquals(15, bookRepository.count());
+
+        StringBuilder fixed = new StringBuilder(valid);
+        for (int i = 16; i <= 20; i++) {
+            fixed.append(String.format("Книга %02d,rus\n", i));
+        }
+        Files.writeString(sourceDir.resolve(file), fixed, StandardCharsets.UTF_8);
+
+        ImportJobStatus resumed = await(importService.resumeImport(failed.getId()).getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, resumed.getState(), resumed.getError());
+        assertEquals(20, resumed.getImportedBooks());
+        assertEquals(0, resumed.getFailedRows());
+        assertEquals(20, bookRepository.count());
+    }
+
+    @Test
+    void concurrentResume_startsOnePipeline() throws Exception {
+        String file = write("name,language\nКнига 0001,rus\n\"Незакрытая кавычка,rus\n", ".csv");
+        ImportJobStatus failed = await(importService.startImport(file, "csv", 10).getId());
+        assertEquals(ImportJobStatus.State.FAILED, failed.getState());
+
+        StringBuilder fixed = new StringBuilder("name,language\n");
+        for (int i = 1; i <= 2000; i++) {
+            fixed.append(String.format("Книга %04d,rus\n", i));
+        }
+        Files.writeString(sourceDir.resolve(file), fixed, StandardCharsets.UTF_8);
+
+        int threads = 8;
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<ImportJobStatus>> resumes = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                resumes.add(executor.submit(() -> {
+                    ready.await();
+                    return importService.resumeImport(failed.getId());
+                }));
+            }
+            ready.countDown();
+
+            int started = 0;
+            for (Future<ImportJobStatus> resume : resumes) {
+                try {
+                    resume.get(10, TimeUnit.SECONDS);
+                    started++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+            assertEquals(1, started);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ImportJobStatus resumed = await(failed.getId());
+        assertEquals(ImportJobStatus.State.COMPLETED, resumed.getState(), resumed.getError());
+        assertEquals(2000, resumed.getImportedBooks());
+        assertEquals(2000, bookRepository.count());
+    }
+
+    @Test
+    void ndjsonImport_reportsMalformedLines() throws Exception {
+        String ndjson = """
+            {"name": "Первая", "language": "RUS"}
+            {"name": "Вторая",
+            null
+            [1, 2]
+            {"name": "Третья", "language": "ENG", "description": "Описание"}
+            """;
+
+        ImportJobStatus status = await(importService.startImport(write(ndjson, ".ndjson"), "ndjson", null).getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState(), status.getError());
+        assertEquals(2, status.getImportedBooks());
+        assertEquals(3, status.getFailedRows());
+        assertEquals(2L, status.getFailures().get(0).getRow());
+        assertEquals(3L, status.getFailures().get(1).getRow());
+    }
+
+    @Test
+    void startImport_rejectsPathOutsideSourceDir() {
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.startImport("../pom.xml", "csv", null));
+    }
+}
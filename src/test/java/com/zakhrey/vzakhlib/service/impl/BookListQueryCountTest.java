@@ -0,0 +1,248 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.CountMode;
+import com.zakhrey.vzakhlib.model.FieldSet;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.PageResponse;
+import com.zakhrey.vzakhlib.model.SliceResponse;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ServiceJpaTest
+class BookListQueryCountTest {
+
+    // COUNT + строки страницы + жанры ее книг (в срезах - идентификаторы + загрузка книг)
+    private static final int PAGE_QUERIES = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private SeriesServiceImpl seriesService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Series series;
+    private Genre fantasy;
+
+    @BeforeEach
+    void setUp() {
+        series = fixture.series();
+        fantasy = fixture.genre();
+        Genre detective = fixture.genre("Детектив");
+
+        for (int i = 0; i < 30; i++) {
+            Language language = i % 3 == 0 ? Language.ENG : Language.RUS;
+            if (i % 2 == 0) {
+                fixture.book(String.format("Книга %02d", i), language, series, fantasy, detective);
+            } else {
+                fixture.book(String.format("Книга %02d", i), language, series, fantasy);
+            }
+        }
+
+        fixture.reset();
+    }
+
+    @Test
+    void getAllBooks_runsFixedNumberOfQueriesForAnyPageSize() {
+        for (int size : new int[]{5, 25}) {
+            fixture.statistics().clear();
+
+            PageResponse<BookDto> page = QueryBudget.assertAtMost(PAGE_QUERIES, () ->
+                bookService.getAllBooks(PageRequest.of(0, size, Sort.by("name")), FieldSet.ALL));
+            entityManager.clear();
+
+            assertEquals(size, page.getContent().size());
+            assertEquals(30, page.getTotalElements());
+            assertEquals("Книга 00", page.getContent().get(0).getName());
+            assertEquals("Цикл", page.getContent().get(0).getSeries().getName());
+            assertEquals(2, page.getContent().get(0).getGenres().size());
+            // Страница собирается из проекций, сущности в контекст не загружаются
+            assertEquals(0, fixture.statistics().getEntityLoadCount());
+        }
+    }
+
+    @Test
+    void searchBooks_runsFixedNumberOfQueries() {
+        PageResponse<BookDto> page = QueryBudget.assertAtMost(PAGE_QUERIES, () -> bookService.searchBooks(
+            "книга", "eng", null, PageRequest.of(0, 5, Sort.by("name")), FieldSet.ALL));
+
+        assertEquals(5, page.getContent().size());
+        assertEquals(10, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(book -> "ENG".equals(book.getLanguage())));
+        assertEquals(0, fixture.statistics().getEntityLoadCount());
+    }
+
+    @Test
+    void getBooksByGenre_runsFixedNumberOfQueries() {
+        // + проверка существования жанра
+        PageResponse<BookDto> page = QueryBudget.assertAtMost(PAGE_QUERIES + 1, () -> genreService.getBooksByGenre(
+            fantasy.getId(), PageRequest.of(0, 20, Sort.by("name")), FieldSet.ALL));
+
+        assertEquals(20, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(book -> book.getGenres() != null && !book.getGenres().isEmpty()));
+        assertEquals(0, fixture.statistics().getEntityLoadCount());
+    }
+
+    @Test
+    void getSeriesWithBooks_runsFixedNumberOfQueries() {
+        // + проверка существования серии
+        PageResponse<BookDto> page = QueryBudget.assertAtMost(PAGE_QUERIES + 1, () -> seriesService.getSeriesWithBooks(
+            series.getId(), PageRequest.of(1, 10, Sort.by("name")), FieldSet.ALL));
+
+        assertEquals(10, page.getContent().size());
+        assertEquals("Книга 10", page.getContent().get(0).getName());
+        assertEquals(0, fixture.statistics().getEntityLoadCount());
+    }
+
+    @Test
+    void getAllBooksSlice_withoutCount_skipsCountQuery() {
+        // страница идентификаторов + загрузка книг
+        SliceResponse<BookDto> slice = QueryBudget.assertAtMost(PAGE_QUERIES - 1, () -> bookService.getAllBooksSlice(
+            PageRequest.of(0, 10, Sort.by("name")), CountMode.NONE, FieldSet.ALL));
+
+        assertEquals(10, slice.getContent().size());
+        assertTrue(slice.isHasNext());
+        assertNull(slice.getApproximateTotalElements());
+    }
+
+    @Test
+    void getBooksByGenre_withSparseFields_skipsColumnsAndGenreLinks() {
+        FieldSet fields = FieldSet.fromParam("id,name", FieldSet.BOOK_FIELDS);
+        // проверка существования жанра + COUNT + строки, без запроса жанров книг
+        PageResponse<BookDto> page = QueryBudget.assertAtMost(3, () ->
+            genreService.getBooksByGenre(fantasy.getId(), PageRequest.of(0, 10, Sort.by("name")), fields));
+
+        assertEquals(10, page.getContent().size());
+        assertEquals(30, page.getTotalElements());
+        assertEquals("Книга 00", page.getContent().get(0).getName());
+        assertNull(page.getContent().get(0).getDescription());
+        assertNull(page.getContent().get(0).getSeries());
+        String rowsQuery = Arrays.stream(fixture.statistics().getQueries())
+            .filter(query -> query.startsWith("SELECT b.id"))
+            .findFirst()
+            .orElseThrow();
+        assertFalse(rowsQuery.contains("description"));
+        assertFalse(rowsQuery.contains("series"));
+    }
+
+    @Test
+    void searchBooksSlice_withSparseFields_loadsSelectedColumnsById() {
+        FieldSet fields = FieldSet.fromParam("id,name", FieldSet.BOOK_FIELDS);
+        // страница идентификаторов + строки с выбранными столбцами, без запроса жанров книг
+        SliceResponse<BookDto> slice = QueryBudget.assertAtMost(PAGE_QUERIES - 1, () -> bookService.searchBooksSlice(
+            "книга", null, null, PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "name")), CountMode.NONE, fields));
+
+        assertEquals(10, slice.getContent().size());
+        assertEquals("Книга 19", slice.getContent().get(0).getName());
+        assertEquals("Книга 10", slice.getContent().get(9).getName());
+        assertNull(slice.getContent().get(0).getSeries());
+        assertEquals(0, fixture.statistics().getEntityLoadCount());
+        String rowsQuery = Arrays.stream(fixture.statistics().getQueries())
+            .filter(query -> query.startsWith("SELECT b.id AS id"))
+            .findFirst()
+            .orElseThrow();
+        assertFalse(rowsQuery.contains("description"));
+        assertFalse(rowsQuery.contains("series"));
+    }
+
+    @Test
+    void getAllGenres_withSparseFields_skipsUnselectedColumns() {
+        FieldSet fields = FieldSet.fromParam("name", FieldSet.DICTIONARY_FIELDS);
+        PageResponse<GenreDto> page = genreService.getAllGenres(PageRequest.of(0, 10, Sort.by("name")), fields);
+
+        assertEquals(List.of("Детектив", "Фантастика"), page.getContent().stream().map(GenreDto::getName).toList());
+        // ID и updateTs нужны для ETag страницы и читаются всегда
+        assertNotNull(page.getContent().get(0).getUpdateTs());
+        assertNull(page.getContent().get(0).getDescription());
+        String rowsQuery = Arrays.stream(fixture.statistics().getQueries())
+            .filter(query -> query.startsWith("SELECT e.id AS id"))
+            .findFirst()
+            .orElseThrow();
+        assertFalse(rowsQuery.contains("description"));
+        assertFalse(rowsQuery.contains("createTs"));
+    }
+
+    @Test
+    void getBooksByGenreSlice_withApproximateCount_countsOncePerTtl() {
+        SliceResponse<BookDto> first = QueryBudget.assertAtMost(PAGE_QUERIES + 1, () ->
+            genreService.getBooksByGenreSlice(
+                fantasy.getId(), PageRequest.of(0, 10, Sort.by("name")), CountMode.APPROX, FieldSet.ALL));
+        // повторный подсчет не выполняется
+        SliceResponse<BookDto> second = QueryBudget.assertAtMost(PAGE_QUERIES, () ->
+            genreService.getBooksByGenreSlice(
+                fantasy.getId(), PageRequest.of(1, 10, Sort.by("name")), CountMode.APPROX, FieldSet.ALL));
+
+        assertEquals(30L, first.getApproximateTotalElements());
+        assertEquals(30L, second.getApproximateTotalElements());
+    }
+
+    @Test
+    void getAllBooks_staysWithinQueryBudget() {
+        PageResponse<BookDto> page = QueryBudget.assertAtMost(PAGE_QUERIES, () ->
+            QueryBudget.assertNoNPlusOne(() ->
+                bookService.getAllBooks(PageRequest.of(0, 25, Sort.by("name")), FieldSet.ALL)));
+
+        assertEquals(25, page.getContent().size());
+    }
+
+    @Test
+    void queryPerBook_isReportedAsNPlusOne() {
+        PageResponse<BookDto> page = bookService.getAllBooks(PageRequest.of(0, 5, Sort.by("name")), FieldSet.ALL);
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> QueryBudget.assertNoNPlusOne(() ->
+            page.getContent().stream()
+                .map(book -> entityManager.getEntityManager()
+                    .createQuery("select b.name from Book b where b.id = :id", String.class)
+                    .setParameter("id", book.getId())
+                    .getSingleResult())
+                .toList()));
+        assertTrue(error.getMessage().contains("5 x "));
+    }
+
+    @Test
+    void fetchWithSeriesAndGenres_skipsBooksDeletedBetweenPhases() {
+        Page<UUID> ids = bookRepository.findPageIds(PageRequest.of(0, 5, Sort.by("name")));
+        List<UUID> withDeleted = new ArrayList<>(ids.getContent());
+        withDeleted.add(2, UUID.randomUUID());
+
+        Page<Book> page = bookRepository.fetchWithSeriesAndGenres(
+            new PageImpl<>(withDeleted, ids.getPageable(), ids.getTotalElements() + 1));
+
+        assertEquals(ids.getContent(), page.getContent().stream().map(Book::getId).toList());
+        assertEquals(ids.getTotalElements(), page.getTotalElements());
+    }
+}
@@ -0,0 +1,115 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.model.BookDto;
+import com.zakhrey.vzakhlib.model.CursorPageResponse;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@Import({BookServiceImpl.class, ApproximateCountCache.class, BookDtoCache.class,
+         LocalValidatorFactoryBean.class})
+class BookScrollTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @MockitoSpyBean
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            // Названия уникальны (uk_book_name), ID в ключе курсора только делает порядок полным
+            entityManager.persist(Book.builder()
+                .name(String.format("Книга %02d", i))
+                .language(i % 2 == 0 ? Language.RUS : Language.ENG)
+                .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void scrollBooks_walksWholeCatalogWithoutGapsOrDuplicates() {
+        List<BookDto> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<BookDto> page = bookService.scrollBooks(cursor, 10);
+            all.addAll(page.getContent());
+            cursor = page.getNext();
+            assertEquals(page.isHasNext(), cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, all.size());
+        assertEquals(25, all.stream().map(BookDto::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getName().compareTo(all.get(i).getName()) <= 0);
+        }
+    }
+
+    @Test
+    void scrollSearchBooks_appliesFiltersAcrossPages() {
+        CursorPageResponse<BookDto> first = bookService.scrollSearchBooks("книга", "eng", null, null, 10);
+        CursorPageResponse<BookDto> second = bookService.scrollSearchBooks("книга", "eng", null, first.getNext(), 10);
+
+        assertTrue(first.isHasNext());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNext());
+        assertEquals(10, first.getContent().size());
+        assertEquals(2, second.getContent().size());
+        assertTrue(second.getContent().stream().allMatch(book -> "ENG".equals(book.getLanguage())));
+    }
+
+    @Test
+    void scrollBooks_keepsCursorWhenPageRowsAreDeletedBetweenPhases() {
+        // Между выборкой ключей и загрузкой книг удаляются все книги страницы
+        doAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            entityManager.getEntityManager().createQuery("DELETE FROM Book b WHERE b.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+            return invocation.callRealMethod();
+        }).when(bookRepository).fetchWithSeriesAndGenres(anyList());
+
+        CursorPageResponse<BookDto> first = bookService.scrollBooks(null, 10);
+
+        assertTrue(first.getContent().isEmpty());
+        assertTrue(first.isHasNext());
+        assertNotNull(first.getNext());
+
+        CursorPageResponse<BookDto> second = bookService.scrollBooks(first.getNext(), 10);
+
+        // Курсор указывает за удаленную страницу, а не назад
+        assertTrue(second.getContent().isEmpty());
+        assertTrue(second.isHasNext());
+        assertEquals(5, bookRepository.count());
+    }
+
+    @Test
+    void scrollBooks_rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.scrollBooks("not-a-cursor", 10));
+    }
+}
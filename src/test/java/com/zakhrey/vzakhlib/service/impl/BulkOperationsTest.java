@@ -0,0 +1,118 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.BulkOperationResult;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ServiceJpaTest
+class BulkOperationsTest {
+
+    private static final int BOOKS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private SeriesServiceImpl seriesService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SeriesRepository seriesRepository;
+
+    private Series series;
+    private Genre fantasy;
+    private Genre detective;
+    private final List<UUID> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        series = fixture.series();
+        fantasy = fixture.genre();
+        detective = fixture.genre("Детектив");
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = i % 4 == 0
+                ? fixture.book("Книга " + i, Language.RUS, series, fantasy, detective)
+                : fixture.book("Книга " + i, Language.RUS, series, fantasy);
+            bookIds.add(book.getId());
+        }
+
+        fixture.reset();
+    }
+
+    @Test
+    void detachAllBooks_unlinksSeriesInOneStatement() {
+        // проверка существования серии + UPDATE
+        BulkOperationResult result = QueryBudget.assertAtMost(2, () -> seriesService.detachAllBooks(series.getId()));
+
+        assertEquals(BOOKS, result.getAffected());
+        assertTrue(bookRepository.findBySeriesId(series.getId()).isEmpty());
+    }
+
+    @Test
+    void deleteSeries_keepsBooksWithoutPerBookUpdates() {
+        seriesService.deleteSeries(series.getId());
+        entityManager.flush();
+
+        assertFalse(seriesRepository.existsById(series.getId()));
+        assertEquals(BOOKS, bookRepository.count());
+        assertEquals(0, fixture.statistics().getEntityUpdateCount());
+    }
+
+    @Test
+    void deleteBooks_deletesLinksAndBooksInTwoStatements() {
+        BulkOperationResult result = QueryBudget.assertAtMost(2, () -> bookService.deleteBooks(bookIds.subList(0, 25)));
+
+        assertEquals(25, result.getAffected());
+        assertEquals(BOOKS - 25, bookRepository.count());
+        assertEquals(BOOKS - 25, bookRepository.countByGenreId(fantasy.getId()));
+    }
+
+    @Test
+    void reassignBooks_movesLinksWithoutDuplicates() {
+        // две проверки существования + INSERT ... SELECT + DELETE
+        BulkOperationResult result = QueryBudget.assertAtMost(4, () ->
+            genreService.reassignBooks(fantasy.getId(), detective.getId()));
+
+        assertEquals(BOOKS, result.getAffected());
+        assertEquals(0, bookRepository.countByGenreId(fantasy.getId()));
+        assertEquals(BOOKS, bookRepository.countByGenreId(detective.getId()));
+    }
+
+    @Test
+    void deleteGenre_withLinkedBooks_removesLinks() {
+        genreService.deleteGenre(detective.getId());
+        entityManager.flush();
+
+        assertEquals(0, bookRepository.countByGenreId(detective.getId()));
+        assertEquals(BOOKS, bookRepository.count());
+    }
+}
@@ -0,0 +1,76 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.model.GenreDto;
+import com.zakhrey.vzakhlib.model.request.GenreUpdateRequest;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Кеш второго уровня наполняется при фиксации транзакций, поэтому каждый вызов сервиса идет в своей
+@ServiceJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private SeriesServiceImpl seriesService;
+
+    private Genre genre;
+    private Series series;
+
+    @BeforeEach
+    void setUp() {
+        genre = fixture.genre();
+        series = fixture.series();
+        fixture.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteAll();
+    }
+
+    @Test
+    void getGenreById_secondReadIsServedFromCache() {
+        QueryBudget.assertAtMost(1, () -> genreService.getGenreById(genre.getId()));
+        GenreDto second = QueryBudget.assertAtMost(0, () -> genreService.getGenreById(genre.getId()));
+
+        assertEquals(1, fixture.statistics().getSecondLevelCacheHitCount());
+        assertEquals(CatalogFixture.GENRE_NAME, second.getName());
+    }
+
+    @Test
+    void getSeriesById_secondReadIsServedFromCache() {
+        seriesService.getSeriesById(series.getId());
+        QueryBudget.assertAtMost(0, () -> seriesService.getSeriesById(series.getId()));
+
+        assertTrue(fixture.statistics().getSecondLevelCacheHitCount() >= 1);
+    }
+
+    @Test
+    void updateGenre_replacesCachedEntry() {
+        genreService.getGenreById(genre.getId());
+
+        GenreUpdateRequest request = new GenreUpdateRequest();
+        request.setDescription("Новое описание");
+        genreService.updateGenre(genre.getId(), request);
+        GenreDto reloaded = QueryBudget.assertAtMost(0, () -> genreService.getGenreById(genre.getId()));
+
+        assertEquals("Новое описание", reloaded.getDescription());
+    }
+}
@@ -0,0 +1,128 @@
+package com.zakhrey.vzakhlib.service.impl;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.exception.ResourceAlreadyExistsException;
+import com.zakhrey.vzakhlib.model.SeriesDto;
+import com.zakhrey.vzakhlib.model.request.GenreCreateRequest;
+import com.zakhrey.vzakhlib.model.request.SeriesCreateRequest;
+import com.zakhrey.vzakhlib.model.request.SeriesUpdateRequest;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import com.zakhrey.vzakhlib.support.CatalogFixture;
+import com.zakhrey.vzakhlib.support.QueryBudget;
+import com.zakhrey.vzakhlib.support.ServiceJpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Нарушение индекса откатывает транзакцию сервиса, поэтому каждый вызов идет в своей
+@ServiceJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UniqueNamesTest {
+
+    @Autowired
+    private CatalogFixture fixture;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Autowired
+    private SeriesServiceImpl seriesService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private SeriesRepository seriesRepository;
+
+    @AfterEach
+    void tearDown() {
+        fixture.deleteAll();
+    }
+
+    private static GenreCreateRequest genreRequest(String name) {
+        GenreCreateRequest request = new GenreCreateRequest();
+        request.setName(name);
+        return request;
+    }
+
+    private static SeriesCreateRequest seriesRequest(String name) {
+        SeriesCreateRequest request = new SeriesCreateRequest();
+        request.setName(name);
+        return request;
+    }
+
+    @Test
+    void createGenre_insertsWithoutExistenceCheck() {
+        QueryBudget.assertAtMost(1, () -> genreService.createGenre(genreRequest("Фантастика")));
+    }
+
+    @Test
+    void createGenre_duplicateNameIsRejectedByIndex() {
+        genreService.createGenre(genreRequest("Фантастика"));
+
+        ResourceAlreadyExistsException e = assertThrows(ResourceAlreadyExistsException.class,
+            () -> genreService.createGenre(genreRequest("Фантастика")));
+        assertEquals("Жанр с названием 'Фантастика' уже существует", e.getMessage());
+        assertEquals(1, genreRepository.count());
+    }
+
+    @Test
+    void createGenre_caseVariantIsDistinctWithoutPostgresqlIndex() {
+        // Ограничение ddl-auto различает регистр; без учета регистра - только индекс LOWER(name) на PostgreSQL
+        genreService.createGenre(genreRequest("Фантастика"));
+        genreService.createGenre(genreRequest("фантастика"));
+
+        assertEquals(2, genreRepository.count());
+    }
+
+    @Test
+    void updateSeries_toTakenNameIsRejectedByIndex() {
+        seriesService.createSeries(seriesRequest("Цикл"));
+        SeriesDto other = seriesService.createSeries(seriesRequest("Другой цикл"));
+
+        SeriesUpdateRequest request = new SeriesUpdateRequest();
+        request.setName("Цикл");
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> seriesService.updateSeries(other.getId(), request));
+        assertEquals("Другой цикл", seriesRepository.findById(other.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void insertSkippingTakenNames_skipsOnlyTakenNames() {
+        // Название, занятое уже после проверки в сервисе: пакет не отклоняется целиком
+        fixture.book("Занятая", Language.RUS, null);
+        Genre genre = fixture.genre();
+
+        List<Book> books = List.of(
+            Book.builder().name("Новая").language(Language.RUS).genres(new HashSet<>(Set.of(genre))).build(),
+            Book.builder().name("Занятая").language(Language.ENG).genres(new HashSet<>(Set.of(genre))).build());
+        int[] counts = new TransactionTemplate(transactionManager)
+            .execute(status -> bookRepository.insertSkippingTakenNames(books));
+
+        assertArrayEquals(new int[]{1, 0}, counts);
+        assertEquals(2, bookRepository.count());
+        assertEquals(Set.of(genre.getId()), bookRepository.findByIdWithSeriesAndGenres(books.get(0).getId())
+            .orElseThrow().getGenres().stream().map(Genre::getId).collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.zakhrey.vzakhlib.support;
+
+import com.zakhrey.vzakhlib.entity.Book;
+import com.zakhrey.vzakhlib.entity.Genre;
+import com.zakhrey.vzakhlib.entity.Language;
+import com.zakhrey.vzakhlib.entity.Series;
+import com.zakhrey.vzakhlib.repository.BookRepository;
+import com.zakhrey.vzakhlib.repository.GenreRepository;
+import com.zakhrey.vzakhlib.repository.SeriesRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Данные каталога для тестов {@link ServiceJpaTest}: серия «Цикл», жанры и книги.
+ * Работает и в транзакции теста, и без нее, когда каждый вызов сервиса фиксирует свою.
+ */
+@RequiredArgsConstructor
+public class CatalogFixture {
+
+    public static final String SERIES_NAME = "Цикл";
+    public static final String GENRE_NAME = "Фантастика";
+
+    private final TestEntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookRepository bookRepository;
+    private final GenreRepository genreRepository;
+    private final SeriesRepository seriesRepository;
+
+    /**
+     * Сохранить серию «Цикл»
+     */
+    public Series series() {
+        return seriesRepository.save(Series.builder().name(SERIES_NAME).build());
+    }
+
+    /**
+     * Сохранить жанр «Фантастика»
+     */
+    public Genre genre() {
+        return genre(GENRE_NAME);
+    }
+
+    /**
+     * Сохранить жанр с названием {@code name}
+     */
+    public Genre genre(String name) {
+        return genreRepository.save(Genre.builder().name(name).build());
+    }
+
+    /**
+     * Сохранить книгу; {@code series} может быть null
+     */
+    public Book book(String name, Language language, Series series, Genre... genres) {
+        return bookRepository.save(Book.builder()
+            .name(name)
+            .language(language)
+            .series(series)
+            .genres(new HashSet<>(Set.of(genres)))
+            .build());
+    }
+
+    /**
+     * Записать созданные данные, очистить контекст и кэш второго уровня и обнулить статистику,
+     * чтобы проверки видели только работу проверяемого кода
+     */
+    public void reset() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        sessionFactory().getCache().evictAllRegions();
+        statistics().clear();
+    }
+
+    /**
+     * Удалить данные каталога; для тестов без транзакции, где откатывать нечего
+     */
+    public void deleteAll() {
+        bookRepository.deleteAll();
+        genreRepository.deleteAll();
+        seriesRepository.deleteAll();
+    }
+
+    public Statistics statistics() {
+        return sessionFactory().getStatistics();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.zakhrey.vzakhlib.support;
+
+import com.zakhrey.vzakhlib.monitoring.RequestStatements;
+import com.zakhrey.vzakhlib.monitoring.StatementStatsFilter;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверки числа SQL-запросов для тестов репозиториев, сервисов и MVC.
+ * Учет ведет {@link RequestStatements}, поэтому проверяемый код должен выполняться в потоке теста.
+ */
+public final class QueryBudget {
+
+    /** Повторов одной формы запроса, начиная с которых {@link #assertNoNPlusOne} считает ее N+1 */
+    public static final int N_PLUS_ONE_THRESHOLD = 3;
+
+    private QueryBudget() {
+    }
+
+    /**
+     * Выполнить {@code action} и проверить, что он выполнил не больше {@code maxStatements} SQL-запросов
+     */
+    public static <T> T assertAtMost(int maxStatements, ThrowingSupplier<T> action) {
+        try (RequestStatements statements = RequestStatements.open()) {
+            T result = run(action);
+            if (statements.getCount() > maxStatements) {
+                fail(String.format("Выполнено %d SQL-запросов при допустимых %d:%n%s",
+                    statements.getCount(), maxStatements, describe(statements.getShapes())));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Выполнить {@code action} и проверить, что ни одна форма запроса не повторилась
+     * {@link #N_PLUS_ONE_THRESHOLD} и более раз
+     */
+    public static <T> T assertNoNPlusOne(ThrowingSupplier<T> action) {
+        try (RequestStatements statements = RequestStatements.open()) {
+            T result = run(action);
+            Map<String, Integer> repeated = statements.repeated(N_PLUS_ONE_THRESHOLD);
+            if (!repeated.isEmpty()) {
+                fail(String.format("Возможный N+1:%n%s", describe(repeated)));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Проверка ответа MockMvc по заголовку {@link StatementStatsFilter#QUERY_COUNT}
+     */
+    public static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            String count = result.getResponse().getHeader(StatementStatsFilter.QUERY_COUNT);
+            assertNotNull(count, "Нет заголовка " + StatementStatsFilter.QUERY_COUNT);
+            assertTrue(Integer.parseInt(count) <= maxStatements,
+                String.format("Выполнено %s SQL-запросов при допустимых %d", count, maxStatements));
+        };
+    }
+
+    private static <T> T run(ThrowingSupplier<T> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String describe(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+            .map(entry -> entry.getValue() + " x " + entry.getKey())
+            .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.zakhrey.vzakhlib.support;
+
+import com.zakhrey.vzakhlib.service.impl.ApproximateCountCache;
+import com.zakhrey.vzakhlib.service.impl.BookDtoCache;
+import com.zakhrey.vzakhlib.service.impl.BookServiceImpl;
+import com.zakhrey.vzakhlib.service.impl.GenreServiceImpl;
+import com.zakhrey.vzakhlib.service.impl.SeriesServiceImpl;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Тест сервисов каталога на JPA-срезе: сервисы книг, жанров и серий с их кэшами и {@link CatalogFixture}.
+ * Статистика Hibernate включена для проверок загрузки сущностей и кэша второго уровня,
+ * число SQL-запросов проверяется через {@link QueryBudget}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CatalogFixture.class, BookServiceImpl.class, GenreServiceImpl.class, SeriesServiceImpl.class,
+         ApproximateCountCache.class, BookDtoCache.class, LocalValidatorFactoryBean.class})
+public @interface ServiceJpaTest {
+}